@@ -14,8 +14,32 @@
 
 # Uncomment this to preserve the line number information for
 # debugging stack traces.
-#-keepattributes SourceFile,LineNumberTable
+-keepattributes SourceFile,LineNumberTable
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+-renamesourcefileattribute SourceFile
+# --- Gson models ---
+# Read and written by reflection: rate payloads that RateTableConverterFactory hands on to Gson,
+# the history blob older versions saved (MainActivity.migrateLegacyHistory) and the alert state.
+# Full mode also drops unused default constructors, which Gson would otherwise replace with
+# Unsafe allocation and skip the field initialisers.
+-keep class com.megaproject.currencyconverter.ExchangeRateResponse { <init>(); <fields>; }
+-keep class com.megaproject.currencyconverter.HistoryItem { <init>(...); <fields>; }
+-keep class com.megaproject.currencyconverter.RateAlertRule { <init>(...); <fields>; }
+-keep enum com.megaproject.currencyconverter.RateAlertRule$Kind { *; }
+-keep class com.megaproject.currencyconverter.RateAlertEngine$State { <init>(); <fields>; }
+
+# Gson 2.10 has no bundled rules: TypeToken subclasses (new TypeToken<List<HistoryItem>>() {})
+# need their generic signature
+-keepattributes Signature, *Annotation*
+-keep class * extends com.google.gson.reflect.TypeToken
+-keep class com.google.gson.reflect.TypeToken { *; }
+
+# --- Retrofit ---
+# Retrofit 2.9's bundled rules predate full mode: keep the service interface and the generic
+# return types it reads Call<ExchangeRateResponse> from
+-keep,allowobfuscation interface com.megaproject.currencyconverter.CurrencyApiService
+-keep,allowobfuscation,allowshrinking interface retrofit2.Call
+-keep,allowobfuscation,allowshrinking class retrofit2.Response
+-keep,allowobfuscation,allowshrinking class kotlin.coroutines.Continuation
@@ -0,0 +1,55 @@
+package com.megaproject.currencyconverter;
+
+import java.io.IOException;
+
+import retrofit2.Response;
+
+/**
+ * Rates for {@link BatchConverter} from {@link CurrencyApiService}, fetched synchronously on the
+ * batch thread. The current {@link RateSnapshots} table (the one on screen) is used first so a
+ * batch usually needs no request at all, and anything fetched is published back for the
+ * others. The API only serves latest rates, so dated rows use the {@link RateHistoryStore}
+ * snapshot for that day (or up to a week before) when there is one, and the latest rates
+ * otherwise; the converter writes the table's own date next to each result either way.
+ */
+public class ApiRateSource implements BatchConverter.RateSource {
+
+    private static final int MAX_HISTORY_GAP_DAYS = 7;
+
+    private final CurrencyApiService apiService;
+    private final RateHistoryStore history;
+    private final RateSnapshots snapshots;
+
+    /** With only the given table to start from (may be null), shared with nobody. */
+    public ApiRateSource(CurrencyApiService apiService, CrossRateTable latest) {
+        this(apiService, new RateSnapshots(), null);
+        if (latest != null) snapshots.publish(latest, 0);
+    }
+
+    public ApiRateSource(CurrencyApiService apiService, RateSnapshots snapshots, RateHistoryStore history) {
+        this.apiService = apiService;
+        this.snapshots = snapshots;
+        this.history = history;
+    }
+
+    @Override
+    public CrossRateTable table(String from, String date) throws IOException {
+        int day = history != null ? RateHistoryStore.epochDay(date) : Integer.MIN_VALUE;
+        if (day != Integer.MIN_VALUE) {
+            CrossRateTable past = history.tableOn(day, MAX_HISTORY_GAP_DAYS);
+            if (past != null && past.has(from)) return past;
+        }
+
+        CrossRateTable table = snapshots.table();
+        if (table != null && table.has(from)) return table;
+
+        Response<ExchangeRateResponse> response = apiService.getLatestRates(from).execute();
+        ExchangeRateResponse body = response.body();
+        if (!response.isSuccessful() || body == null || !body.hasRates()) {
+            throw new IOException("Rate request for " + from + " failed with HTTP " + response.code());
+        }
+        table = CrossRateTable.from(body);
+        snapshots.publish(table, System.currentTimeMillis());
+        return table;
+    }
+}
@@ -0,0 +1,93 @@
+package com.megaproject.currencyconverter;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * What MainActivity needs before its first frame, started from the splash so it loads while
+ * the splash draws: the currency registry and flag atlas, Retrofit and the rate cache, the
+ * cached table for the last base, and the history file with its first page. Everything ends up
+ * in the per-process singletons (history in this one), so MainActivity's onCreate finds it
+ * warm. Nothing here needs the network.
+ */
+public final class AppWarmup {
+
+    private static final String TAG = "AppWarmup";
+
+    private static AppWarmup instance;
+
+    private final StartupGraph graph = new StartupGraph();
+    private final File historyDir;
+    private HistoryStore historyStore;   // One per process, never closed
+    private HistoryWriter historyWriter; // Once the store has been prepared
+
+    private AppWarmup(Context context) {
+        historyDir = new File(context.getFilesDir(), "history");
+        graph.add("registry", () -> CurrencyRegistry.get(context))
+                .add("flags", () -> FlagAtlas.get(context), "registry")
+                .add("services", () -> RateServices.get(context))
+                // Parses the cached table for the base MainActivity opens with and publishes it as
+                // the first rate snapshot
+                .add("rates", () -> RateServices.get(context).repository.peek(RatePrefetchWorker.lastBase(context)), "services")
+                .add("history", this::openHistory);
+    }
+
+    /** Starts the warmup the first time it's called in the process, then just returns it. */
+    public static synchronized AppWarmup start(Context context) {
+        if (instance == null) {
+            instance = new AppWarmup(context.getApplicationContext());
+            ExecutorService executor = Executors.newFixedThreadPool(3);
+            boolean debuggable = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+            instance.graph.whenFinished(() -> {
+                executor.shutdown();
+                if (debuggable) Log.d(TAG, instance.graph.report()); // Step timings, debug builds only
+            });
+            instance.graph.start(executor);
+        }
+        return instance;
+    }
+
+    /** Null if the warmup was never started in this process. */
+    public static synchronized AppWarmup current() {
+        return instance;
+    }
+
+    public StartupGraph graph() {
+        return graph;
+    }
+
+    /** Brings a store up to date before its first use, e.g. migrating older data into it. */
+    public interface HistorySetup {
+        void prepare(HistoryStore store) throws IOException;
+    }
+
+    private void openHistory() throws IOException {
+        historyStore().readPage(0, PagedHistory.PAGE_SIZE); // Pulls the newest records into the page cache
+    }
+
+    private synchronized HistoryStore historyStore() throws IOException {
+        if (historyStore == null) historyStore = new HistoryStore(historyDir);
+        return historyStore;
+    }
+
+    /**
+     * The process's history writer, over the store the warmup opened, prepared with
+     * {@code setup} the first time. Every MainActivity instance shares it, so a recreated screen
+     * never opens the file again while the old one may still be flushing. May touch the disk,
+     * call it off the main thread.
+     */
+    public synchronized HistoryWriter history(HistorySetup setup) throws IOException {
+        if (historyWriter == null) {
+            HistoryStore store = historyStore();
+            setup.prepare(store);
+            historyWriter = new HistoryWriter(store);
+        }
+        return historyWriter;
+    }
+}
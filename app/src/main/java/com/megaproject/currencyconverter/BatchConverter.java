@@ -0,0 +1,515 @@
+package com.megaproject.currencyconverter;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Converts a file of (amount, from, to[, date]) rows and writes each row back with its result.
+ * Rows are read, converted and written a chunk at a time into arrays that are reused for the
+ * whole run, so memory stays flat however long the file is.
+ *
+ * CSV input may start with a header naming the columns (amount, from, to, date, any order);
+ * without one they are taken in that order. Quoted fields are supported, line breaks inside
+ * them are not. JSON input is an array of objects with the same keys. The output uses the
+ * input's format. Negative amounts (refunds) are allowed. Rows with a bad amount or currency
+ * are written with an error and counted, they don't stop the run. Each result carries the date
+ * of the rates it used (rate_date), which may be earlier or later than the row's own date if the
+ * source had nothing for that day.
+ *
+ * One run at a time per instance; {@link #cancel()} may be called from any thread.
+ */
+public class BatchConverter {
+
+    public static final int DEFAULT_CHUNK_ROWS = 1024;
+    private static final int MAX_CACHED_TABLES = 64;
+
+    public enum Format {
+        CSV, JSON;
+
+        /** From a file name or MIME type, CSV unless it says JSON. */
+        public static Format guess(String nameOrMimeType) {
+            return nameOrMimeType != null && nameOrMimeType.toLowerCase(Locale.ROOT).contains("json") ? JSON : CSV;
+        }
+    }
+
+    /** Rate tables for a date ("" for latest). Any table gives every pair, from is just a hint for the base. */
+    public interface RateSource {
+        CrossRateTable table(String from, String date) throws IOException;
+    }
+
+    public interface ProgressListener {
+        void onProgress(long rows, long bytesRead);
+    }
+
+    public static final class Result {
+        public final long rows;
+        public final long converted;
+        public final long failed;
+        public final boolean cancelled;
+
+        Result(long rows, long converted, long failed, boolean cancelled) {
+            this.rows = rows;
+            this.converted = converted;
+            this.failed = failed;
+            this.cancelled = cancelled;
+        }
+    }
+
+    private static final String ERROR_AMOUNT = "invalid amount";
+    private static final String ERROR_CURRENCY = "unknown currency";
+    private static final String ERROR_RATE = "no rate";
+    private static final String ERROR_DATE = "invalid date";
+
+    private final RateSource rates;
+    private final int chunkRows;
+    private final IntUnaryOperator minorUnits; // Decimals of a result, by target ordinal
+    private final MoneyFormatter formatter = new MoneyFormatter(Locale.ROOT); // '.' decimals, no grouping
+    private final StringBuilder number = new StringBuilder(32);
+    private final Map<String, CrossRateTable> tables = new LinkedHashMap<String, CrossRateTable>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CrossRateTable> eldest) {
+            return size() > MAX_CACHED_TABLES;
+        }
+    };
+    private volatile boolean cancelled;
+
+    // One chunk: the row as read, then what it converted to
+    private final String[] amountTexts, fromTexts, toTexts, dates, rateDates, errors;
+    private final long[] results;   // In the target's minor units
+    private final int[] digits;
+    private final double[] rowRates;
+    private int chunkSize;
+
+    /** Results to 2 decimals whatever the currency. */
+    public BatchConverter(RateSource rates) {
+        this(rates, DEFAULT_CHUNK_ROWS, ordinal -> 2);
+    }
+
+    /** Results to the decimals of their currency, by ordinal: {@link CurrencyRegistry#minorUnits(int)}. */
+    public BatchConverter(RateSource rates, IntUnaryOperator minorUnits) {
+        this(rates, DEFAULT_CHUNK_ROWS, minorUnits);
+    }
+
+    public BatchConverter(RateSource rates, int chunkRows, IntUnaryOperator minorUnits) {
+        this.rates = rates;
+        this.chunkRows = chunkRows;
+        this.minorUnits = minorUnits;
+        amountTexts = new String[chunkRows];
+        fromTexts = new String[chunkRows];
+        toTexts = new String[chunkRows];
+        dates = new String[chunkRows];
+        rateDates = new String[chunkRows];
+        errors = new String[chunkRows];
+        results = new long[chunkRows];
+        digits = new int[chunkRows];
+        rowRates = new double[chunkRows];
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Reads rows from {@code in} (UTF-8) and writes results to {@code out}. Neither stream is
+     * closed. Progress is reported after every chunk; a cancelled run stops at the next chunk
+     * boundary with everything before it written. Fails with an IOException if the input is
+     * malformed or rates for a row can't be had.
+     */
+    public Result convert(InputStream in, OutputStream out, Format format, ProgressListener listener) throws IOException {
+        cancelled = false;
+        tables.clear();
+        CountingInputStream counting = new CountingInputStream(in);
+        Reader reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8), 64 * 1024);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowFormat rows = format == Format.JSON ? new JsonRows(reader, writer) : new CsvRows(reader, writer);
+
+        long total = 0, converted = 0, failed = 0;
+        rows.begin();
+        while (!cancelled) {
+            chunkSize = 0;
+            while (chunkSize < chunkRows && rows.read(chunkSize)) {
+                chunkSize++;
+            }
+            if (chunkSize == 0) break;
+            for (int i = 0; i < chunkSize; i++) {
+                if (convertRow(i)) converted++; // Throws if rates can't be fetched, no point carrying on
+                else failed++;
+            }
+            for (int i = 0; i < chunkSize; i++) {
+                rows.write(i);
+            }
+            total += chunkSize;
+            if (listener != null) listener.onProgress(total, counting.count);
+        }
+        rows.end();
+        writer.flush();
+        return new Result(total, converted, failed, cancelled);
+    }
+
+    private boolean convertRow(int i) throws IOException {
+        results[i] = 0;
+        rowRates[i] = Double.NaN;
+        rateDates[i] = "";
+        if (errors[i] != null) return false; // Already found unusable when read
+
+        String text = amountTexts[i];
+        boolean negative = text.startsWith("-");
+        long amount = formatter.parseAmount(negative ? text.substring(1) : text);
+        if (amount == MoneyFormatter.INVALID) {
+            errors[i] = ERROR_AMOUNT;
+            return false;
+        }
+        int from = CurrencyCodes.ordinal(fromTexts[i].toUpperCase(Locale.ROOT));
+        int to = CurrencyCodes.ordinal(toTexts[i].toUpperCase(Locale.ROOT));
+        if (from < 0 || to < 0) {
+            errors[i] = ERROR_CURRENCY;
+            return false;
+        }
+        CrossRateTable table = tableFor(CurrencyCodes.code(from), dates[i]);
+        double rate = table.rate(from, to);
+        if (!(rate > 0)) {
+            errors[i] = ERROR_RATE;
+            return false;
+        }
+        digits[i] = minorUnits.applyAsInt(to);
+        long result = MoneyFormatter.multiply(amount, MoneyFormatter.scaleRate(rate), digits[i]);
+        results[i] = negative ? -result : result;
+        rowRates[i] = rate;
+        if (table.getDate() != null) rateDates[i] = table.getDate();
+        return true;
+    }
+
+    private CrossRateTable tableFor(String from, String date) throws IOException {
+        String key = date != null ? date : "";
+        CrossRateTable table = tables.get(key);
+        if (table == null) {
+            table = rates.table(from, key);
+            if (table == null) throw new IOException("No rates for " + from + " " + key);
+            tables.put(key, table);
+        }
+        return table;
+    }
+
+    // Result as a plain decimal string, e.g. "-12.50"
+    private String resultText(int i) {
+        number.setLength(0);
+        long result = results[i];
+        if (result < 0) number.append('-');
+        formatter.appendDecimal(number, Math.abs(result), digits[i], false);
+        return number.toString();
+    }
+
+    private String rateText(int i) {
+        number.setLength(0);
+        formatter.appendDecimal(number, MoneyFormatter.scaleRate(rowRates[i]), MoneyFormatter.RATE_SCALE, false);
+        return number.toString();
+    }
+
+    private interface RowFormat {
+        void begin() throws IOException;
+
+        /**
+         * Reads the next row into chunk slot i, false at the end of the input. A row that can't
+         * be converted whatever the rates gets its error here.
+         */
+        boolean read(int i) throws IOException;
+
+        void write(int i) throws IOException;
+
+        void end() throws IOException;
+    }
+
+    private final class CsvRows implements RowFormat {
+        private final BufferedReader in;
+        private final Writer out;
+        private final String[] fields = new String[16];
+        private final StringBuilder field = new StringBuilder();
+        private int amountColumn = 0, fromColumn = 1, toColumn = 2, dateColumn = 3;
+        private String pending; // First line, if it turned out not to be a header
+
+        CsvRows(Reader in, Writer out) {
+            this.in = (BufferedReader) in;
+            this.out = out;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            String first = nextLine();
+            if (first == null) return;
+            int count = split(first);
+            boolean header = false;
+            for (int c = 0; c < count; c++) {
+                switch (fields[c].trim().toLowerCase(Locale.ROOT)) {
+                    case "amount": amountColumn = c; header = true; break;
+                    case "from": fromColumn = c; header = true; break;
+                    case "to": toColumn = c; header = true; break;
+                    case "date": dateColumn = c; header = true; break;
+                }
+            }
+            if (header) {
+                if (count <= dateColumn || !"date".equalsIgnoreCase(fields[dateColumn].trim())) dateColumn = -1;
+            } else {
+                pending = first;
+            }
+            out.write("amount,from,to,date,result,rate,rate_date,error\n");
+        }
+
+        private String nextLine() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+            } while (line != null && line.trim().isEmpty());
+            return line;
+        }
+
+        @Override
+        public boolean read(int i) throws IOException {
+            String line = pending != null ? pending : nextLine();
+            pending = null;
+            if (line == null) return false;
+            int count = split(line);
+            amountTexts[i] = column(amountColumn, count);
+            fromTexts[i] = column(fromColumn, count);
+            toTexts[i] = column(toColumn, count);
+            dates[i] = dateColumn >= 0 ? column(dateColumn, count) : "";
+            errors[i] = null;
+            return true;
+        }
+
+        private String column(int c, int count) {
+            return c >= 0 && c < count ? fields[c].trim() : "";
+        }
+
+        // Splits one line into fields, handling "quoted, fields" and "" escapes
+        private int split(String line) {
+            int count = 0;
+            int pos = 0;
+            int length = line.length();
+            while (count < fields.length) {
+                field.setLength(0);
+                if (pos < length && line.charAt(pos) == '"') {
+                    pos++;
+                    while (pos < length) {
+                        char c = line.charAt(pos++);
+                        if (c == '"') {
+                            if (pos < length && line.charAt(pos) == '"') {
+                                field.append('"');
+                                pos++;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            field.append(c);
+                        }
+                    }
+                    while (pos < length && line.charAt(pos) != ',') pos++;
+                } else {
+                    int end = line.indexOf(',', pos);
+                    if (end < 0) end = length;
+                    field.append(line, pos, end);
+                    pos = end;
+                }
+                fields[count++] = field.toString();
+                if (pos >= length) break;
+                pos++; // The comma
+            }
+            return count;
+        }
+
+        @Override
+        public void write(int i) throws IOException {
+            writeField(amountTexts[i]);
+            out.write(',');
+            writeField(fromTexts[i]);
+            out.write(',');
+            writeField(toTexts[i]);
+            out.write(',');
+            writeField(dates[i]);
+            out.write(',');
+            if (errors[i] == null) {
+                out.write(resultText(i));
+                out.write(',');
+                out.write(rateText(i));
+                out.write(',');
+                writeField(rateDates[i]);
+                out.write(',');
+            } else {
+                out.write(",,,");
+                out.write(errors[i]);
+            }
+            out.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+
+    private final class JsonRows implements RowFormat {
+        private final JsonReader in;
+        private final JsonWriter out;
+
+        JsonRows(Reader in, Writer out) {
+            this.in = new JsonReader(in);
+            this.out = new JsonWriter(out);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            in.beginArray();
+            out.beginArray();
+        }
+
+        @Override
+        public boolean read(int i) throws IOException {
+            if (!in.hasNext()) return false;
+            amountTexts[i] = "";
+            fromTexts[i] = "";
+            toTexts[i] = "";
+            dates[i] = "";
+            errors[i] = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                JsonToken token = in.peek();
+                if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+                    // null is just missing; true, objects and arrays make the row fail like bad CSV fields
+                    in.skipValue();
+                    if (token != JsonToken.NULL && errors[i] == null) errors[i] = errorFor(name);
+                    continue;
+                }
+                switch (name) {
+                    case "amount": amountTexts[i] = in.nextString(); break; // Numbers come back as their literal
+                    case "from": fromTexts[i] = in.nextString(); break;
+                    case "to": toTexts[i] = in.nextString(); break;
+                    case "date": dates[i] = in.nextString(); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return true;
+        }
+
+        private String errorFor(String name) {
+            switch (name) {
+                case "amount": return ERROR_AMOUNT;
+                case "from": case "to": return ERROR_CURRENCY;
+                case "date": return ERROR_DATE;
+                default: return null; // Not ours, ignored like any other extra key
+            }
+        }
+
+        @Override
+        public void write(int i) throws IOException {
+            out.beginObject();
+            String amount = amountTexts[i];
+            if (isNumber(amount)) out.name("amount").jsonValue(amount);
+            else out.name("amount").value(amount.isEmpty() ? null : amount); // Echoed as given
+            out.name("from").value(fromTexts[i]);
+            out.name("to").value(toTexts[i]);
+            if (!dates[i].isEmpty()) out.name("date").value(dates[i]);
+            if (errors[i] == null) {
+                out.name("result").jsonValue(resultText(i));
+                out.name("rate").jsonValue(rateText(i));
+                if (!rateDates[i].isEmpty()) out.name("rate_date").value(rateDates[i]);
+            } else {
+                out.name("error").value(errors[i]);
+            }
+            out.endObject();
+        }
+
+        // Only a valid JSON number is written back raw, -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+        private boolean isNumber(String text) {
+            int length = text.length();
+            int c = 0;
+            if (c < length && text.charAt(c) == '-') c++;
+            if (c < length && text.charAt(c) == '0') {
+                c++;
+            } else {
+                int start = c;
+                c = digits(text, c);
+                if (c == start) return false;
+            }
+            if (c < length && text.charAt(c) == '.') {
+                int start = ++c;
+                c = digits(text, c);
+                if (c == start) return false;
+            }
+            if (c < length && (text.charAt(c) == 'e' || text.charAt(c) == 'E')) {
+                c++;
+                if (c < length && (text.charAt(c) == '+' || text.charAt(c) == '-')) c++;
+                int start = c;
+                c = digits(text, c);
+                if (c == start) return false;
+            }
+            return c == length;
+        }
+
+        private int digits(String text, int c) {
+            while (c < text.length() && text.charAt(c) >= '0' && text.charAt(c) <= '9') c++;
+            return c;
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.endArray(); // Input may be left mid-array if the run was cancelled
+            out.flush();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.megaproject.currencyconverter;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.provider.DocumentsContract;
+import android.provider.OpenableColumns;
+import android.view.View;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Batch conversion flow: pick a CSV/JSON file, pick where the results go (both through the
+ * system document pickers), then run {@link BatchConverter} on a background thread with a
+ * cancellable progress dialog. Must be created before the activity is started.
+ */
+public class BatchImport {
+
+    private static final long PROGRESS_INTERVAL_MS = 100;
+
+    private final AppCompatActivity activity;
+    private final Supplier<BatchConverter.RateSource> rateSource;
+    private final ActivityResultLauncher<String[]> openInput;
+    private final ActivityResultLauncher<String> createCsv;
+    private final ActivityResultLauncher<String> createJson;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Uri input;
+    private BatchConverter running;
+
+    public BatchImport(AppCompatActivity activity, Supplier<BatchConverter.RateSource> rateSource) {
+        this.activity = activity;
+        this.rateSource = rateSource;
+        openInput = activity.registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::onInputPicked);
+        createCsv = activity.registerForActivityResult(new ActivityResultContracts.CreateDocument("text/csv"), this::onOutputPicked);
+        createJson = activity.registerForActivityResult(new ActivityResultContracts.CreateDocument("application/json"), this::onOutputPicked);
+    }
+
+    public void start() {
+        if (running != null) return;
+        openInput.launch(new String[]{"text/csv", "text/comma-separated-values", "application/json", "text/plain"});
+    }
+
+    private void onInputPicked(Uri uri) {
+        if (uri == null) return;
+        input = uri;
+        String name = displayName(uri);
+        String base = name != null && name.lastIndexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : "expenses";
+        if (format(uri) == BatchConverter.Format.JSON) {
+            createJson.launch(base + "-converted.json");
+        } else {
+            createCsv.launch(base + "-converted.csv");
+        }
+    }
+
+    private void onOutputPicked(Uri output) {
+        if (output == null || input == null) return;
+        run(input, output);
+        input = null;
+    }
+
+    private void run(Uri inputUri, Uri outputUri) {
+        CurrencyRegistry currencies = CurrencyRegistry.get(activity);
+        BatchConverter converter = new BatchConverter(rateSource.get(), currencies::minorUnits); // Same decimals as on screen
+        BatchConverter.Format format = format(inputUri);
+        long size = size(inputUri);
+        running = converter;
+
+        View content = activity.getLayoutInflater().inflate(R.layout.dialog_batch_progress, null);
+        TextView tvProgress = content.findViewById(R.id.tvBatchProgress);
+        LinearProgressIndicator progress = content.findViewById(R.id.progressBatch);
+        progress.setIndeterminate(size <= 0);
+        AlertDialog dialog = new MaterialAlertDialogBuilder(activity)
+                .setTitle("Converting file")
+                .setView(content)
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (d, which) -> converter.cancel())
+                .show();
+
+        ContentResolver resolver = activity.getContentResolver();
+        executor.execute(() -> {
+            long[] lastPost = {0};
+            BatchConverter.Result result = null;
+            Exception error = null;
+            try (InputStream in = resolver.openInputStream(inputUri);
+                 OutputStream out = resolver.openOutputStream(outputUri, "wt")) {
+                if (in == null || out == null) throw new java.io.IOException("Can't open the selected files");
+                result = converter.convert(in, out, format, (rows, bytesRead) -> {
+                    // Chunks can finish faster than the screen updates, only post every so often
+                    long now = SystemClock.uptimeMillis();
+                    if (now - lastPost[0] < PROGRESS_INTERVAL_MS) return;
+                    lastPost[0] = now;
+                    mainHandler.post(() -> {
+                        tvProgress.setText(rows + " rows");
+                        if (size > 0) progress.setProgressCompat((int) Math.min(1000, bytesRead * 1000 / size), true);
+                    });
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                error = e;
+            }
+            if (error != null || result.cancelled) {
+                deleteQuietly(resolver, outputUri); // Don't leave half a file behind
+            }
+            BatchConverter.Result finalResult = result;
+            Exception finalError = error;
+            mainHandler.post(() -> {
+                running = null;
+                if (activity.isDestroyed()) return;
+                dialog.dismiss();
+                String message;
+                if (finalError != null) {
+                    message = "Batch conversion failed: " + finalError.getMessage();
+                } else if (finalResult.cancelled) {
+                    message = "Batch conversion cancelled";
+                } else {
+                    message = "Converted " + finalResult.converted + " rows"
+                            + (finalResult.failed > 0 ? ", " + finalResult.failed + " could not be converted" : "");
+                }
+                Toast.makeText(activity, message, Toast.LENGTH_LONG).show();
+            });
+        });
+    }
+
+    /** Stops a running batch (it stops at the next chunk) and the background thread. */
+    public void close() {
+        if (running != null) running.cancel();
+        executor.shutdown();
+    }
+
+    private BatchConverter.Format format(Uri uri) {
+        String name = displayName(uri);
+        String type = activity.getContentResolver().getType(uri);
+        return BatchConverter.Format.guess((name != null ? name : "") + " " + (type != null ? type : ""));
+    }
+
+    private String displayName(Uri uri) {
+        try (Cursor cursor = activity.getContentResolver().query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) return cursor.getString(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private long size(Uri uri) {
+        try (Cursor cursor = activity.getContentResolver().query(uri, new String[]{OpenableColumns.SIZE}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) return cursor.getLong(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private static void deleteQuietly(ContentResolver resolver, Uri uri) {
+        try {
+            DocumentsContract.deleteDocument(resolver, uri);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
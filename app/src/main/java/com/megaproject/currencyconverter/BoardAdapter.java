@@ -0,0 +1,154 @@
+package com.megaproject.currencyconverter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Shows a {@link ConversionBoard}. Each submit diffs the rows on screen against the board with
+ * DiffUtil over the primitive arrays (no row objects), so only rows whose amount changed are
+ * rebound, and only their amount text.
+ */
+public class BoardAdapter extends RecyclerView.Adapter<BoardAdapter.ViewHolder> {
+
+    private static final Object PAYLOAD_AMOUNT = new Object();
+
+    // What is on screen, copied from the board after each diff
+    private final int[] ordinals = new int[CurrencyCodes.count()];
+    private final long[] amounts = new long[CurrencyCodes.count()];
+    private final int[] digits = new int[CurrencyCodes.count()];
+    private int size;
+
+    private final MoneyFormatter formatter = new MoneyFormatter(Locale.getDefault());
+    private final BoardDiff diff = new BoardDiff();
+    private OnUnpinListener unpinListener;
+
+    public interface OnUnpinListener {
+        void onUnpin(int ordinal);
+    }
+
+    public BoardAdapter() {
+        setHasStableIds(true);
+    }
+
+    public void setOnUnpinListener(OnUnpinListener listener) {
+        this.unpinListener = listener;
+    }
+
+    public void submit(ConversionBoard board) {
+        diff.board = board;
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(diff, false); // Rows only move when pins change
+        diff.board = null;
+        size = board.size();
+        for (int row = 0; row < size; row++) {
+            ordinals[row] = board.ordinal(row);
+            amounts[row] = board.amount(row);
+            digits[row] = board.digits(row);
+        }
+        result.dispatchUpdatesTo(this);
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_board, parent, false);
+        ViewHolder holder = new ViewHolder(view);
+        view.setOnLongClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION || unpinListener == null) return false;
+            unpinListener.onUnpin(ordinals[position]);
+            return true;
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        long start = PerfMetrics.now();
+        holder.tvCode.setText(CurrencyCodes.code(ordinals[position]));
+        bindAmount(holder, position);
+        PerfMetrics.get().record(PerfMetrics.Timer.BOARD_BIND, start);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindAmount(holder, position); // Only PAYLOAD_AMOUNT is ever sent
+        }
+    }
+
+    private void bindAmount(ViewHolder holder, int position) {
+        StringBuilder text = holder.amountText;
+        text.setLength(0);
+        long amount = amounts[position];
+        if (amount == ConversionBoard.NO_RATE) {
+            text.append('—');
+        } else {
+            formatter.appendDecimal(text, amount, digits[position], true);
+        }
+        int length = Math.min(text.length(), holder.amountChars.length);
+        text.getChars(0, length, holder.amountChars, 0);
+        holder.tvAmount.setText(holder.amountChars, 0, length);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return ordinals[position];
+    }
+
+    @Override
+    public int getItemCount() {
+        return size;
+    }
+
+    // Old list is what the adapter shows, new list is the board being submitted
+    private final class BoardDiff extends DiffUtil.Callback {
+        ConversionBoard board;
+
+        @Override
+        public int getOldListSize() {
+            return size;
+        }
+
+        @Override
+        public int getNewListSize() {
+            return board.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return ordinals[oldPosition] == board.ordinal(newPosition);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return amounts[oldPosition] == board.amount(newPosition);
+        }
+
+        @Override
+        public Object getChangePayload(int oldPosition, int newPosition) {
+            return PAYLOAD_AMOUNT;
+        }
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        TextView tvCode, tvAmount;
+        // Per holder, the TextView keeps pointing at the char[] it was given
+        final StringBuilder amountText = new StringBuilder(32);
+        final char[] amountChars = new char[32];
+
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvCode = itemView.findViewById(R.id.tvBoardCode);
+            tvAmount = itemView.findViewById(R.id.tvBoardAmount);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.megaproject.currencyconverter;
+
+import java.util.Arrays;
+
+/**
+ * A daily rate series reduced to what a chart of a given width can show. Days are grouped into
+ * fixed buckets (aligned to epoch day 0, so appending never moves an existing boundary) and a
+ * closed bucket keeps only its first, lowest, highest and last point, in day order. At one
+ * bucket per pixel that draws the same line as every point would, so a 5 year series costs no
+ * more to render than a month.
+ *
+ * Points arrive in day order. The newest bucket stays open, with its raw points, until a later
+ * day starts the next one; a second value for the newest day replaces it. Closed points never
+ * change, so a path built from them only ever needs extending.
+ */
+public final class ChartSeries {
+
+    private final int bucketDays;
+    private int originDay = Integer.MIN_VALUE; // x = day - originDay, small enough to stay exact as a float
+
+    // Closed buckets
+    private float[] xs = new float[64], ys = new float[64];
+    private int pointCount;
+    private int[] bucketKeys = new int[16];
+    private float[] bucketMin = new float[16], bucketMax = new float[16];
+    private int bucketCount;
+
+    // Open bucket, raw
+    private int openKey;
+    private int[] openDays = new int[8];
+    private float[] openRates = new float[8];
+    private int openCount;
+
+    public ChartSeries(int bucketDays) {
+        this.bucketDays = Math.max(1, bucketDays);
+    }
+
+    /** Days per bucket so a range of {@code rangeDays} fits {@code widthPx} at about one bucket per pixel. */
+    public static int bucketDaysFor(int rangeDays, int widthPx) {
+        if (widthPx <= 0) return 1;
+        return Math.max(1, (rangeDays + widthPx - 1) / widthPx);
+    }
+
+    public int getBucketDays() {
+        return bucketDays;
+    }
+
+    public void clear() {
+        originDay = Integer.MIN_VALUE;
+        pointCount = 0;
+        bucketCount = 0;
+        openCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return pointCount == 0 && openCount == 0;
+    }
+
+    public int getOriginDay() {
+        return originDay;
+    }
+
+    public int lastDay() {
+        if (openCount > 0) return openDays[openCount - 1];
+        return pointCount > 0 ? originDay + (int) xs[pointCount - 1] : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Adds the rate for a day. Missing rates and days older than the newest are ignored.
+     * Returns true if this closed the previous bucket, i.e. {@link #pointCount} grew.
+     */
+    public boolean add(int day, double rate) {
+        if (!(rate > 0)) return false;
+        if (originDay == Integer.MIN_VALUE) originDay = day;
+        int last = lastDay();
+        if (last != Integer.MIN_VALUE && day < last) return false;
+
+        int key = Math.floorDiv(day, bucketDays);
+        boolean closed = false;
+        if (openCount > 0 && key != openKey) {
+            closeOpenBucket();
+            closed = true;
+        }
+        if (openCount > 0 && openDays[openCount - 1] == day) {
+            openRates[openCount - 1] = (float) rate;
+            return false;
+        }
+        if (openCount == openDays.length) {
+            openDays = Arrays.copyOf(openDays, openCount * 2);
+            openRates = Arrays.copyOf(openRates, openCount * 2);
+        }
+        openKey = key;
+        openDays[openCount] = day;
+        openRates[openCount++] = (float) rate;
+        return closed;
+    }
+
+    // Keeps first, min, max and last of the open bucket as closed points
+    private void closeOpenBucket() {
+        int min = 0, max = 0;
+        for (int i = 1; i < openCount; i++) {
+            if (openRates[i] < openRates[min]) min = i;
+            if (openRates[i] > openRates[max]) max = i;
+        }
+        if (pointCount + 4 > xs.length) {
+            xs = Arrays.copyOf(xs, xs.length * 2);
+            ys = Arrays.copyOf(ys, ys.length * 2);
+        }
+        int previous = -1;
+        for (int i : selected(min, max)) {
+            if (i == previous) continue;
+            xs[pointCount] = openDays[i] - originDay;
+            ys[pointCount++] = openRates[i];
+            previous = i;
+        }
+        if (bucketCount == bucketKeys.length) {
+            bucketKeys = Arrays.copyOf(bucketKeys, bucketCount * 2);
+            bucketMin = Arrays.copyOf(bucketMin, bucketCount * 2);
+            bucketMax = Arrays.copyOf(bucketMax, bucketCount * 2);
+        }
+        bucketKeys[bucketCount] = openKey;
+        bucketMin[bucketCount] = openRates[min];
+        bucketMax[bucketCount++] = openRates[max];
+        openCount = 0;
+    }
+
+    private final int[] selection = new int[4];
+
+    // First, min, max, last as ascending indices (duplicates are adjacent)
+    private int[] selected(int min, int max) {
+        selection[0] = 0;
+        selection[1] = Math.min(min, max);
+        selection[2] = Math.max(min, max);
+        selection[3] = openCount - 1;
+        return selection;
+    }
+
+    /** Closed points, in day order. */
+    public int pointCount() {
+        return pointCount;
+    }
+
+    public float x(int index) {
+        return xs[index];
+    }
+
+    public float y(int index) {
+        return ys[index];
+    }
+
+    /**
+     * Writes the open bucket as x,y pairs into {@code out} (room for 8 floats) the same way it
+     * will look once closed, and returns the number of points.
+     */
+    public int openPoints(float[] out) {
+        if (openCount == 0) return 0;
+        int min = 0, max = 0;
+        for (int i = 1; i < openCount; i++) {
+            if (openRates[i] < openRates[min]) min = i;
+            if (openRates[i] > openRates[max]) max = i;
+        }
+        int n = 0, previous = -1;
+        for (int i : selected(min, max)) {
+            if (i == previous) continue;
+            out[n * 2] = openDays[i] - originDay;
+            out[n * 2 + 1] = openRates[i];
+            n++;
+            previous = i;
+        }
+        return n;
+    }
+
+    /**
+     * Lowest and highest rate of the buckets overlapping [firstDay, lastDay] into out[0] and
+     * out[1]. Returns false if there are none. Costs one step per bucket, not per day.
+     */
+    public boolean range(int firstDay, int lastDay, float[] out) {
+        int firstKey = Math.floorDiv(firstDay, bucketDays), lastKey = Math.floorDiv(lastDay, bucketDays);
+        float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+        int i = Arrays.binarySearch(bucketKeys, 0, bucketCount, firstKey);
+        for (i = i >= 0 ? i : -i - 1; i < bucketCount && bucketKeys[i] <= lastKey; i++) {
+            min = Math.min(min, bucketMin[i]);
+            max = Math.max(max, bucketMax[i]);
+        }
+        for (int j = 0; j < openCount; j++) {
+            if (openDays[j] < firstDay || openDays[j] > lastDay) continue;
+            min = Math.min(min, openRates[j]);
+            max = Math.max(max, openRates[j]);
+        }
+        if (min > max) return false;
+        out[0] = min;
+        out[1] = max;
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.megaproject.currencyconverter;
+
+import android.view.Choreographer;
+
+/** Runs {@link FrameDebouncer} work on the next vsync, before that frame is drawn. */
+public final class ChoreographerFrameScheduler implements FrameDebouncer.FrameScheduler, Choreographer.FrameCallback {
+
+    private Runnable onFrame;
+
+    @Override
+    public void postFrameCallback(Runnable onFrame) {
+        this.onFrame = onFrame;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        onFrame.run();
+    }
+}
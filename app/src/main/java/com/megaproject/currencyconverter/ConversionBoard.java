@@ -0,0 +1,128 @@
+package com.megaproject.currencyconverter;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * One amount converted into every pinned currency. Pins are ordinals in the order they were
+ * added; {@link #compute} takes all cross rates in one pass over the rate table and then fixes
+ * each pinned row to its currency's minor units with {@link MoneyFormatter#multiply}, the same
+ * decimals as the main result. Everything lives in arrays
+ * sized for all known codes, so recomputing allocates nothing.
+ *
+ * Main thread only.
+ */
+public final class ConversionBoard {
+
+    public static final long NO_RATE = -1;
+
+    private final int[] pinned = new int[CurrencyCodes.count()];
+    private final long[] amounts = new long[CurrencyCodes.count()]; // In the row's minor units, NO_RATE if unknown
+    private final double[] rates = new double[CurrencyCodes.count()];
+    private final boolean[] isPinned = new boolean[CurrencyCodes.count()];
+    private final IntUnaryOperator minorUnits;
+    private int size;
+
+    /** Every row to 2 decimals. */
+    public ConversionBoard() {
+        this(ordinal -> 2);
+    }
+
+    /** Rows to the decimals of their currency, by ordinal: {@link CurrencyRegistry#minorUnits(int)}. */
+    public ConversionBoard(IntUnaryOperator minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int ordinal(int row) {
+        return pinned[row];
+    }
+
+    public long amount(int row) {
+        return amounts[row];
+    }
+
+    /** Decimals of the row's amount: 0 for JPY, 3 for KWD... */
+    public int digits(int row) {
+        return minorUnits.applyAsInt(pinned[row]);
+    }
+
+    public boolean isPinned(int ordinal) {
+        return ordinal >= 0 && isPinned[ordinal];
+    }
+
+    /** Adds a currency at the end, returns false if it was already pinned or unknown. */
+    public boolean pin(int ordinal) {
+        if (ordinal < 0 || ordinal >= isPinned.length || isPinned[ordinal]) return false;
+        isPinned[ordinal] = true;
+        pinned[size] = ordinal;
+        amounts[size] = NO_RATE;
+        size++;
+        return true;
+    }
+
+    public boolean unpin(int ordinal) {
+        if (!isPinned(ordinal)) return false;
+        isPinned[ordinal] = false;
+        int row = 0;
+        while (pinned[row] != ordinal) row++;
+        System.arraycopy(pinned, row + 1, pinned, row, size - row - 1);
+        System.arraycopy(amounts, row + 1, amounts, row, size - row - 1);
+        size--;
+        return true;
+    }
+
+    /** Pins every currency the table has a rate for, after the ones already pinned. */
+    public void pinAll(CrossRateTable table) {
+        for (int i = 0; i < CurrencyCodes.count(); i++) {
+            if (table.has(i)) pin(i);
+        }
+    }
+
+    public void clear() {
+        for (int row = 0; row < size; row++) isPinned[pinned[row]] = false;
+        size = 0;
+    }
+
+    /**
+     * Converts {@code amount} (scaled by {@link MoneyFormatter#AMOUNT_SCALE}) from {@code from}
+     * into every pinned currency. Rows without a rate, or every row if the amount is INVALID,
+     * get NO_RATE.
+     */
+    public void compute(CrossRateTable table, int from, long amount) {
+        table.crossRates(from, rates);
+        for (int row = 0; row < size; row++) {
+            double rate = rates[pinned[row]];
+            amounts[row] = amount != MoneyFormatter.INVALID && rate > 0
+                    ? MoneyFormatter.multiply(amount, MoneyFormatter.scaleRate(rate), digits(row))
+                    : NO_RATE;
+        }
+    }
+
+    /** Pins as comma separated codes, for prefs. */
+    public String pinsToString() {
+        StringBuilder out = new StringBuilder(size * 4);
+        for (int row = 0; row < size; row++) {
+            if (row > 0) out.append(',');
+            out.append(CurrencyCodes.code(pinned[row]));
+        }
+        return out.toString();
+    }
+
+    /** Replaces the pins with those in {@link #pinsToString} form, unknown codes are skipped. */
+    public void pinsFromString(String codes) {
+        clear();
+        if (codes == null || codes.isEmpty()) return;
+        int start = 0;
+        while (start < codes.length()) {
+            int end = codes.indexOf(',', start);
+            if (end < 0) end = codes.length();
+            if (end - start == 3) {
+                pin(CurrencyCodes.ordinal(codes.charAt(start), codes.charAt(start + 1), codes.charAt(start + 2)));
+            }
+            start = end + 1;
+        }
+    }
+}
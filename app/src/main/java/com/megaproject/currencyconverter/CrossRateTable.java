@@ -0,0 +1,100 @@
+package com.megaproject.currencyconverter;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Rates for every currency against one base, stored densely by {@link CurrencyCodes} ordinal.
+ * Any pair A→B is derived by going through the base (B per base / A per base), so one fetch
+ * covers swaps and base changes without another round trip.
+ *
+ * Instances are immutable once built.
+ */
+public final class CrossRateTable {
+
+    private final int baseOrdinal;
+    private final String date;
+    private final double[] perBase;    // units of currency i for 1 unit of base, NaN if unknown
+    private final double[] basePerUnit; // 1 / perBase[i], so cross rates are a single multiply
+
+    CrossRateTable(int baseOrdinal, String date, double[] perBase) {
+        this.baseOrdinal = baseOrdinal;
+        this.date = date;
+        this.perBase = perBase;
+        this.basePerUnit = new double[perBase.length];
+        for (int i = 0; i < perBase.length; i++) {
+            double r = perBase[i];
+            basePerUnit[i] = r > 0 ? 1.0 / r : Double.NaN;
+        }
+    }
+
+    /** Builds a table from an API response. Codes outside {@link CurrencyCodes} are skipped. */
+    public static CrossRateTable from(ExchangeRateResponse response) {
+        if (response.table != null) {
+            // Already dense (streamed by RatePayloadParser), shared as-is since nothing mutates it
+            return new CrossRateTable(CurrencyCodes.ordinal(response.base), response.date, response.table);
+        }
+        double[] perBase = new double[CurrencyCodes.count()];
+        Arrays.fill(perBase, Double.NaN);
+        int base = CurrencyCodes.ordinal(response.base);
+        if (response.rates != null) {
+            for (Map.Entry<String, Double> entry : response.rates.entrySet()) {
+                int ordinal = CurrencyCodes.ordinal(entry.getKey());
+                Double rate = entry.getValue();
+                if (ordinal >= 0 && rate != null && rate > 0) {
+                    perBase[ordinal] = rate;
+                }
+            }
+        }
+        if (base >= 0) {
+            perBase[base] = 1.0;
+        }
+        return new CrossRateTable(base, response.date, perBase);
+    }
+
+    public int getBaseOrdinal() {
+        return baseOrdinal;
+    }
+
+    public String getBase() {
+        return baseOrdinal >= 0 ? CurrencyCodes.code(baseOrdinal) : null;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public boolean has(int ordinal) {
+        return ordinal >= 0 && ordinal < perBase.length && perBase[ordinal] > 0;
+    }
+
+    public boolean has(String code) {
+        return has(CurrencyCodes.ordinal(code));
+    }
+
+    /** Units of {@code to} for one unit of {@code from}, or NaN if either is unknown. */
+    public double rate(int from, int to) {
+        if (!has(from) || !has(to)) return Double.NaN;
+        return perBase[to] * basePerUnit[from];
+    }
+
+    public double rate(String from, String to) {
+        return rate(CurrencyCodes.ordinal(from), CurrencyCodes.ordinal(to));
+    }
+
+    /**
+     * Rates from {@code from} to every ordinal in one pass, NaN where unknown. A straight loop
+     * over the dense array with the base leg hoisted out, so the JIT can vectorize it.
+     */
+    public void crossRates(int from, double[] out) {
+        double basePerFrom = has(from) ? basePerUnit[from] : Double.NaN;
+        double[] rates = perBase;
+        for (int i = 0; i < rates.length; i++) {
+            out[i] = rates[i] * basePerFrom;
+        }
+    }
+
+    public double convert(double amount, int from, int to) {
+        return amount * rate(from, to);
+    }
+}
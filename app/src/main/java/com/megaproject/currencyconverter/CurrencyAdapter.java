@@ -7,16 +7,21 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-
-import java.util.ArrayList;
 import java.util.List;
 
-public class CurrencyAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+/**
+ * The currency picker's rows. Lists are diffed off the main thread by {@link ListAdapter}, and
+ * moving the checkmark only rebinds the row losing it and the row getting it, and only their
+ * checkmark.
+ */
+public class CurrencyAdapter extends ListAdapter<CurrencyItem, RecyclerView.ViewHolder> {
+
+    private static final Object PAYLOAD_SELECTION = new Object();
 
-    private List<CurrencyItem> items = new ArrayList<>();
     private String selectedCurrencyCode;
     private OnItemClickListener listener;
 
@@ -24,23 +29,47 @@ public class CurrencyAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
         void onItemClick(CurrencyItem item);
     }
 
+    public CurrencyAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
     public void setOnItemClickListener(OnItemClickListener listener) {
         this.listener = listener;
     }
 
-    public void updateData(List<CurrencyItem> newItems) {
-        this.items = newItems;
-        notifyDataSetChanged();
-    }
-    
     public void setSelectedCurrency(String code) {
-        this.selectedCurrencyCode = code;
-        notifyDataSetChanged();
+        String previous = selectedCurrencyCode;
+        selectedCurrencyCode = code;
+        if (previous != null && previous.equalsIgnoreCase(code)) return;
+        notifySelection(previous);
+        notifySelection(code);
+    }
+
+    private void notifySelection(String code) {
+        if (code == null) return;
+        List<CurrencyItem> items = getCurrentList();
+        for (int i = 0; i < items.size(); i++) {
+            CurrencyItem item = items.get(i);
+            if (item.getType() == CurrencyItem.TYPE_ITEM && item.getCode().equalsIgnoreCase(code)) {
+                notifyItemChanged(i, PAYLOAD_SELECTION);
+                return;
+            }
+        }
     }
 
     @Override
     public int getItemViewType(int position) {
-        return items.get(position).getType();
+        return getItem(position).getType();
+    }
+
+    // Currencies by ordinal, headers below zero so the two never collide
+    @Override
+    public long getItemId(int position) {
+        CurrencyItem item = getItem(position);
+        if (item.getType() == CurrencyItem.TYPE_HEADER) return -1L - (item.getHeaderTitle().hashCode() & 0xFFFFFFFFL);
+        int ordinal = CurrencyCodes.ordinal(item.getCode());
+        return ordinal >= 0 ? ordinal : CurrencyCodes.count() + (item.getCode().hashCode() & 0xFFFFFFFFL);
     }
 
     @NonNull
@@ -51,39 +80,62 @@ public class CurrencyAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
             return new HeaderViewHolder(v);
         } else {
             View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_currency, parent, false);
-            return new ItemViewHolder(v);
+            ItemViewHolder holder = new ItemViewHolder(v);
+            v.setOnClickListener(view -> {
+                int position = holder.getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION || listener == null) return;
+                listener.onItemClick(getItem(position));
+            });
+            return holder;
         }
     }
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        CurrencyItem item = items.get(position);
+        long start = PerfMetrics.now();
+        CurrencyItem item = getItem(position);
         if (holder instanceof HeaderViewHolder) {
             ((HeaderViewHolder) holder).tvTitle.setText(item.getHeaderTitle());
         } else if (holder instanceof ItemViewHolder) {
             ItemViewHolder vh = (ItemViewHolder) holder;
             vh.tvCode.setText(item.getCode());
             vh.tvName.setText(item.getName());
-            
-            Glide.with(vh.itemView.getContext())
-                .load(item.getFlagUrl())
-                .circleCrop()
-                .into(vh.ivFlag);
-
-            boolean isSelected = item.getCode().equalsIgnoreCase(selectedCurrencyCode);
-            vh.ivCheck.setVisibility(isSelected ? View.VISIBLE : View.GONE);
-            
-            vh.itemView.setOnClickListener(v -> {
-                if (listener != null) listener.onItemClick(item);
-            });
+            FlagAtlas.get(vh.itemView.getContext()).into(vh.ivFlag, item.getCode()); // Bundled, no download per row
+            bindSelection(vh, item);
         }
+        PerfMetrics.get().record(PerfMetrics.Timer.CURRENCY_BIND, start);
     }
 
     @Override
-    public int getItemCount() {
-        return items.size();
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || !(holder instanceof ItemViewHolder)) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindSelection((ItemViewHolder) holder, getItem(position)); // Only PAYLOAD_SELECTION is ever sent
+        }
+    }
+
+    private void bindSelection(ItemViewHolder vh, CurrencyItem item) {
+        boolean isSelected = item.getCode().equalsIgnoreCase(selectedCurrencyCode);
+        vh.ivCheck.setVisibility(isSelected ? View.VISIBLE : View.GONE);
     }
 
+    /** Rows are the same if they show the same currency (or header); items are immutable. */
+    static final DiffUtil.ItemCallback<CurrencyItem> DIFF = new DiffUtil.ItemCallback<CurrencyItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull CurrencyItem a, @NonNull CurrencyItem b) {
+            if (a.getType() != b.getType()) return false;
+            return a.getType() == CurrencyItem.TYPE_HEADER
+                    ? a.getHeaderTitle().equals(b.getHeaderTitle())
+                    : a.getCode().equals(b.getCode());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull CurrencyItem a, @NonNull CurrencyItem b) {
+            return a == b;
+        }
+    };
+
     static class HeaderViewHolder extends RecyclerView.ViewHolder {
         TextView tvTitle;
         HeaderViewHolder(View itemView) {
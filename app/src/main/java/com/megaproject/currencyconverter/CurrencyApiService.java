@@ -2,9 +2,16 @@ package com.megaproject.currencyconverter;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.Path;
 
 public interface CurrencyApiService {
     @GET("latest/{base}")
     Call<ExchangeRateResponse> getLatestRates(@Path("base") String base);
+
+    // Conditional variant for background sync: a 304 with no body if nothing changed. Null headers are left out
+    @GET("latest/{base}")
+    Call<ExchangeRateResponse> getLatestRates(@Path("base") String base,
+                                              @Header("If-None-Match") String etag,
+                                              @Header("If-Modified-Since") String lastModified);
 }
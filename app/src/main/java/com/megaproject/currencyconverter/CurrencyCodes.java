@@ -0,0 +1,69 @@
+package com.megaproject.currencyconverter;
+
+/**
+ * Fixed dictionary of the currency codes the rate API can return. Every code gets a stable
+ * ordinal so rate tables can be plain arrays instead of maps keyed by String.
+ *
+ * Lookups go through a 26^3 table indexed by the three letters, so resolving a code never
+ * hashes or allocates.
+ */
+public final class CurrencyCodes {
+
+    // Sorted, ordinals are positions in this array. Only append-safe if persisted data is migrated.
+    private static final String[] CODES = {
+            "AED", "AFN", "ALL", "AMD", "ANG", "AOA", "ARS", "AUD", "AWG", "AZN",
+            "BAM", "BBD", "BDT", "BGN", "BHD", "BIF", "BMD", "BND", "BOB", "BRL",
+            "BSD", "BTN", "BWP", "BYN", "BZD", "CAD", "CDF", "CHF", "CLF", "CLP",
+            "CNH", "CNY", "COP", "CRC", "CUC", "CUP", "CVE", "CZK", "DJF", "DKK",
+            "DOP", "DZD", "EGP", "ERN", "ETB", "EUR", "FJD", "FKP", "FOK", "GBP",
+            "GEL", "GGP", "GHS", "GIP", "GMD", "GNF", "GTQ", "GYD", "HKD", "HNL",
+            "HRK", "HTG", "HUF", "IDR", "ILS", "IMP", "INR", "IQD", "IRR", "ISK",
+            "JEP", "JMD", "JOD", "JPY", "KES", "KGS", "KHR", "KID", "KMF", "KPW",
+            "KRW", "KWD", "KYD", "KZT", "LAK", "LBP", "LKR", "LRD", "LSL", "LYD",
+            "MAD", "MDL", "MGA", "MKD", "MMK", "MNT", "MOP", "MRU", "MUR", "MVR",
+            "MWK", "MXN", "MYR", "MZN", "NAD", "NGN", "NIO", "NOK", "NPR", "NZD",
+            "OMR", "PAB", "PEN", "PGK", "PHP", "PKR", "PLN", "PYG", "QAR", "RON",
+            "RSD", "RUB", "RWF", "SAR", "SBD", "SCR", "SDG", "SEK", "SGD", "SHP",
+            "SLE", "SLL", "SOS", "SRD", "SSP", "STN", "SVC", "SYP", "SZL", "THB",
+            "TJS", "TMT", "TND", "TOP", "TRY", "TTD", "TVD", "TWD", "TZS", "UAH",
+            "UGX", "USD", "UYU", "UZS", "VES", "VND", "VUV", "WST", "XAF", "XCD",
+            "XCG", "XDR", "XOF", "XPF", "YER", "ZAR", "ZMW", "ZWG", "ZWL"
+    };
+
+    // ordinal + 1 for every known code, 0 for unknown ones
+    private static final short[] LOOKUP = new short[26 * 26 * 26];
+
+    static {
+        for (int i = 0; i < CODES.length; i++) {
+            String code = CODES[i];
+            LOOKUP[slot(code.charAt(0), code.charAt(1), code.charAt(2))] = (short) (i + 1);
+        }
+    }
+
+    private CurrencyCodes() {}
+
+    public static int count() {
+        return CODES.length;
+    }
+
+    public static String code(int ordinal) {
+        return CODES[ordinal];
+    }
+
+    /** Returns the ordinal for the code, or -1 if it is not in the dictionary. */
+    public static int ordinal(String code) {
+        if (code == null || code.length() != 3) return -1;
+        return ordinal(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    public static int ordinal(char a, char b, char c) {
+        int slot = slot(a, b, c);
+        return slot < 0 ? -1 : LOOKUP[slot] - 1;
+    }
+
+    private static int slot(char a, char b, char c) {
+        int x = a - 'A', y = b - 'A', z = c - 'A';
+        if ((x | y | z) < 0 || x >= 26 || y >= 26 || z >= 26) return -1;
+        return (x * 26 + y) * 26 + z;
+    }
+}
@@ -0,0 +1,169 @@
+package com.megaproject.currencyconverter;
+
+import android.content.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * ISO-4217 metadata for every code in {@link CurrencyCodes}: name, symbol, minor units, the
+ * country whose flag represents it and extra search words. Packed by tools/PackCurrencies.java
+ * into assets/currencies.bin (about 8 KB), read once into a byte array and indexed by ordinal,
+ * so a lookup is an array access. Strings are decoded from the pool on first use and cached.
+ *
+ * Codes missing from the asset fall back to the code itself as name and symbol, 2 minor units
+ * and no flag. Thread-safe: the caches are only ever filled with equal immutable values.
+ */
+public final class CurrencyRegistry {
+
+    static final String ASSET = "currencies.bin";
+    private static final int HEADER = 8;
+    private static final String FLAG_URL = "https://flagcdn.com/w160/";
+
+    private static volatile CurrencyRegistry instance;
+
+    private final byte[] data;
+    private final int poolStart;
+    private final int[] records;      // Record offset by ordinal, -1 if the asset doesn't have it
+    private final String[] names, symbols, prefixes, aliases;
+
+    public static CurrencyRegistry get(Context context) {
+        CurrencyRegistry registry = instance;
+        if (registry == null) {
+            synchronized (CurrencyRegistry.class) {
+                registry = instance;
+                if (registry == null) {
+                    try (InputStream in = context.getApplicationContext().getAssets().open(ASSET)) {
+                        registry = read(in);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        registry = empty(); // Codes still show, just without names
+                    }
+                    instance = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    static CurrencyRegistry read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        byte[] buffer = new byte[8192];
+        for (int n; (n = in.read(buffer)) > 0; ) out.write(buffer, 0, n);
+        byte[] data = out.toByteArray();
+        if (data.length < HEADER || data[0] != 'C' || data[1] != 'U' || data[2] != 'R' || data[3] != '1') {
+            throw new IOException("Not a currency registry");
+        }
+        int count = u16(data, 4), recordSize = u16(data, 6);
+        if (recordSize < 12 || HEADER + count * recordSize > data.length) throw new IOException("Truncated currency registry");
+        return new CurrencyRegistry(data, count, recordSize);
+    }
+
+    static CurrencyRegistry empty() {
+        return new CurrencyRegistry(new byte[0], 0, 12);
+    }
+
+    private CurrencyRegistry(byte[] data, int count, int recordSize) {
+        this.data = data;
+        poolStart = HEADER + count * recordSize;
+        int n = CurrencyCodes.count();
+        records = new int[n];
+        Arrays.fill(records, -1);
+        for (int i = 0, at = HEADER; i < count; i++, at += recordSize) {
+            int ordinal = CurrencyCodes.ordinal((char) data[at], (char) data[at + 1], (char) data[at + 2]);
+            if (ordinal >= 0) records[ordinal] = at; // Codes the app doesn't know are skipped
+        }
+        names = new String[n];
+        symbols = new String[n];
+        prefixes = new String[n];
+        aliases = new String[n];
+    }
+
+    public boolean has(int ordinal) {
+        return ordinal >= 0 && records[ordinal] >= 0;
+    }
+
+    public String name(int ordinal) {
+        String name = names[ordinal];
+        if (name == null) names[ordinal] = name = string(ordinal, 6, CurrencyCodes.code(ordinal));
+        return name;
+    }
+
+    public String symbol(int ordinal) {
+        String symbol = symbols[ordinal];
+        if (symbol == null) symbols[ordinal] = symbol = string(ordinal, 8, CurrencyCodes.code(ordinal));
+        return symbol;
+    }
+
+    /** The symbol to put in front of an amount, with a space after lettered ones ("CHF 12", "$12"). */
+    public String prefix(int ordinal) {
+        String prefix = prefixes[ordinal];
+        if (prefix == null) {
+            String symbol = symbol(ordinal);
+            prefixes[ordinal] = prefix = Character.isLetter(symbol.charAt(symbol.length() - 1)) ? symbol + " " : symbol;
+        }
+        return prefix;
+    }
+
+    /** Search words (country names and the like), empty if there are none. */
+    public String[] aliases(int ordinal) {
+        String joined = aliases[ordinal];
+        if (joined == null) aliases[ordinal] = joined = string(ordinal, 10, "");
+        return joined.isEmpty() ? new String[0] : joined.split(";");
+    }
+
+    /** Decimals the currency is quoted with: 0 for JPY, 3 for KWD, 2 for most. */
+    public int minorUnits(int ordinal) {
+        int at = has(ordinal) ? records[ordinal] : -1;
+        return at >= 0 ? data[at + 3] : 2;
+    }
+
+    /** Lower case ISO-3166 country of the flag, or null (XDR has none). */
+    public String country(int ordinal) {
+        int at = has(ordinal) ? records[ordinal] : -1;
+        if (at < 0 || data[at + 4] == '-') return null;
+        return new String(data, at + 4, 2, StandardCharsets.US_ASCII);
+    }
+
+    public String flagUrl(int ordinal) {
+        String country = country(ordinal);
+        return country != null ? FLAG_URL + country + ".png" : null;
+    }
+
+    // --- By code, for callers holding Strings; unknown codes get the same fallbacks ---
+
+    public String name(String code) {
+        int ordinal = CurrencyCodes.ordinal(code);
+        return ordinal >= 0 ? name(ordinal) : code;
+    }
+
+    public String prefix(String code) {
+        int ordinal = CurrencyCodes.ordinal(code);
+        return ordinal >= 0 ? prefix(ordinal) : code + " ";
+    }
+
+    public int minorUnits(String code) {
+        return minorUnits(CurrencyCodes.ordinal(code));
+    }
+
+    public String flagUrl(String code) {
+        int ordinal = CurrencyCodes.ordinal(code);
+        return ordinal >= 0 ? flagUrl(ordinal) : null;
+    }
+
+    // Pool string whose offset is at the given position of the record
+    private String string(int ordinal, int field, String fallback) {
+        int at = records[ordinal];
+        if (at < 0) return fallback;
+        int offset = poolStart + u16(data, at + field);
+        int length = u16(data, offset);
+        return new String(data, offset + 2, length, StandardCharsets.UTF_8);
+    }
+
+    private static int u16(byte[] data, int at) {
+        return (data[at] & 0xFF) << 8 | (data[at + 1] & 0xFF);
+    }
+}
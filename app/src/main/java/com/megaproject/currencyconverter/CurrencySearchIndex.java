@@ -0,0 +1,149 @@
+package com.megaproject.currencyconverter;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Search over the currency list, built once so a keystroke only does lookups. Codes, names and
+ * aliases (country names and the like) are normalized (lower case, accents stripped, so "real"
+ * finds "Brazilian Réal" and "curacao" finds "Curaçao") and split into words. Words are kept
+ * sorted, so prefix matches are a binary search; substring matches fall back to a scan of the
+ * normalized text.
+ *
+ * Results are ranked exact code, then code prefix, then word prefix, then substring, keeping
+ * list order within a rank. Every word of a multi-word query has to match. Immutable once
+ * built, so it can be searched from any thread.
+ */
+public final class CurrencySearchIndex {
+
+    static final int EXACT_CODE = 0, CODE_PREFIX = 1, WORD_PREFIX = 2, SUBSTRING = 3;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final List<CurrencyItem> items = new ArrayList<>();
+    private final List<String> codes = new ArrayList<>();   // Normalized, by item
+    private final List<String> texts = new ArrayList<>();   // Normalized code, name and aliases, by item
+    private final Map<String, Integer> byCode = new HashMap<>();
+    private String[] words = new String[0];                 // Sorted
+    private int[] wordItems = new int[0];                   // Item of each word
+    private final List<Word> pending = new ArrayList<>();
+
+    private static final class Word {
+        final String text;
+        final int item;
+
+        Word(String text, int item) {
+            this.text = text;
+            this.item = item;
+        }
+    }
+
+    /** Adds a currency row (headers are ignored) with extra words it should be found by. */
+    public CurrencySearchIndex add(CurrencyItem item, String... aliases) {
+        if (item.getType() != CurrencyItem.TYPE_ITEM) return this;
+        int index = items.size();
+        String code = normalize(item.getCode());
+        StringBuilder text = new StringBuilder(code).append(' ').append(normalize(item.getName()));
+        for (String alias : aliases) text.append(' ').append(normalize(alias));
+        items.add(item);
+        codes.add(code);
+        texts.add(text.toString());
+        byCode.put(code, index);
+        for (String word : text.toString().split(" ")) {
+            if (!word.isEmpty()) pending.add(new Word(word, index));
+        }
+        return this;
+    }
+
+    /** Sorts the words added so far. Call once after the last {@link #add}. */
+    public CurrencySearchIndex build() {
+        pending.sort((a, b) -> a.text.compareTo(b.text));
+        words = new String[pending.size()];
+        wordItems = new int[pending.size()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = pending.get(i).text;
+            wordItems[i] = pending.get(i).item;
+        }
+        pending.clear();
+        return this;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /** Matching currencies, best first. An empty query matches nothing (callers show the full list). */
+    public List<CurrencyItem> search(String query) {
+        String[] terms = normalize(query).split(" ");
+        int[] ranks = null;
+        for (String term : terms) {
+            if (term.isEmpty()) continue;
+            int[] termRanks = rank(term);
+            if (ranks == null) {
+                ranks = termRanks;
+            } else {
+                for (int i = 0; i < ranks.length; i++) ranks[i] = Math.max(ranks[i], termRanks[i]); // Worst term decides
+            }
+        }
+        List<CurrencyItem> results = new ArrayList<>();
+        if (ranks == null) return results;
+        // Bucket by rank, which keeps list order within each
+        for (int rank = EXACT_CODE; rank <= SUBSTRING; rank++) {
+            for (int i = 0; i < ranks.length; i++) {
+                if (ranks[i] == rank) results.add(items.get(i));
+            }
+        }
+        return results;
+    }
+
+    private int[] rank(String term) {
+        int[] ranks = new int[items.size()];
+        Arrays.fill(ranks, NO_MATCH);
+
+        // Every word starting with the term sits in one run of the sorted array
+        int lo = 0, hi = words.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (words[mid].compareTo(term) < 0) lo = mid + 1; else hi = mid;
+        }
+        for (int w = lo; w < words.length && words[w].startsWith(term); w++) {
+            int item = wordItems[w];
+            int rank = codes.get(item).startsWith(term) ? CODE_PREFIX : WORD_PREFIX;
+            ranks[item] = Math.min(ranks[item], rank);
+        }
+        Integer exact = byCode.get(term);
+        if (exact != null) ranks[exact] = EXACT_CODE;
+
+        for (int i = 0; i < ranks.length; i++) {
+            if (ranks[i] == NO_MATCH && texts.get(i).contains(term)) ranks[i] = SUBSTRING;
+        }
+        return ranks;
+    }
+
+    /** Lower case, accents stripped, anything but letters and digits turned into single spaces. */
+    static String normalize(String s) {
+        if (s == null) return "";
+        String decomposed = MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                out.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int end = out.length();
+        if (end > 0 && out.charAt(end - 1) == ' ') out.setLength(end - 1);
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+}
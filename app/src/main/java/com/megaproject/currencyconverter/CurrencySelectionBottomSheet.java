@@ -17,12 +17,20 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CurrencySelectionBottomSheet extends BottomSheetDialogFragment {
 
+    private static final String[] POPULAR = {"USD", "EUR", "GBP", "JPY"};
     private CurrencyAdapter adapter;
     private List<CurrencyItem> allItems = new ArrayList<>();
+    private CurrencySearchIndex searchIndex;
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private int searchRequest; // Only the newest query's results are applied
+    private RecyclerView rv;
     private String currentSelection;
     private OnCurrencySelectedListener listener;
 
@@ -70,13 +78,13 @@ public class CurrencySelectionBottomSheet extends BottomSheetDialogFragment {
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         View view = inflater.inflate(R.layout.fragment_currency_selection_bottom_sheet, container, false);
         
-        RecyclerView rv = view.findViewById(R.id.rvCurrencies);
+        rv = view.findViewById(R.id.rvCurrencies);
         EditText etSearch = view.findViewById(R.id.etSearch);
         View btnDone = view.findViewById(R.id.btnDone);
         
         adapter = new CurrencyAdapter();
-        adapter.updateData(allItems);
         adapter.setSelectedCurrency(currentSelection); // Set initial selection
+        adapter.submitList(allItems);
         
         rv.setLayoutManager(new LinearLayoutManager(getContext()));
         rv.setAdapter(adapter);
@@ -117,42 +125,42 @@ public class CurrencySelectionBottomSheet extends BottomSheetDialogFragment {
         return view;
     }
     
+    // Every currency the rate API knows, popular ones first, with country names to search by
     private void setupData() {
+        CurrencyRegistry registry = CurrencyRegistry.get(requireContext());
         allItems.clear();
+        searchIndex = new CurrencySearchIndex();
         allItems.add(new CurrencyItem("POPULAR"));
-        allItems.add(new CurrencyItem("USD", "United States Dollar", "https://flagcdn.com/w160/us.png"));
-        allItems.add(new CurrencyItem("EUR", "Euro", "https://flagcdn.com/w160/eu.png"));
-        allItems.add(new CurrencyItem("GBP", "British Pound Sterling", "https://flagcdn.com/w160/gb.png"));
-        allItems.add(new CurrencyItem("JPY", "Japanese Yen", "https://flagcdn.com/w160/jp.png"));
-        
+        for (String code : POPULAR) addItem(registry, CurrencyCodes.ordinal(code));
+
         allItems.add(new CurrencyItem("ALL CURRENCIES"));
-        allItems.add(new CurrencyItem("AUD", "Australian Dollar", "https://flagcdn.com/w160/au.png"));
-        allItems.add(new CurrencyItem("CAD", "Canadian Dollar", "https://flagcdn.com/w160/ca.png"));
-        allItems.add(new CurrencyItem("CHF", "Swiss Franc", "https://flagcdn.com/w160/ch.png"));
-        allItems.add(new CurrencyItem("CNY", "Chinese Yuan", "https://flagcdn.com/w160/cn.png"));
-        allItems.add(new CurrencyItem("INR", "Indian Rupee", "https://flagcdn.com/w160/in.png"));
-        allItems.add(new CurrencyItem("SGD", "Singapore Dollar", "https://flagcdn.com/w160/sg.png"));
-        allItems.add(new CurrencyItem("ZAR", "South African Rand", "https://flagcdn.com/w160/za.png"));
+        for (int ordinal = 0; ordinal < CurrencyCodes.count(); ordinal++) {
+            if (!Arrays.asList(POPULAR).contains(CurrencyCodes.code(ordinal))) addItem(registry, ordinal);
+        }
+        searchIndex.build();
+    }
+
+    private void addItem(CurrencyRegistry registry, int ordinal) {
+        CurrencyItem item = new CurrencyItem(CurrencyCodes.code(ordinal), registry.name(ordinal), registry.flagUrl(ordinal));
+        allItems.add(item);
+        searchIndex.add(item, registry.aliases(ordinal));
     }
     
+    // Searched on a background thread, then diffed on another by the adapter; only rows that
+    // changed get rebound
     private void filter(String query) {
-        if (query.isEmpty()) {
-            adapter.updateData(allItems);
-            return;
-        }
-        
-        List<CurrencyItem> filtered = new ArrayList<>();
-        String lower = query.toLowerCase();
-        
-        for (CurrencyItem item : allItems) {
-            if (item.getType() == CurrencyItem.TYPE_HEADER) continue; // Skip headers in search
-            
-            if (item.getType() == CurrencyItem.TYPE_ITEM) {
-                if (item.getCode().toLowerCase().contains(lower) || item.getName().toLowerCase().contains(lower)) {
-                    filtered.add(item);
-                }
-            }
-        }
-        adapter.updateData(filtered);
+        int request = ++searchRequest;
+        searchExecutor.execute(() -> {
+            List<CurrencyItem> results = query.trim().isEmpty() ? allItems : searchIndex.search(query);
+            rv.post(() -> {
+                if (request == searchRequest) adapter.submitList(results); // Skip results a newer query replaces
+            });
+        });
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        searchExecutor.shutdownNow();
     }
 }
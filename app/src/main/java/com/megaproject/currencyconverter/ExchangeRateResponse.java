@@ -6,10 +6,30 @@ import java.util.Map;
 public class ExchangeRateResponse {
     @SerializedName("base")
     public String base;
-    
+
     @SerializedName("date")
     public String date;
-    
+
     @SerializedName("rates")
     public Map<String, Double> rates;
+
+    // Filled by RatePayloadParser instead of rates: rate per CurrencyCodes ordinal, NaN if missing
+    public transient double[] table;
+
+    public boolean hasRates() {
+        return table != null || rates != null;
+    }
+
+    public double getRate(int ordinal) {
+        if (table != null) return table[ordinal];
+        Double rate = rates != null ? rates.get(CurrencyCodes.code(ordinal)) : null;
+        return rate != null ? rate : Double.NaN;
+    }
+
+    public double getRate(String code) {
+        int ordinal = CurrencyCodes.ordinal(code);
+        if (ordinal >= 0) return getRate(ordinal);
+        Double rate = rates != null ? rates.get(code) : null;
+        return rate != null ? rate : Double.NaN;
+    }
 }
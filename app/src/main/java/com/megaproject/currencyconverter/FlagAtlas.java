@@ -0,0 +1,126 @@
+package com.megaproject.currencyconverter;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bundled flags: assets/flags.png, packed and cut to circles by tools/PackFlags.java when the
+ * app is built (:app:packFlags), decoded once per process into one bitmap that every flag view
+ * draws a cell of. Flags the build couldn't fetch are still downloaded by Glide as before.
+ */
+public final class FlagAtlas {
+
+    static final String IMAGE = "flags.png";
+    static final String INDEX = "flags.idx";
+
+    private static volatile FlagAtlas instance;
+
+    private final CurrencyRegistry registry;
+    private final Bitmap bitmap;       // Null without the assets
+    private final FlagAtlasIndex index;
+
+    private FlagAtlas(CurrencyRegistry registry, Bitmap bitmap, FlagAtlasIndex index) {
+        this.registry = registry;
+        this.bitmap = bitmap;
+        this.index = index;
+    }
+
+    public static FlagAtlas get(Context context) {
+        FlagAtlas atlas = instance;
+        if (atlas == null) {
+            synchronized (FlagAtlas.class) {
+                atlas = instance;
+                if (atlas == null) instance = atlas = load(context.getApplicationContext());
+            }
+        }
+        return atlas;
+    }
+
+    private static FlagAtlas load(Context context) {
+        CurrencyRegistry registry = CurrencyRegistry.get(context);
+        try (InputStream image = context.getAssets().open(IMAGE); InputStream idx = context.getAssets().open(INDEX)) {
+            FlagAtlasIndex index = FlagAtlasIndex.parse(readText(idx), registry);
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inPreferredConfig = Bitmap.Config.ARGB_8888; // The circles live in the alpha
+            options.inScaled = false;
+            Bitmap bitmap = BitmapFactory.decodeStream(image, null, options);
+            if (bitmap != null) return new FlagAtlas(registry, bitmap, index);
+        } catch (IOException e) {
+            // Not bundled, flags come from the network
+        }
+        return new FlagAtlas(registry, null, FlagAtlasIndex.empty());
+    }
+
+    private static String readText(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[2048];
+        for (int n; (n = in.read(buffer)) > 0; ) out.write(buffer, 0, n);
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    public boolean has(String currencyCode) {
+        return bitmap != null && index.cell(currencyCode) >= 0;
+    }
+
+    /**
+     * Shows the currency's flag in the view. From the atlas this reuses the view's
+     * {@link FlagDrawable} when it has one, so rebinding a row does no I/O and no allocation.
+     */
+    public void into(ImageView view, String currencyCode) {
+        long start = PerfMetrics.now();
+        if (!has(currencyCode)) {
+            Glide.with(view).load(registry.flagUrl(currencyCode)).circleCrop().listener(new LoadTimer(start)).into(view);
+            return;
+        }
+        FlagDrawable flag;
+        if (view.getDrawable() instanceof FlagDrawable) {
+            flag = (FlagDrawable) view.getDrawable();
+        } else {
+            Glide.with(view).clear(view); // The view may still have a download pending from a fallback bind
+            flag = new FlagDrawable(bitmap);
+        }
+        int cell = index.cell(currencyCode);
+        flag.setCell(index.left(cell), index.top(cell), index.cellSize());
+        if (view.getDrawable() != flag) view.setImageDrawable(flag);
+        PerfMetrics.get().count(PerfMetrics.Counter.FLAG_ATLAS);
+        PerfMetrics.get().record(PerfMetrics.Timer.FLAG_LOAD, start);
+    }
+
+    // Times a fallback load from the request to the image being ready, and where it came from
+    private static final class LoadTimer implements RequestListener<Drawable> {
+        private final long start;
+
+        LoadTimer(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, @Nullable Object model, @NonNull Target<Drawable> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+            PerfMetrics.get().count(dataSource == DataSource.REMOTE ? PerfMetrics.Counter.FLAG_DOWNLOAD : PerfMetrics.Counter.FLAG_GLIDE_CACHE);
+            PerfMetrics.get().record(PerfMetrics.Timer.FLAG_LOAD, start);
+            return false; // Let Glide set it as usual
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.megaproject.currencyconverter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Where each currency's flag sits in the atlas written by tools/PackFlags.java. Parsed from
+ * flags.idx (cell size and columns on the first line, the countries in cell order on the
+ * second) and resolved once against the registry, so a lookup is an array access by ordinal.
+ * Currencies sharing a country (CNY and CNH) share a cell. Immutable.
+ */
+public final class FlagAtlasIndex {
+
+    static final int GUTTER = 1; // Transparent px around every cell, as in tools/PackFlags.java
+
+    private final int cellSize, columns;
+    private final int[] cellOf; // By currency ordinal, -1 for no flag in the atlas
+
+    private FlagAtlasIndex(int cellSize, int columns, int[] cellOf) {
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.cellOf = cellOf;
+    }
+
+    /** An index with no flags, every lookup misses. */
+    static FlagAtlasIndex empty() {
+        int[] cellOf = new int[CurrencyCodes.count()];
+        Arrays.fill(cellOf, -1);
+        return new FlagAtlasIndex(0, 1, cellOf);
+    }
+
+    /** Reads flags.idx; anything malformed gives the empty index. */
+    static FlagAtlasIndex parse(String text, CurrencyRegistry registry) {
+        String[] lines = text.trim().split("\n");
+        String[] header = lines[0].trim().split(" ");
+        if (lines.length < 2 || header.length != 2) return empty();
+        int cellSize, columns;
+        try {
+            cellSize = Integer.parseInt(header[0]);
+            columns = Integer.parseInt(header[1]);
+        } catch (NumberFormatException e) {
+            return empty();
+        }
+        if (cellSize <= 0 || columns <= 0) return empty();
+
+        Map<String, Integer> cellOfCountry = new HashMap<>();
+        String[] countries = lines[1].trim().split(" ");
+        for (int cell = 0; cell < countries.length; cell++) cellOfCountry.put(countries[cell], cell);
+        int[] cellOf = new int[CurrencyCodes.count()];
+        for (int ordinal = 0; ordinal < cellOf.length; ordinal++) {
+            Integer cell = cellOfCountry.get(registry.country(ordinal));
+            cellOf[ordinal] = cell != null ? cell : -1;
+        }
+        return new FlagAtlasIndex(cellSize, columns, cellOf);
+    }
+
+    public int cellSize() {
+        return cellSize;
+    }
+
+    /** The currency's cell, or -1 if the atlas has no flag for it. */
+    public int cell(String currencyCode) {
+        int ordinal = CurrencyCodes.ordinal(currencyCode);
+        return ordinal >= 0 ? cellOf[ordinal] : -1;
+    }
+
+    /** Left edge of the cell's pixels in the atlas. */
+    public int left(int cell) {
+        return (cell % columns) * (cellSize + 2 * GUTTER) + GUTTER;
+    }
+
+    /** Top edge of the cell's pixels in the atlas. */
+    public int top(int cell) {
+        return (cell / columns) * (cellSize + 2 * GUTTER) + GUTTER;
+    }
+}
@@ -0,0 +1,66 @@
+package com.megaproject.currencyconverter;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * One cell of the shared flag atlas. The circle is already in the atlas's alpha, so drawing is
+ * a single filtered bitmap copy. A view keeps its drawable and only moves the source rect when
+ * it is rebound, so binding allocates nothing.
+ */
+public class FlagDrawable extends Drawable {
+
+    private final Bitmap atlas;
+    private final Rect source = new Rect();
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.ANTI_ALIAS_FLAG);
+
+    FlagDrawable(Bitmap atlas) {
+        this.atlas = atlas;
+    }
+
+    void setCell(int left, int top, int size) {
+        if (source.left == left && source.top == top && source.width() == size) return;
+        source.set(left, top, left + size, top + size);
+        invalidateSelf();
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        canvas.drawBitmap(atlas, source, getBounds(), paint);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return source.width();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return source.height();
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        paint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,82 @@
+package com.megaproject.currencyconverter;
+
+/**
+ * Merges bursts of input into at most one run of the work per frame. The first input after a
+ * frame schedules a callback for the next one; anything typed before it fires just rides along.
+ * The time each input waited until the work finished is recorded as
+ * {@link PerfMetrics.Timer#KEYSTROKE}.
+ *
+ * Main thread only. Frames come from a {@link FrameScheduler}, Choreographer in the app.
+ */
+public final class FrameDebouncer {
+
+    public interface FrameScheduler {
+        void postFrameCallback(Runnable onFrame);
+    }
+
+    public interface Clock {
+        long nanoTime();
+    }
+
+    // Inputs beyond this in one frame are merged without their own sample, they are the newest anyway
+    private static final int MAX_TRACKED_INPUTS = 16;
+
+    private final FrameScheduler scheduler;
+    private final Runnable work;
+    private final PerfMetrics metrics;
+    private final Clock clock;
+    private final Runnable onFrame = this::onFrame; // One instance, nothing allocated per keystroke
+    private final long[] inputTimes = new long[MAX_TRACKED_INPUTS];
+    private int pendingInputs;
+    private boolean scheduled;
+    private boolean cancelled;
+
+    public FrameDebouncer(FrameScheduler scheduler, Runnable work, PerfMetrics metrics) {
+        this(scheduler, work, metrics, System::nanoTime);
+    }
+
+    public FrameDebouncer(FrameScheduler scheduler, Runnable work, PerfMetrics metrics, Clock clock) {
+        this.scheduler = scheduler;
+        this.work = work;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    /** Call on every keystroke. */
+    public void onInput() {
+        if (pendingInputs < MAX_TRACKED_INPUTS) {
+            inputTimes[pendingInputs] = clock.nanoTime();
+        }
+        pendingInputs++;
+        cancelled = false;
+        if (!scheduled) {
+            scheduled = true;
+            scheduler.postFrameCallback(onFrame);
+        }
+    }
+
+    /** Drops pending input, the next frame callback (if any) does nothing. */
+    public void cancel() {
+        cancelled = true;
+        pendingInputs = 0;
+    }
+
+    public boolean isPending() {
+        return scheduled && !cancelled;
+    }
+
+    private void onFrame() {
+        scheduled = false;
+        if (cancelled || pendingInputs == 0) {
+            cancelled = false;
+            return;
+        }
+        int tracked = Math.min(pendingInputs, MAX_TRACKED_INPUTS);
+        pendingInputs = 0;
+        work.run();
+        long done = clock.nanoTime();
+        for (int i = 0; i < tracked; i++) {
+            metrics.recordNanos(PerfMetrics.Timer.KEYSTROKE, done - inputTimes[i]);
+        }
+    }
+}
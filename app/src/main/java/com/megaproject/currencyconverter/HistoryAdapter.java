@@ -7,56 +7,95 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
-import java.util.List;
+import java.util.Locale;
+import java.util.function.IntUnaryOperator;
 
 public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHolder> {
-    private List<HistoryItem> historyList;
+    private final PagedHistory history;
+    private OnDeleteListener deleteListener;
+    private final IntUnaryOperator minorUnits; // Decimals by currency ordinal
+    private final MoneyFormatter formatter = new MoneyFormatter(Locale.getDefault());
 
-    public HistoryAdapter(List<HistoryItem> historyList) {
-        this.historyList = historyList;
+    public interface OnDeleteListener {
+        void onDelete(HistoryItem item, int position);
+    }
+
+    // Rows are read page by page from the store, only the pages near the screen stay in memory.
+    // Ids are the store's record numbers, so an insert or delete only moves rows, never rebinds them.
+    // Amounts show with their currency's decimals, see CurrencyRegistry.minorUnits.
+    public HistoryAdapter(PagedHistory history, IntUnaryOperator minorUnits) {
+        this.history = history;
+        this.minorUnits = minorUnits;
+        setHasStableIds(true);
+    }
+
+    public void setOnDeleteListener(OnDeleteListener listener) {
+        this.deleteListener = listener;
     }
 
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_history, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        holder.btnDeleteHistory.setOnClickListener(v -> {
+            // Where the row is now, not where it was bound: rows above it may have gone since
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION || deleteListener == null) return;
+            HistoryItem item = history.get(position);
+            if (item != null) deleteListener.onDelete(item, position);
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        HistoryItem item = historyList.get(position);
-        
-        String fromText = String.format("%.2f %s", item.fromAmount, item.fromCode);
-        String toText = String.format("%.2f %s", item.toAmount, item.toCode);
+        long start = PerfMetrics.now();
+        HistoryItem item = history.get(position);
+        if (item == null) return; // Page could not be read, leave the row as it was
         
-        holder.tvConversionPair.setText(fromText + " → " + toText);
+        // "100.00 USD → 15,000 JPY", built in the holder's own buffers instead of String.format
+        StringBuilder text = holder.pairText;
+        text.setLength(0);
+        int fromDigits = minorUnits.applyAsInt(CurrencyCodes.ordinal(item.fromCode));
+        int toDigits = minorUnits.applyAsInt(CurrencyCodes.ordinal(item.toCode));
+        formatter.appendDecimal(text, MoneyFormatter.fromDouble(item.fromAmount, fromDigits), fromDigits, true);
+        text.append(' ').append(item.fromCode).append(" → ");
+        formatter.appendDecimal(text, MoneyFormatter.fromDouble(item.toAmount, toDigits), toDigits, true);
+        text.append(' ').append(item.toCode);
+        int length = Math.min(text.length(), holder.pairChars.length);
+        text.getChars(0, length, holder.pairChars, 0);
+        holder.tvConversionPair.setText(holder.pairChars, 0, length);
         holder.tvDate.setText(item.date);
         
-        // Simple manual coloring logic for icons based on position to match UI screenshot approximately
+        // Icons cycle through three colors by entry, so a row keeps its color when others come or go
         int colorRes;
-        switch (position % 3) {
+        switch ((int) (item.id % 3)) {
             case 0: colorRes = R.color.success_text; break; // Greenish
             case 1: colorRes = R.color.primary; break;      // Blueish
             default: colorRes = R.color.deep_violet; break; // Purplish
         }
         holder.ivIcon.setColorFilter(androidx.core.content.ContextCompat.getColor(holder.itemView.getContext(), colorRes));
-        
-        holder.btnDeleteHistory.setOnClickListener(v -> {
-            historyList.remove(position);
-            notifyItemRemoved(position);
-            notifyItemRangeChanged(position, historyList.size());
-        });
+        PerfMetrics.get().record(PerfMetrics.Timer.HISTORY_BIND, start); // Includes reading the page when it isn't loaded
+    }
+
+    @Override
+    public long getItemId(int position) {
+        HistoryItem item = history.get(position);
+        return item != null ? item.id : RecyclerView.NO_ID;
     }
 
     @Override
     public int getItemCount() {
-        return historyList.size();
+        return history.size();
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvConversionPair, tvDate;
         ImageView ivIcon, btnDeleteHistory;
+        // Per holder, the TextView keeps pointing at the char[] it was given
+        final StringBuilder pairText = new StringBuilder(64);
+        final char[] pairChars = new char[64];
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -6,6 +6,8 @@ public class HistoryItem {
     public double fromAmount;
     public double toAmount;
     public String date;
+    public long timestamp;
+    public long id = -1; // Record number in HistoryStore, -1 until it has been persisted
 
     public HistoryItem(String fromCode, String toCode, double fromAmount, double toAmount, String date) {
         this.fromCode = fromCode;
@@ -14,4 +16,9 @@ public class HistoryItem {
         this.toAmount = toAmount;
         this.date = date;
     }
+
+    public HistoryItem(String fromCode, String toCode, double fromAmount, double toAmount, long timestamp) {
+        this(fromCode, toCode, fromAmount, toAmount, (String) null);
+        this.timestamp = timestamp;
+    }
 }
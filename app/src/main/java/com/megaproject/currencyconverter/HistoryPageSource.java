@@ -0,0 +1,11 @@
+package com.megaproject.currencyconverter;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Anything history pages can be read from, newest entry at position 0. */
+public interface HistoryPageSource {
+    int size();
+
+    List<HistoryItem> readPage(int start, int count) throws IOException;
+}
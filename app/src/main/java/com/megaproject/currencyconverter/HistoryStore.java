@@ -0,0 +1,446 @@
+package com.megaproject.currencyconverter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Conversion history as an append-only file of fixed-size binary records, replacing the single
+ * Gson blob in SharedPreferences. Adding an entry costs one 32 byte record no matter how long
+ * the history is, and reading a page seeks straight to it, so startup only touches the newest
+ * few records.
+ *
+ * Deleted records stay in place; their record numbers go to a small tombstone file that is
+ * kept in memory as a sorted array. Together with the fixed record size that is the offset
+ * index: position p (0 = newest) maps to a record number, and record r lives at
+ * HEADER_SIZE + r * RECORD_SIZE.
+ *
+ * Appends and deletes only touch memory; {@link #flush} writes everything since the last flush
+ * in one go, so callers (see {@link HistoryWriter}) can batch disk work off the main thread.
+ * Unflushed records are served from memory, readers never see the difference.
+ *
+ * Entries imported from the old list ({@link #importLegacy}) never had a real timestamp, only
+ * the text shown for them. They get {@link #UNKNOWN_DATE} and keep that text in a side file of
+ * labels, which their record points to.
+ */
+public class HistoryStore implements HistoryPageSource, Closeable {
+
+    public static final int RECORD_SIZE = 32;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x48495354; // "HIST"
+    private static final int VERSION = 1;
+
+    /** Timestamp of entries imported without a real one; their date is the text they came with. */
+    public static final long UNKNOWN_DATE = Long.MIN_VALUE;
+
+    // Record layout
+    // 0  short  from currency ordinal
+    // 2  short  to currency ordinal
+    // 4  int    legacy label number + 1, 0 for none
+    // 8  double from amount
+    // 16 double to amount
+    // 24 long   timestamp (epoch millis)
+
+    private final File dataFile;
+    private final File tombstoneFile;
+    private final File legacyFile;
+    private RandomAccessFile data;
+    private FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private int recordCount;
+    private int persistedCount; // Records already in the file, the rest are in pending
+    private byte[] pending = new byte[RECORD_SIZE * 16];
+    private ByteBuffer pendingView = ByteBuffer.wrap(pending);
+    private int[] pendingTombstones = new int[16];
+    private int pendingTombstoneCount;
+    private final Object flushLock = new Object(); // Serializes flushes, taken before the store's own lock
+    private int[] tombstones; // Sorted record numbers of deleted entries
+    private int tombstoneCount;
+    private final List<String> legacyLabels = new ArrayList<>();
+
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("h:mm a", Locale.getDefault());
+    private final SimpleDateFormat dayFormat = new SimpleDateFormat("MMM d, h:mm a", Locale.getDefault());
+
+    public HistoryStore(File dir) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        dataFile = new File(dir, "history.dat");
+        tombstoneFile = new File(dir, "history.del");
+        legacyFile = new File(dir, "history.legacy");
+        data = new RandomAccessFile(dataFile, "rw");
+        channel = data.getChannel();
+        try {
+            openData();
+            loadTombstones();
+            loadLegacyLabels();
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    private void openData() throws IOException {
+        if (data.length() < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            channel.write(header, 0);
+            data.setLength(HEADER_SIZE);
+            recordCount = 0;
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a history file: " + dataFile);
+        }
+        long body = data.length() - HEADER_SIZE;
+        recordCount = (int) (body / RECORD_SIZE);
+        if (body % RECORD_SIZE != 0) {
+            // Torn write from a crash mid-append, drop the partial record
+            data.setLength(HEADER_SIZE + (long) recordCount * RECORD_SIZE);
+        }
+        persistedCount = recordCount;
+    }
+
+    private void loadTombstones() throws IOException {
+        tombstones = new int[16];
+        tombstoneCount = 0;
+        if (!tombstoneFile.exists()) return;
+        int n = (int) (tombstoneFile.length() / 4);
+        tombstones = new int[Math.max(16, n)];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(tombstoneFile)))) {
+            for (int i = 0; i < n; i++) {
+                int r = in.readInt();
+                if (r >= 0 && r < recordCount) tombstones[tombstoneCount++] = r;
+            }
+        }
+        Arrays.sort(tombstones, 0, tombstoneCount);
+    }
+
+    private void loadLegacyLabels() throws IOException {
+        if (!legacyFile.exists()) return;
+        try (RandomAccessFile in = new RandomAccessFile(legacyFile, "rw")) { // Small, read once
+            long good = 0;
+            try {
+                while (good < in.length()) {
+                    legacyLabels.add(in.readUTF());
+                    good = in.getFilePointer();
+                }
+            } catch (EOFException e) {
+                in.setLength(good); // Torn by a crash mid-import, no record points to it yet
+            }
+        }
+    }
+
+    /** Number of live (not deleted) entries. */
+    @Override
+    public synchronized int size() {
+        return recordCount - tombstoneCount;
+    }
+
+    /** Appends the entry in memory and returns its id, which is also stored on the item. */
+    public synchronized long append(HistoryItem item) {
+        return append(item, 0);
+    }
+
+    private long append(HistoryItem item, int label) {
+        int offset = (recordCount - persistedCount) * RECORD_SIZE;
+        if (offset + RECORD_SIZE > pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+            pendingView = ByteBuffer.wrap(pending);
+        }
+        pendingView.putShort(offset, (short) CurrencyCodes.ordinal(item.fromCode));
+        pendingView.putShort(offset + 2, (short) CurrencyCodes.ordinal(item.toCode));
+        pendingView.putInt(offset + 4, label);
+        pendingView.putDouble(offset + 8, item.fromAmount);
+        pendingView.putDouble(offset + 16, item.toAmount);
+        pendingView.putLong(offset + 24, item.timestamp);
+        item.id = recordCount;
+        recordCount++;
+        return item.id;
+    }
+
+    /**
+     * Appends entries from the old SharedPreferences list, oldest first, and flushes them. They
+     * keep their order and the text they showed as their date, and get {@link #UNKNOWN_DATE}.
+     */
+    public void importLegacy(List<HistoryItem> oldestFirst) throws IOException {
+        synchronized (flushLock) {
+            int first;
+            synchronized (this) {
+                first = legacyLabels.size();
+            }
+            // Labels before the records pointing to them, a crash in between only leaves unused labels
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(legacyFile, true)))) {
+                for (HistoryItem item : oldestFirst) out.writeUTF(item.date != null ? item.date : "");
+            }
+            synchronized (this) {
+                for (int i = 0; i < oldestFirst.size(); i++) {
+                    HistoryItem item = oldestFirst.get(i);
+                    legacyLabels.add(item.date != null ? item.date : "");
+                    item.timestamp = UNKNOWN_DATE;
+                    append(item, first + i + 1);
+                }
+            }
+            flush();
+        }
+    }
+
+    public synchronized void delete(long id) {
+        if (id < 0 || id >= recordCount) return;
+        int r = (int) id;
+        int at = Arrays.binarySearch(tombstones, 0, tombstoneCount, r);
+        if (at >= 0) return; // Already deleted
+        int insert = -at - 1;
+        if (tombstoneCount == tombstones.length) {
+            tombstones = Arrays.copyOf(tombstones, tombstones.length * 2);
+        }
+        System.arraycopy(tombstones, insert, tombstones, insert + 1, tombstoneCount - insert);
+        tombstones[insert] = r;
+        tombstoneCount++;
+
+        if (pendingTombstoneCount == pendingTombstones.length) {
+            pendingTombstones = Arrays.copyOf(pendingTombstones, pendingTombstones.length * 2);
+        }
+        pendingTombstones[pendingTombstoneCount++] = r;
+    }
+
+    public synchronized boolean hasPendingWrites() {
+        return recordCount > persistedCount || pendingTombstoneCount > 0;
+    }
+
+    /**
+     * Writes every append and delete since the last flush: one write for the records, one for
+     * the tombstones. The disk work happens outside the store's lock, so readers on the UI
+     * thread are never held up by it.
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            int writeFrom;
+            int recordsToWrite;
+            byte[] records;
+            int[] deleted;
+            synchronized (this) {
+                writeFrom = persistedCount;
+                recordsToWrite = recordCount - persistedCount;
+                if (recordsToWrite == 0 && pendingTombstoneCount == 0) return;
+                records = Arrays.copyOf(pending, recordsToWrite * RECORD_SIZE);
+                deleted = Arrays.copyOf(pendingTombstones, pendingTombstoneCount);
+                pendingTombstoneCount = 0;
+            }
+            try {
+                // Records before tombstones, tombstones pointing past the end are ignored on open
+                ByteBuffer buffer = ByteBuffer.wrap(records);
+                long offset = HEADER_SIZE + (long) writeFrom * RECORD_SIZE;
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, offset + buffer.position());
+                }
+                if (deleted.length > 0) {
+                    ByteBuffer del = ByteBuffer.allocate(deleted.length * 4);
+                    for (int r : deleted) del.putInt(r);
+                    try (RandomAccessFile out = new RandomAccessFile(tombstoneFile, "rw")) {
+                        out.seek(out.length());
+                        out.write(del.array());
+                    }
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    // Keep the deletes queued for the next attempt, the records are still pending
+                    for (int r : deleted) {
+                        if (pendingTombstoneCount == pendingTombstones.length) {
+                            pendingTombstones = Arrays.copyOf(pendingTombstones, pendingTombstones.length * 2);
+                        }
+                        pendingTombstones[pendingTombstoneCount++] = r;
+                    }
+                }
+                throw e;
+            }
+            synchronized (this) {
+                // Drop the written records from the front of the pending buffer
+                int remaining = (recordCount - persistedCount - recordsToWrite) * RECORD_SIZE;
+                System.arraycopy(pending, recordsToWrite * RECORD_SIZE, pending, 0, remaining);
+                persistedCount += recordsToWrite;
+            }
+        }
+    }
+
+    /** Reads up to {@code count} entries starting at {@code start} (0 = newest). */
+    @Override
+    public synchronized List<HistoryItem> readPage(int start, int count) throws IOException {
+        int end = Math.min(size(), start + count);
+        List<HistoryItem> page = new ArrayList<>(Math.max(0, end - start));
+        long now = System.currentTimeMillis();
+        for (int p = start; p < end; p++) {
+            page.add(readRecord(recordNumberAt(p), now));
+        }
+        return page;
+    }
+
+    // Position counted from the newest live entry -> record number in the file
+    int recordNumberAt(int position) {
+        int live = size() - 1 - position; // Index among live records, oldest first
+        int skipped = 0;
+        int r = live;
+        while (true) {
+            int deletedUpTo = countDeletedUpTo(r);
+            if (deletedUpTo == skipped) return r;
+            skipped = deletedUpTo;
+            r = live + skipped;
+        }
+    }
+
+    private int countDeletedUpTo(int r) {
+        int at = Arrays.binarySearch(tombstones, 0, tombstoneCount, r);
+        return at >= 0 ? at + 1 : -at - 1;
+    }
+
+    private HistoryItem readRecord(int r, long now) throws IOException {
+        ByteBuffer source;
+        int base;
+        if (r >= persistedCount) {
+            // Not flushed yet
+            source = pendingView;
+            base = (r - persistedCount) * RECORD_SIZE;
+        } else {
+            record.clear();
+            long offset = HEADER_SIZE + (long) r * RECORD_SIZE;
+            while (record.hasRemaining()) {
+                if (channel.read(record, offset + record.position()) < 0) throw new IOException("Truncated history");
+            }
+            source = record;
+            base = 0;
+        }
+        int from = source.getShort(base);
+        int to = source.getShort(base + 2);
+        double fromAmount = source.getDouble(base + 8);
+        double toAmount = source.getDouble(base + 16);
+        int label = source.getInt(base + 4);
+        long timestamp = source.getLong(base + 24);
+
+        HistoryItem item = new HistoryItem(codeOf(from), codeOf(to), fromAmount, toAmount, timestamp);
+        if (timestamp == UNKNOWN_DATE) {
+            item.date = label > 0 && label <= legacyLabels.size() ? legacyLabels.get(label - 1) : "";
+        } else {
+            item.date = formatDate(timestamp, now);
+        }
+        item.id = r;
+        return item;
+    }
+
+    private static String codeOf(int ordinal) {
+        return ordinal >= 0 && ordinal < CurrencyCodes.count() ? CurrencyCodes.code(ordinal) : "???";
+    }
+
+    String formatDate(long timestamp, long now) {
+        Calendar today = Calendar.getInstance();
+        today.setTimeInMillis(now);
+        today.set(Calendar.HOUR_OF_DAY, 0);
+        today.set(Calendar.MINUTE, 0);
+        today.set(Calendar.SECOND, 0);
+        today.set(Calendar.MILLISECOND, 0);
+        long startOfToday = today.getTimeInMillis();
+        today.add(Calendar.DAY_OF_YEAR, -1);
+        long startOfYesterday = today.getTimeInMillis();
+
+        Date date = new Date(timestamp);
+        if (timestamp >= startOfToday) return "Today, " + timeFormat.format(date);
+        if (timestamp >= startOfYesterday) return "Yesterday, " + timeFormat.format(date);
+        return dayFormat.format(date);
+    }
+
+    /**
+     * Rewrites the file without deleted records. Ids change afterwards, so only call this when
+     * no one holds on to items read before (e.g. at startup before the first page is read).
+     */
+    public void compact() throws IOException {
+        synchronized (flushLock) {
+            synchronized (this) {
+                flush(); // Under the store lock too, nothing may be appended between the two
+                compactFlushed();
+            }
+        }
+    }
+
+    private void compactFlushed() throws IOException {
+        if (tombstoneCount == 0) return;
+        File tmp = new File(dataFile.getPath() + ".tmp");
+        try (RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+            FileChannel outChannel = out.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            outChannel.write(header, 0);
+            long writeAt = HEADER_SIZE;
+            int t = 0;
+            for (int r = 0; r < recordCount; r++) {
+                if (t < tombstoneCount && tombstones[t] == r) {
+                    t++;
+                    continue;
+                }
+                record.clear();
+                channel.read(record, HEADER_SIZE + (long) r * RECORD_SIZE);
+                record.flip();
+                while (record.hasRemaining()) {
+                    writeAt += outChannel.write(record, writeAt);
+                }
+            }
+            outChannel.force(true);
+        }
+        // Tombstones go first: a crash before the rename can at worst bring deleted entries back,
+        // never apply old tombstones to the compacted file
+        tombstoneFile.delete();
+        data.close();
+        boolean replaced = tmp.renameTo(dataFile);
+        if (!replaced) tmp.delete();
+        data = new RandomAccessFile(dataFile, "rw");
+        channel = data.getChannel();
+        if (!replaced) {
+            writeTombstones();
+            throw new IOException("Could not replace " + dataFile);
+        }
+        recordCount -= tombstoneCount;
+        persistedCount = recordCount;
+        tombstoneCount = 0;
+    }
+
+    private void writeTombstones() throws IOException {
+        try (RandomAccessFile del = new RandomAccessFile(tombstoneFile, "rw")) {
+            del.setLength(0);
+            for (int i = 0; i < tombstoneCount; i++) del.writeInt(tombstones[i]);
+        }
+    }
+
+    public synchronized int deletedCount() {
+        return tombstoneCount;
+    }
+
+    /** Flushes anything pending and closes the file. */
+    @Override
+    public void close() throws IOException {
+        synchronized (flushLock) {
+            try {
+                flush();
+            } finally {
+                synchronized (this) {
+                    data.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.megaproject.currencyconverter;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue in front of {@link HistoryStore}. Inserts and deletes land in the store's
+ * memory straight away (so the list updates at once) and the disk write is scheduled on a
+ * background thread a short while later; anything else that happens in that window goes out in
+ * the same flush. {@link #flush()} forces it early, e.g. from onStop.
+ */
+public class HistoryWriter {
+
+    public static final long BATCH_WINDOW_MS = 300;
+
+    private final HistoryStore store;
+    private final ScheduledExecutorService executor;
+    private final long windowMs;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public HistoryWriter(HistoryStore store) {
+        this(store, Executors.newSingleThreadScheduledExecutor(), BATCH_WINDOW_MS);
+    }
+
+    public HistoryWriter(HistoryStore store, ScheduledExecutorService executor, long windowMs) {
+        this.store = store;
+        this.executor = executor;
+        this.windowMs = windowMs;
+    }
+
+    public HistoryStore store() {
+        return store;
+    }
+
+    public void insert(HistoryItem item) {
+        store.append(item);
+        scheduleFlush();
+    }
+
+    public void delete(long id) {
+        store.delete(id);
+        scheduleFlush();
+    }
+
+    private synchronized void scheduleFlush() {
+        if (scheduledFlush != null && !scheduledFlush.isDone()) return; // Joins the pending batch
+        scheduledFlush = executor.schedule(this::flushNow, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Writes everything queued so far without waiting for the batch window. Doesn't block. */
+    public synchronized void flush() {
+        if (scheduledFlush != null) scheduledFlush.cancel(false);
+        scheduledFlush = null;
+        executor.execute(this::flushNow);
+    }
+
+    /** Flushes, closes the store and stops the background thread. */
+    public synchronized void close() {
+        if (scheduledFlush != null) scheduledFlush.cancel(false);
+        scheduledFlush = null;
+        executor.execute(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        executor.shutdown();
+    }
+
+    private void flushNow() {
+        try {
+            long start = PerfMetrics.now();
+            store.flush();
+            PerfMetrics.get().record(PerfMetrics.Timer.HISTORY_PERSIST, start);
+        } catch (IOException e) {
+            // Writes stay queued in the store and go out with the next flush
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.megaproject.currencyconverter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+
+/**
+ * Registry of the calls currently on the wire, keyed by base currency. A second request for a
+ * key that is already in flight joins the running call instead of starting another one, and
+ * calls for keys the UI has moved away from can be cancelled in one go.
+ *
+ * W is whatever the caller wants handed back when the call finishes (usually its callback).
+ */
+public class InFlightRequests<W> {
+
+    private static class Entry<W> {
+        final Call<?> call;
+        final List<W> waiters = new ArrayList<>();
+
+        Entry(Call<?> call) {
+            this.call = call;
+        }
+    }
+
+    private final Map<String, Entry<W>> entries = new HashMap<>();
+
+    /** Adds the waiter to the call running for the key. Returns false if nothing is running. */
+    public synchronized boolean join(String key, W waiter) {
+        Entry<W> entry = entries.get(key);
+        if (entry == null) return false;
+        entry.waiters.add(waiter);
+        return true;
+    }
+
+    public synchronized void start(String key, Call<?> call, W waiter) {
+        Entry<W> entry = new Entry<>(call);
+        entry.waiters.add(waiter);
+        entries.put(key, entry);
+    }
+
+    /**
+     * Unregisters the call and returns its waiters, or null if the call is no longer the one
+     * registered for the key (it was cancelled or superseded) and its result should be dropped.
+     */
+    public synchronized List<W> finish(String key, Call<?> call) {
+        Entry<W> entry = entries.get(key);
+        if (entry == null || entry.call != call) return null;
+        entries.remove(key);
+        return entry.waiters;
+    }
+
+    /** Cancels every call except the one for {@code keepKey}. Returns how many were cancelled. */
+    public int cancelOthers(String keepKey) {
+        List<Call<?>> cancelled = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Entry<W>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry<W>> e = it.next();
+                if (!e.getKey().equals(keepKey)) {
+                    cancelled.add(e.getValue().call);
+                    it.remove();
+                }
+            }
+        }
+        // Outside the lock, cancel() may call straight back into finish()
+        for (Call<?> call : cancelled) {
+            call.cancel();
+        }
+        return cancelled.size();
+    }
+
+    public void cancelAll() {
+        cancelOthers(null);
+    }
+
+    public synchronized boolean isInFlight(String key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
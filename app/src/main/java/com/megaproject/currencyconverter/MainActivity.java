@@ -15,18 +15,11 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 import android.content.SharedPreferences;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -39,19 +32,49 @@ public class MainActivity extends AppCompatActivity {
     private android.widget.ImageView ivContentFrom, ivContentTo; // Added ImageViews
     private View btnSwap;
     private Button btnConvert;
+    private com.google.android.material.materialswitch.MaterialSwitch switchLive;
     private RecyclerView rvHistory;
     private HistoryAdapter historyAdapter;
-    private List<HistoryItem> historyList = new ArrayList<>();
+    private HistoryStore historyStore;
+    private HistoryWriter historyWriter; // Persists history changes in batches off the main thread
+    private PagedHistory pagedHistory;
     
-    private String fromCurrency = "USD";
+    static final String START_BASE = "USD"; // Until the user picks another, see RatePrefetchWorker.lastBase
+    private String fromCurrency = START_BASE;
     private String toCurrency = "EUR";
-    private Map<String, Double> currentRates;
+    private RateSnapshots rateSnapshots; // Shared with alerts and background jobs; any pair can be derived, whatever the base
+    private final RateSnapshots.Listener ratesListener = (snapshot, changes) -> runOnUiThread(() -> onRatesChanged(changes));
     
-    // Using a reliable free API
-    // Note: In production, base URL usually goes in a constant or build config.
-    // Exchangerate-api v4 is common for simple free usage.
-    private static final String BASE_URL = "https://api.exchangerate-api.com/v4/"; 
     private CurrencyApiService apiService;
+    private RateRepository rateRepository;
+    private RateHistoryStore rateHistory;
+    private RateAlerts rateAlerts;
+    private CurrencyRegistry currencies;
+    // Android 13+ asks before the first alert can notify; the rule is kept either way
+    private final androidx.activity.result.ActivityResultLauncher<String> notificationPermission =
+            registerForActivityResult(new androidx.activity.result.contract.ActivityResultContracts.RequestPermission(), granted -> {
+                if (!granted) Toast.makeText(this, "Alerts need notifications to be allowed", Toast.LENGTH_LONG).show();
+            });
+    private final MoneyFormatter moneyFormatter = new MoneyFormatter(Locale.getDefault());
+    private final StringBuilder resultText = new StringBuilder(64), rateText = new StringBuilder(64);
+    private final char[] resultChars = new char[64], rateChars = new char[64];
+
+    private static final String PREF_LIVE_MODE = "live_conversion";
+    private boolean liveMode;
+    private FrameDebouncer liveDebouncer;
+
+    static final String PREF_BOARD_PINS = "board_pins"; // Also the widget's and tile's pairs, see RateWidgets
+    static final String DEFAULT_BOARD_PINS = "EUR,GBP,JPY,CAD,AUD,CHF,CNY,INR";
+    private final ConversionBoard board = new ConversionBoard(ordinal -> currencies.minorUnits(ordinal)); // Same decimals as the result
+    private BoardAdapter boardAdapter;
+    private long boardAmount = MoneyFormatter.INVALID;
+    private BatchImport batchImport;
+    private RateChartView rateChart;
+    private int chartRangeDays = 30;
+    private int chartRequest; // Only the newest history read gets drawn
+    // Disk reads for the chart and history opening, kept off the main thread
+    private final java.util.concurrent.ExecutorService ioExecutor = java.util.concurrent.Executors.newSingleThreadExecutor();
+    private boolean reportedDrawn;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -70,9 +93,20 @@ public class MainActivity extends AppCompatActivity {
             return insets;
         });
         
+        currencies = CurrencyRegistry.get(this); // Names, symbols, flags; one small asset read per process
+        fromCurrency = RatePrefetchWorker.lastBase(this); // Where the user left off
+        if (fromCurrency.equals(toCurrency)) toCurrency = START_BASE;
         initViews();
         setupRetrofit();
         setupHistory();
+        setupBoard();
+        setupChart();
+        // Expense exports: uses the rates on screen when they cover the file, fetches otherwise
+        batchImport = new BatchImport(this, () -> new ApiRateSource(apiService, rateSnapshots, rateHistory));
+        findViewById(R.id.btnBatchImport).setOnClickListener(v -> batchImport.start());
+        PerfOverlay.attach(this, findViewById(R.id.tvAppTitle)); // Debug builds: long-press the title for timings
+        rateSnapshots.subscribe(ratesListener);
+        if (rateSnapshots.current() != null) onRatesChanged(null); // Usually warmed up by the splash
         loadRates(); // Initial Load
         updateCurrencyUI(); // Initial UI set
     }
@@ -91,6 +125,7 @@ public class MainActivity extends AppCompatActivity {
         btnConvert = findViewById(R.id.btnConvert);
         rvHistory = findViewById(R.id.rvHistory);
         tvTimestamp = findViewById(R.id.tvTimestamp);
+        switchLive = findViewById(R.id.switchLive);
 
         // Click listeners for currency selection (Mockups using PopupMenu for simplicity in this replica task)
         findViewById(R.id.containerFrom).setOnClickListener(v -> showCurrencyBottomSheet(true));
@@ -100,14 +135,27 @@ public class MainActivity extends AppCompatActivity {
         
         btnConvert.setOnClickListener(v -> performConversion(true)); // True indicates explicit button click -> add to history
         
-        // Auto-update on amount change - DISABLED per request
-        // Instead, we clear the result to indicate need for re-conversion
+        // Live mode recomputes as the amount is typed, at most once per frame; otherwise the
+        // result is cleared to indicate need for re-conversion
+        liveDebouncer = new FrameDebouncer(new ChoreographerFrameScheduler(), this::convertLive, PerfMetrics.get());
+        liveMode = getSharedPreferences("CurrencyPrefs", MODE_PRIVATE).getBoolean(PREF_LIVE_MODE, false);
+        switchLive.setChecked(liveMode);
+        switchLive.setOnCheckedChangeListener((button, checked) -> {
+            liveMode = checked;
+            getSharedPreferences("CurrencyPrefs", MODE_PRIVATE).edit().putBoolean(PREF_LIVE_MODE, checked).apply();
+            if (!checked) liveDebouncer.cancel();
+            refreshResult();
+        });
         etAmount.addTextChangedListener(new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                 clearResultUI();
+                if (liveMode) {
+                    liveDebouncer.onInput();
+                } else {
+                    clearResultUI();
+                }
             }
             @Override
             public void afterTextChanged(Editable s) {}
@@ -116,6 +164,7 @@ public class MainActivity extends AppCompatActivity {
 
         
         findViewById(R.id.btnSave).setOnClickListener(v -> Toast.makeText(this, "Conversion Saved!", Toast.LENGTH_SHORT).show());
+        findViewById(R.id.btnAlert).setOnClickListener(v -> showAlertDialog());
         findViewById(R.id.btnShare).setOnClickListener(v -> {
             Intent shareIntent = new Intent(Intent.ACTION_SEND);
             shareIntent.setType("text/plain");
@@ -125,8 +174,50 @@ public class MainActivity extends AppCompatActivity {
         
 
         
-        // Initial state: Clear result
-        clearResultUI();
+        // Initial state: Clear result (or show it, in live mode, once rates are in)
+        refreshResult();
+    }
+
+    // Alerts for the pair on screen: add one, or clear the ones it has
+    private void showAlertDialog() {
+        String from = fromCurrency, to = toCurrency;
+        View content = getLayoutInflater().inflate(R.layout.dialog_rate_alert, null);
+        android.widget.RadioGroup rgKind = content.findViewById(R.id.rgAlertKind);
+        EditText etValue = content.findViewById(R.id.etAlertValue);
+        TextView tvRules = content.findViewById(R.id.tvAlertRules);
+        CrossRateTable rates = rateSnapshots.table();
+        if (rates != null && rates.has(from) && rates.has(to)) {
+            etValue.setHint(String.format(Locale.getDefault(), "Now %.4f", rates.rate(from, to)));
+        }
+        List<RateAlertRule> existing = rateAlerts.rules(from, to);
+        StringBuilder rules = new StringBuilder();
+        for (RateAlertRule rule : existing) rules.append(rules.length() > 0 ? "\n" : "Active: ").append(rule);
+        tvRules.setText(rules);
+
+        com.google.android.material.dialog.MaterialAlertDialogBuilder builder = new com.google.android.material.dialog.MaterialAlertDialogBuilder(this)
+                .setTitle("Alert me when " + from + "/" + to)
+                .setView(content)
+                .setNegativeButton("Cancel", null)
+                .setPositiveButton("Add", (d, which) -> {
+                    long value = moneyFormatter.parseAmount(etValue.getText());
+                    int checked = rgKind.getCheckedRadioButtonId();
+                    RateAlertRule.Kind kind = checked == R.id.rbAlertBelow ? RateAlertRule.Kind.BELOW
+                            : checked == R.id.rbAlertMove ? RateAlertRule.Kind.MOVE : RateAlertRule.Kind.ABOVE;
+                    if (value == MoneyFormatter.INVALID
+                            || !rateAlerts.add(new RateAlertRule(from, to, kind, MoneyFormatter.toDouble(value, MoneyFormatter.AMOUNT_SCALE)))) {
+                        Toast.makeText(this, "Invalid alert value", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    if (android.os.Build.VERSION.SDK_INT >= 33 && androidx.core.content.ContextCompat.checkSelfPermission(
+                            this, android.Manifest.permission.POST_NOTIFICATIONS) != android.content.pm.PackageManager.PERMISSION_GRANTED) {
+                        notificationPermission.launch(android.Manifest.permission.POST_NOTIFICATIONS);
+                    }
+                    Toast.makeText(this, "Alert set, checked on every rate refresh", Toast.LENGTH_SHORT).show();
+                });
+        if (!existing.isEmpty()) {
+            builder.setNeutralButton("Clear all", (d, which) -> rateAlerts.removeAll(from, to));
+        }
+        builder.show();
     }
 
     private void clearResultUI() {
@@ -135,88 +226,239 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void setupRetrofit() {
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(BASE_URL)
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-        apiService = retrofit.create(CurrencyApiService.class);
+        // Shared with the background prefetch, so whatever it fetched is already in memory
+        RateServices services = RateServices.get(this);
+        apiService = services.api;
+        rateRepository = services.repository;
+        rateHistory = services.history;
+        rateAlerts = services.alerts;
+        rateSnapshots = services.rates;
+        RatePrefetchWorker.schedule(this);
     }
     
+    // The store is the process's, usually already opened by the splash's warmup with its first
+    // page read. It's picked up once the warmup is done and anything left (migration on first
+    // use) happens off the main thread, so the screen never waits for the disk; history shows
+    // up when it's ready.
     private void setupHistory() {
-        // Load history from SharedPreferences
-        loadHistory(); 
-        
-        // Initialize if null (should be handled in loadHistory but safe check)
-        if (historyList == null) {
-            historyList = new ArrayList<>();
-        }
-        
+        AppWarmup warmup = AppWarmup.start(this); // Already running unless the splash was skipped
+        warmup.graph().whenFinished(() -> runOnUiThread(() -> {
+            if (isDestroyed()) return;
+            ioExecutor.execute(() -> {
+                HistoryWriter writer;
+                try {
+                    writer = warmup.history(this::prepareHistory);
+                } catch (java.io.IOException e) {
+                    e.printStackTrace();
+                    return; // No history this session, conversions still work
+                }
+                runOnUiThread(() -> showHistory(writer));
+            });
+        }));
+    }
+
+    private void prepareHistory(HistoryStore store) throws java.io.IOException {
+        migrateLegacyHistory(store);
+
         // Add dummy data for first impression
-        if (historyList.isEmpty()) {
-            historyList.add(new HistoryItem("USD", "EUR", 100, 92.54, "Today, 10:30 AM"));
-            historyList.add(new HistoryItem("GBP", "USD", 50, 63.20, "Yesterday, 2:15 PM"));
-            historyList.add(new HistoryItem("EUR", "JPY", 200, 31400, "Yesterday, 9:00 AM"));
-            saveHistory();
+        if (store.size() == 0) {
+            long now = System.currentTimeMillis();
+            long hour = 60 * 60 * 1000L;
+            store.append(new HistoryItem("EUR", "JPY", 200, 31400, now - 26 * hour));
+            store.append(new HistoryItem("GBP", "USD", 50, 63.20, now - 20 * hour));
+            store.append(new HistoryItem("USD", "EUR", 100, 92.54, now - hour));
+            store.flush();
         }
+    }
+
+    private void showHistory(HistoryWriter writer) {
+        if (isDestroyed()) return;
+        historyWriter = writer;
+        historyStore = writer.store();
 
-        historyAdapter = new HistoryAdapter(historyList);
+        // Pages are read as rows scroll into view, nothing is loaded up front
+        pagedHistory = new PagedHistory(historyStore);
+        historyAdapter = new HistoryAdapter(pagedHistory, ordinal -> currencies.minorUnits(ordinal)); // Same decimals as the result
+        historyAdapter.setOnDeleteListener((item, position) -> {
+            historyWriter.delete(item.id); // Durable now, written with the next batch
+            pagedHistory.invalidate();
+            historyAdapter.notifyItemRemoved(position);
+        });
         rvHistory.setLayoutManager(new LinearLayoutManager(this));
         rvHistory.setAdapter(historyAdapter);
     }
 
+    private void setupBoard() {
+        SharedPreferences prefs = getSharedPreferences("CurrencyPrefs", MODE_PRIVATE);
+        board.pinsFromString(prefs.getString(PREF_BOARD_PINS, DEFAULT_BOARD_PINS));
+        boardAmount = moneyFormatter.parseAmount(etAmount.getText()); // Filled in once rates arrive
+        boardAdapter = new BoardAdapter();
+        boardAdapter.setOnUnpinListener(ordinal -> {
+            board.unpin(ordinal);
+            saveBoardPins();
+            refreshBoard();
+        });
+        RecyclerView rvBoard = findViewById(R.id.rvBoard);
+        rvBoard.setLayoutManager(new LinearLayoutManager(this));
+        rvBoard.setAdapter(boardAdapter);
+
+        findViewById(R.id.btnBoardPin).setOnClickListener(v -> {
+            CurrencySelectionBottomSheet sheet = CurrencySelectionBottomSheet.newInstance(null);
+            sheet.setListener(code -> {
+                if (board.pin(CurrencyCodes.ordinal(code))) {
+                    saveBoardPins();
+                    refreshBoard();
+                }
+            });
+            sheet.show(getSupportFragmentManager(), "BoardPinSheet");
+        });
+        findViewById(R.id.btnBoardPinAll).setOnClickListener(v -> {
+            CrossRateTable rates = rateSnapshots.table();
+            if (rates == null) {
+                Toast.makeText(this, "Fetching rates...", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            board.pinAll(rates);
+            saveBoardPins();
+            refreshBoard();
+        });
+    }
+
+    private void setupChart() {
+        rateChart = findViewById(R.id.rateChart);
+        com.google.android.material.chip.ChipGroup chipGroupRange = findViewById(R.id.chipGroupRange);
+        chipGroupRange.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (checkedIds.isEmpty()) return;
+            chartRangeDays = Integer.parseInt((String) findViewById(checkedIds.get(0)).getTag());
+            loadChart();
+        });
+        loadChart();
+    }
+
+    // History files are read off the main thread; the first read loads them from disk
+    private void loadChart() {
+        int from = CurrencyCodes.ordinal(fromCurrency), to = CurrencyCodes.ordinal(toCurrency);
+        int range = chartRangeDays;
+        int request = ++chartRequest;
+        ioExecutor.execute(() -> {
+            RateHistoryStore.Series series = rateHistory.lastDays(from, to, range);
+            runOnUiThread(() -> {
+                if (request != chartRequest || isDestroyed()) return;
+                rateChart.setSeries(series.days, series.rates, series.size, range);
+                appendToChart(); // The table on screen may not have been recorded yet
+            });
+        });
+    }
+
+    // A new snapshot only extends the chart, nothing is reloaded
+    private void appendToChart() {
+        CrossRateTable rates = rateSnapshots.table();
+        if (rates == null || rateChart == null) return;
+        int day = RateHistoryStore.epochDay(rates.getDate());
+        if (day == Integer.MIN_VALUE) day = RateHistoryStore.epochDay(System.currentTimeMillis());
+        double rate = rates.rate(fromCurrency, toCurrency);
+        if (!Double.isNaN(rate)) rateChart.append(day, rate);
+    }
+
+    private void saveBoardPins() {
+        getSharedPreferences("CurrencyPrefs", MODE_PRIVATE).edit().putString(PREF_BOARD_PINS, board.pinsToString()).apply();
+    }
+
+    // Board shows the last converted amount in every pinned currency
+    private void updateBoard(long amount) {
+        boardAmount = amount;
+        refreshBoard();
+    }
+
+    private void refreshBoard() {
+        CrossRateTable rates = rateSnapshots.table();
+        if (rates == null || boardAdapter == null) return;
+        board.compute(rates, CurrencyCodes.ordinal(fromCurrency), boardAmount);
+        boardAdapter.submit(board); // Diffed, only rows whose amount changed rebind
+    }
+
     private void loadRates() {
-        apiService.getLatestRates(fromCurrency).enqueue(new Callback<ExchangeRateResponse>() {
+        rateRepository.getRates(fromCurrency, new RateRepository.Callback() {
             @Override
-            public void onResponse(Call<ExchangeRateResponse> call, Response<ExchangeRateResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    currentRates = response.body().rates;
-                    // Auto conversion removed
-                }
+            public void onRates(ExchangeRateResponse rates, boolean fromCache) {
+                // Shown through ratesListener: the repository published them to the snapshots
             }
 
             @Override
-            public void onFailure(Call<ExchangeRateResponse> call, Throwable t) {
+            public void onError(Throwable t) {
                 Toast.makeText(MainActivity.this, "Failed to load rates", Toast.LENGTH_SHORT).show();
             }
         });
     }
 
+    // A new snapshot (or, with null changes, the one already there when the screen opened).
+    // Everything on screen reads the snapshot itself, the changes only decide what to redo.
+    private void onRatesChanged(RateSnapshots.Changes changes) {
+        if (isDestroyed()) return;
+        if (changes == null || changes.contains(fromCurrency, toCurrency)) appendToChart();
+        if (liveMode) {
+            convertLive();
+        } else {
+            refreshBoard(); // Diffed, so pins whose rate didn't move don't rebind
+        }
+        onConversionReady();
+    }
+
+    // First rates on screen: the app is usable. Reported once the frame with them is drawn, for
+    // the startup benchmarks and Play vitals, and timed from process start in PerfMetrics.
+    private void onConversionReady() {
+        if (reportedDrawn) return;
+        reportedDrawn = true;
+        getWindow().getDecorView().post(() -> {
+            reportFullyDrawn();
+            long sinceStartMs = android.os.SystemClock.uptimeMillis() - android.os.Process.getStartUptimeMillis();
+            PerfMetrics.get().recordNanos(PerfMetrics.Timer.STARTUP, sinceStartMs * 1_000_000L);
+        });
+    }
+
+    // Base changes are answered from the cross-rate table, the network is only needed for gaps
+    private void ensureRates() {
+        CrossRateTable rates = rateSnapshots.table();
+        if (rates == null || !rates.has(fromCurrency) || !rates.has(toCurrency)) {
+            loadRates();
+        }
+    }
+
     private void performConversion(boolean addToHistory) {
         try {
-            if (currentRates == null) {
+            CrossRateTable rates = rateSnapshots.table();
+            if (rates == null || !rates.has(fromCurrency)) {
                 Toast.makeText(this, "Fetching rates...", Toast.LENGTH_SHORT).show();
                 loadRates(); // Try loading if missing
                 return;
             }
             
-            String amountStr = etAmount.getText().toString();
-            if (amountStr.isEmpty()) return;
-            
-            double amount = Double.parseDouble(amountStr);
-            Double rate = currentRates.get(toCurrency);
+            // Parsed straight from the Editable and formatted into reused buffers, no garbage per conversion
+            if (etAmount.getText().length() == 0) return;
+            long amount = moneyFormatter.parseAmount(etAmount.getText());
+            if (amount == MoneyFormatter.INVALID) {
+                Toast.makeText(this, "Invalid amount", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            updateBoard(amount);
+            long result = showConversion(rates, amount);
             
-            if (rate != null) {
-                double result = amount * rate;
-                
-                // Format result
-                String symbol = getCurrencySymbol(toCurrency);
-                tvResultValue.setText(String.format(Locale.getDefault(), "%s%.2f", symbol, result));
-                
-                // Format rate pill
-                String rateText = String.format(Locale.getDefault(), "1 %s = %.4f %s", fromCurrency, rate, toCurrency);
-                tvExchangeRate.setText(rateText);
-                
+            if (result >= 0) {
                 // Add to history only on button click to avoid spam
                 if (addToHistory) {
                     try {
-                        String date = new SimpleDateFormat("Today, h:mm a", Locale.getDefault()).format(new Date());
-                        historyList.add(0, new HistoryItem(fromCurrency, toCurrency, amount, result, date));
+                        long now = System.currentTimeMillis();
+                        HistoryItem item = new HistoryItem(fromCurrency, toCurrency,
+                                MoneyFormatter.toDouble(amount, MoneyFormatter.AMOUNT_SCALE), MoneyFormatter.toDouble(result, currencies.minorUnits(toCurrency)), now);
+                        if (historyWriter != null) {
+                            historyWriter.insert(item); // Written to disk in the background with the next batch
+                            pagedHistory.invalidate();
+                        }
                         // Ensure adapter is not null and notify
                         if (historyAdapter != null) {
                             historyAdapter.notifyItemInserted(0);
                             rvHistory.scrollToPosition(0);
                         }
-                        saveHistory(); // Save updated history
                     } catch (Exception e) {
                         e.printStackTrace();
                         Toast.makeText(this, "Error updating history: " + e.getMessage(), Toast.LENGTH_LONG).show();
@@ -231,90 +473,103 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
+    // Shows amount (scaled by AMOUNT_SCALE) converted with the table in memory, returns the
+    // result in the target's minor units or -1 if the pair has no rate
+    private long showConversion(CrossRateTable rates, long amount) {
+        long start = PerfMetrics.now();
+        double rate = rates.rate(fromCurrency, toCurrency);
+        if (Double.isNaN(rate)) return -1;
+        long scaledRate = MoneyFormatter.scaleRate(rate);
+        int digits = currencies.minorUnits(toCurrency); // 0 for JPY, 3 for KWD...
+        long result = MoneyFormatter.multiply(amount, scaledRate, digits);
+        
+        // Format result
+        resultText.setLength(0);
+        moneyFormatter.appendMoney(resultText, currencies.prefix(toCurrency), result, digits);
+        setText(tvResultValue, resultText, resultChars);
+        
+        // Format rate pill
+        rateText.setLength(0);
+        rateText.append("1 ").append(fromCurrency).append(" = ");
+        moneyFormatter.appendDecimal(rateText, MoneyFormatter.rescale(scaledRate, MoneyFormatter.RATE_SCALE, 4), 4, false);
+        rateText.append(' ').append(toCurrency);
+        setText(tvExchangeRate, rateText, rateChars);
+        PerfMetrics.get().record(PerfMetrics.Timer.CONVERSION, start);
+        return result;
+    }
+    
+    // Live mode: only the cached table, never the network, history or a toast
+    private void convertLive() {
+        CrossRateTable rates = rateSnapshots.table();
+        if (rates == null) {
+            clearResultUI();
+            return;
+        }
+        long amount = moneyFormatter.parseAmount(etAmount.getText());
+        updateBoard(amount);
+        if (amount == MoneyFormatter.INVALID || showConversion(rates, amount) < 0) {
+            clearResultUI();
+        }
+    }
+    
+    private void refreshResult() {
+        if (liveMode) {
+            convertLive();
+        } else {
+            clearResultUI();
+            refreshBoard(); // Same amount, the source currency may have changed
+        }
+    }
+    
+    // TextView keeps a reference to the char[] it is given, so each view gets its own buffer
+    private static void setText(TextView view, StringBuilder text, char[] buffer) {
+        int length = Math.min(text.length(), buffer.length);
+        text.getChars(0, length, buffer, 0);
+        view.setText(buffer, 0, length);
+    }
+    
+    // Remembered for the background prefetch, the widget and tile, and the next launch
+    private void setFromCurrency(String code) {
+        fromCurrency = code;
+        RatePrefetchWorker.noteBase(this, code);
+    }
+
     private void swapCurrencies() {
         try {
             String temp = fromCurrency;
-            fromCurrency = toCurrency;
+            setFromCurrency(toCurrency);
             toCurrency = temp;
             
             updateCurrencyUI();
-            clearResultUI(); // Clear result on swap
+            refreshResult(); // Clear result on swap, or recompute in live mode
+            loadChart();
             
-            // Reload rates for new base
-            loadRates();
+            // Cross rates cover the new base, only fetch if the table can't
+            ensureRates();
         } catch (Exception e) {
              e.printStackTrace();
         }
     }
     
-    // Quick helper for Symbols (simplified subset)
-    private String getCurrencySymbol(String code) {
-        if (code == null) return "?";
-        switch (code) {
-            case "USD": return "$";
-            case "EUR": return "€";
-            case "GBP": return "£";
-            case "JPY": return "¥";
-            case "CAD": return "$";
-            default: return code + " ";
-        }
-    }
-    
     private void updateCurrencyUI() {
         try {
             tvFromCode.setText(fromCurrency);
-            tvFromName.setText(getCurrencyName(fromCurrency));
+            tvFromName.setText(currencies.name(fromCurrency));
             tvToCode.setText(toCurrency);
-            tvToName.setText(getCurrencyName(toCurrency));
+            tvToName.setText(currencies.name(toCurrency));
             
             // Load flags safely
             if (ivContentFrom != null) {
-                com.bumptech.glide.Glide.with(this).load(getFlagUrl(fromCurrency)).circleCrop().into(ivContentFrom);
+                FlagAtlas.get(this).into(ivContentFrom, fromCurrency);
             }
             if (ivContentTo != null) {
-                com.bumptech.glide.Glide.with(this).load(getFlagUrl(toCurrency)).circleCrop().into(ivContentTo);
+                FlagAtlas.get(this).into(ivContentTo, toCurrency);
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     
-    private String getCurrencyName(String code) {
-        switch (code) {
-            case "USD": return "United States Dollar";
-            case "EUR": return "Euro";
-            case "GBP": return "British Pound";
-            case "JPY": return "Japanese Yen";
-            case "CAD": return "Canadian Dollar";
-            case "AUD": return "Australian Dollar";
-            case "CHF": return "Swiss Franc";
-            case "CNY": return "Chinese Yuan";
-            case "INR": return "Indian Rupee";
-            case "SGD": return "Singapore Dollar";
-            case "ZAR": return "South African Rand";
-            default: return "Currency";
-        }
-    }
-    
-    private String getFlagUrl(String code) {
-        String countryCode;
-        switch (code) {
-            case "USD": countryCode = "us"; break;
-            case "EUR": countryCode = "eu"; break;
-            case "GBP": countryCode = "gb"; break;
-            case "JPY": countryCode = "jp"; break;
-            case "CAD": countryCode = "ca"; break;
-            case "AUD": countryCode = "au"; break;
-            case "CHF": countryCode = "ch"; break;
-            case "CNY": countryCode = "cn"; break;
-            case "INR": countryCode = "in"; break;
-            case "SGD": countryCode = "sg"; break;
-            case "ZAR": countryCode = "za"; break;
-            default: countryCode = "us"; // Fallback
-        }
-        return "https://flagcdn.com/w160/" + countryCode + ".png";
-    }
-
     // Simple Popup Menu for Currency Selection (Replica requirement asked for functionality, this is the standard native way without building a custom BottomSheet dialog from scratch, though bottom sheet was in HTML. For 'exact replica' visual, a BottomSheetDialog is better, but code complexity is high. I'll use Popup for now to ensure reliability, or should I attempt the BottomSheet? The user provided HTML for BottomSheet. Let's stick to essential logic first).
     // Actually, let's just make a simple toggle for the top 5 currencies shown in the HTML for demonstration.
     // Flag to track which currency we are selecting
@@ -327,25 +582,24 @@ public class MainActivity extends AppCompatActivity {
         bottomSheet.setListener(code -> {
              if (isSelectingFrom) {
                  String oldFrom = fromCurrency;
-                 fromCurrency = code;
+                 setFromCurrency(code);
                  // If From becomes same as To, swap To with old From
                  if (fromCurrency.equals(toCurrency)) {
                      toCurrency = oldFrom;
                  }
-                 loadRates();
+                 ensureRates();
             } else {
                 String oldTo = toCurrency;
                 toCurrency = code;
                 // If To becomes same as From, swap From with old To
                 if (toCurrency.equals(fromCurrency)) {
-                    fromCurrency = oldTo;
-                    loadRates(); // Reload because base (From) changed
-                } else {
-                    // No conversion yet
+                    setFromCurrency(oldTo);
                 }
+                ensureRates(); // Only hits the network if the table lacks one of the pair
             }
             updateCurrencyUI();
-            clearResultUI(); // Clear result on selection change
+            refreshResult(); // Clear result on selection change, or recompute in live mode
+            loadChart();
         });
         bottomSheet.show(getSupportFragmentManager(), "CurrencyBottomSheet");
     }
@@ -354,27 +608,39 @@ public class MainActivity extends AppCompatActivity {
        showCurrencyBottomSheet(isFrom);
     }
 
-    private void saveHistory() {
+    // Moves history saved by older versions (one Gson blob in SharedPreferences) into the store, once
+    private void migrateLegacyHistory(HistoryStore store) throws java.io.IOException {
         SharedPreferences sharedPreferences = getSharedPreferences("CurrencyPrefs", MODE_PRIVATE);
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        Gson gson = new Gson();
-        String json = gson.toJson(historyList);
-        editor.putString("history_list", json);
-        editor.apply();
-    }
-
-    private void loadHistory() {
-        SharedPreferences sharedPreferences = getSharedPreferences("CurrencyPrefs", MODE_PRIVATE);
-        Gson gson = new Gson();
         String json = sharedPreferences.getString("history_list", null);
+        if (json == null) return;
+
         Type type = new TypeToken<ArrayList<HistoryItem>>() {}.getType();
-        
-        if (json != null) {
-            historyList = gson.fromJson(json, type);
+        List<HistoryItem> legacy = new Gson().fromJson(json, type);
+        if (legacy != null) {
+            // The old list is newest first and only kept the text shown as the date, so that and
+            // the order is what the entries keep
+            Collections.reverse(legacy);
+            store.importLegacy(legacy); // Flushed before the preference is dropped
         }
-        
-        if (historyList == null) {
-            historyList = new ArrayList<>();
+        sharedPreferences.edit().remove("history_list").apply();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // The app may be killed from here on, don't leave a batch waiting
+        if (historyWriter != null) {
+            historyWriter.flush();
         }
+        RateWidgets.update(this); // Pins or the base may have changed; a no-op if neither did
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        rateSnapshots.unsubscribe(ratesListener);
+        liveDebouncer.cancel();
+        batchImport.close();
+        ioExecutor.shutdown(); // History stays open, it belongs to the process (see AppWarmup.history)
     }
 }
@@ -0,0 +1,157 @@
+package com.megaproject.currencyconverter;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Parsing, arithmetic and formatting for the result display without String.format, boxing or
+ * regex. Amounts and rates are scaled longs, so the money math is exact decimal arithmetic and
+ * the hot path allocates nothing: text is appended to a StringBuilder the caller reuses.
+ *
+ * Locale separators are read once up front. Not thread-safe (it keeps a scratch buffer), use
+ * one per thread, normally the main thread.
+ */
+public final class MoneyFormatter {
+
+    public static final int AMOUNT_SCALE = 4;  // Decimals kept from typed amounts
+    public static final int RATE_SCALE = 10;   // Decimals kept from rates
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    private static final long MASK_32 = 0xFFFFFFFFL;
+
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final char[] scratch = new char[40];
+
+    public MoneyFormatter(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        groupingSeparator = symbols.getGroupingSeparator();
+        decimalSeparator = symbols.getDecimalSeparator();
+    }
+
+    /**
+     * Parses a typed, non-negative decimal into a long scaled by 10^AMOUNT_SCALE. Accepts '.' or
+     * the locale's decimal separator; digits past AMOUNT_SCALE decimals are dropped. Returns
+     * INVALID for empty or malformed text and for amounts too big to convert.
+     */
+    public long parseAmount(CharSequence text) {
+        int len = text.length();
+        if (len == 0) return INVALID;
+        long value = 0;
+        int decimals = -1; // -1 until the separator is seen
+        boolean anyDigit = false;
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (decimals >= AMOUNT_SCALE) continue;
+                if (value > (Long.MAX_VALUE / 100) / 10) return INVALID; // Leave headroom for the rate
+                value = value * 10 + (c - '0');
+                if (decimals >= 0) decimals++;
+            } else if ((c == '.' || c == decimalSeparator) && decimals < 0) {
+                decimals = 0;
+            } else {
+                return INVALID;
+            }
+        }
+        if (!anyDigit) return INVALID;
+        int scaleUp = AMOUNT_SCALE - Math.max(decimals, 0);
+        if (value > Long.MAX_VALUE / POW10[scaleUp]) return INVALID;
+        return value * POW10[scaleUp];
+    }
+
+    /** Rates arrive as doubles from the API; this fixes them to RATE_SCALE decimals. */
+    public static long scaleRate(double rate) {
+        return Math.round(rate * POW10[RATE_SCALE]);
+    }
+
+    /**
+     * amount (scaled by AMOUNT_SCALE) times rate (scaled by RATE_SCALE), rounded half-even to
+     * {@code digits} decimals and returned scaled by 10^digits. The product is kept in 128 bits
+     * so nothing overflows before the final rounding; results past Long.MAX_VALUE saturate.
+     */
+    public static long multiply(long amount, long rate, int digits) {
+        // 128-bit product (both operands are non-negative)
+        long aLo = amount & MASK_32, aHi = amount >>> 32;
+        long bLo = rate & MASK_32, bHi = rate >>> 32;
+        long ll = aLo * bLo;
+        long lh = aLo * bHi;
+        long hl = aHi * bLo;
+        long hh = aHi * bHi;
+        long mid = (ll >>> 32) + (lh & MASK_32) + (hl & MASK_32);
+        long lo = (mid << 32) | (ll & MASK_32);
+        long hi = hh + (lh >>> 32) + (hl >>> 32) + (mid >>> 32);
+
+        // Divide by 10^(scales - digits), which is below 2^47, sixteen bits at a time
+        long divisor = POW10[AMOUNT_SCALE + RATE_SCALE - digits];
+        long quotient = 0;
+        long remainder = 0;
+        for (int shift = 112; shift >= 0; shift -= 16) {
+            long chunk = shift >= 64 ? (hi >>> (shift - 64)) & 0xFFFF : (lo >>> shift) & 0xFFFF;
+            long current = (remainder << 16) | chunk;
+            if (quotient > (Long.MAX_VALUE >>> 16)) return Long.MAX_VALUE;
+            quotient = (quotient << 16) | (current / divisor);
+            remainder = current % divisor;
+        }
+        return roundHalfEven(quotient, remainder, divisor);
+    }
+
+    /** Rounds a value with {@code from} decimals to {@code to} decimals, half-even. */
+    public static long rescale(long value, int from, int to) {
+        if (to >= from) return value * POW10[to - from];
+        long divisor = POW10[from - to];
+        return roundHalfEven(value / divisor, value % divisor, divisor);
+    }
+
+    public static double toDouble(long value, int digits) {
+        return value / (double) POW10[digits];
+    }
+
+    /** Scales a double to {@code digits} decimals, for values already stored as doubles (history rows). */
+    public static long fromDouble(double value, int digits) {
+        return Math.round(value * POW10[digits]);
+    }
+
+    private static long roundHalfEven(long quotient, long remainder, long divisor) {
+        long twice = remainder * 2;
+        if (twice > divisor || (twice == divisor && (quotient & 1) != 0)) {
+            return quotient == Long.MAX_VALUE ? quotient : quotient + 1;
+        }
+        return quotient;
+    }
+
+    /** Appends symbol followed by the value (scaled by 10^digits) with grouping, e.g. "€1,234.50". */
+    public void appendMoney(StringBuilder out, String symbol, long value, int digits) {
+        out.append(symbol);
+        appendDecimal(out, value, digits, true);
+    }
+
+    /** Appends a non-negative value scaled by 10^digits with exactly {@code digits} decimals. */
+    public void appendDecimal(StringBuilder out, long value, int digits, boolean grouping) {
+        // Built right to left in the scratch buffer, then appended in one go
+        int pos = scratch.length;
+        long v = value;
+        for (int i = 0; i < digits; i++) {
+            scratch[--pos] = (char) ('0' + (v % 10));
+            v /= 10;
+        }
+        if (digits > 0) scratch[--pos] = decimalSeparator;
+        int groupDigits = 0;
+        do {
+            if (grouping && groupDigits == 3) {
+                scratch[--pos] = groupingSeparator;
+                groupDigits = 0;
+            }
+            scratch[--pos] = (char) ('0' + (v % 10));
+            v /= 10;
+            groupDigits++;
+        } while (v > 0);
+        out.append(scratch, pos, scratch.length - pos);
+    }
+}
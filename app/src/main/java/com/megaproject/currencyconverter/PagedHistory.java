@@ -0,0 +1,81 @@
+package com.megaproject.currencyconverter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Windowed view over a {@link HistoryPageSource} for {@link HistoryAdapter}. Pages are read the
+ * first time a row inside them is asked for, and only a handful are kept: when a new page is
+ * needed the one furthest from it is dropped. Memory stays the same whether the history has a
+ * hundred entries or a million.
+ */
+public class PagedHistory {
+
+    public static final int PAGE_SIZE = 50;
+    public static final int MAX_PAGES = 5; // The visible page plus a couple either side
+
+    private final HistoryPageSource source;
+    private final int[] pageNumbers = new int[MAX_PAGES];
+    private final List<List<HistoryItem>> pages = new ArrayList<>(MAX_PAGES);
+    private int size;
+
+    public PagedHistory(HistoryPageSource source) {
+        this.source = source;
+        for (int i = 0; i < MAX_PAGES; i++) pages.add(null);
+        invalidate();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Returns the entry at the position, or null if its page could not be read. */
+    public HistoryItem get(int position) {
+        if (position < 0 || position >= size) return null;
+        int page = position / PAGE_SIZE;
+        List<HistoryItem> items = pageFor(page);
+        int offset = position - page * PAGE_SIZE;
+        return items != null && offset < items.size() ? items.get(offset) : null;
+    }
+
+    /** Drops every loaded page, e.g. after an insert or delete shifted all positions. */
+    public void invalidate() {
+        for (int i = 0; i < MAX_PAGES; i++) {
+            pageNumbers[i] = -1;
+            pages.set(i, null);
+        }
+        size = source.size();
+    }
+
+    int residentItemCount() {
+        int count = 0;
+        for (List<HistoryItem> p : pages) {
+            if (p != null) count += p.size();
+        }
+        return count;
+    }
+
+    private List<HistoryItem> pageFor(int page) {
+        int victim = 0;
+        int victimDistance = -1;
+        for (int i = 0; i < MAX_PAGES; i++) {
+            if (pageNumbers[i] == page) return pages.get(i);
+            // Empty slots first, then whichever page is furthest from the one we need
+            int distance = pageNumbers[i] < 0 ? Integer.MAX_VALUE : Math.abs(pageNumbers[i] - page);
+            if (distance > victimDistance) {
+                victim = i;
+                victimDistance = distance;
+            }
+        }
+        try {
+            List<HistoryItem> items = source.readPage(page * PAGE_SIZE, PAGE_SIZE);
+            pageNumbers[victim] = page;
+            pages.set(victim, items);
+            return items;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
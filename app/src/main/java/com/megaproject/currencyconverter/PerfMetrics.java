@@ -0,0 +1,224 @@
+package com.megaproject.currencyconverter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide timers and counters for the hot paths. Everything lives in preallocated
+ * {@link AtomicLongArray}s: a counter is one atomic add, a timer sample two or three (its log2
+ * bucket, the sum and, when it is a new high, the max), so recording takes tens of nanoseconds
+ * from any thread and never locks or allocates. Counts are the sum of the buckets.
+ * Percentiles come from the buckets, so they are good to within a factor of two, which is
+ * enough to tell a 2 ms bind from a 20 ms one.
+ *
+ * Rate fetches are also kept per base currency. Reading ({@link #snapshot()}) copies the arrays
+ * without stopping writers, so a snapshot taken mid-update can be off by the samples in flight.
+ */
+public final class PerfMetrics {
+
+    public enum Timer {
+        RATE_FETCH,        // Request sent to rates parsed, any base
+        CONVERSION,        // Amount and rate to result text
+        KEYSTROKE,         // Keystroke to live result on screen, including the wait for the frame
+        HISTORY_PERSIST,   // One write-behind flush
+        CURRENCY_BIND, HISTORY_BIND, BOARD_BIND,
+        FLAG_LOAD,         // Atlas draw set up, or Glide request to image ready
+        STARTUP,           // Process start to the first frame with rates on it
+        WIDGET_UPDATE      // Home-screen widget redrawn from local rates
+    }
+
+    public enum Counter {
+        RATE_CACHE_HIT,    // Fresh rates served without a fetch
+        RATE_CACHE_STALE,  // Stale rates served while fetching
+        RATE_CACHE_MISS,   // Nothing cached, had to wait for the network
+        RATE_NOT_MODIFIED, // Background sync answered with a 304
+        RATE_FETCH_ERROR,
+        FLAG_ATLAS, FLAG_DOWNLOAD, FLAG_GLIDE_CACHE
+    }
+
+    static final int BUCKETS = 48; // Bucket b holds [2^(b-1), 2^b) ns, the last one everything from ~20 h up
+    private static final int SUM = BUCKETS, MAX = BUCKETS + 1;
+    private static final int STRIDE = BUCKETS + 2;
+
+    private static final PerfMetrics INSTANCE = new PerfMetrics();
+
+    private final AtomicLongArray timers = new AtomicLongArray(Timer.values().length * STRIDE);
+    private final AtomicLongArray fetches = new AtomicLongArray(CurrencyCodes.count() * STRIDE);
+    private final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+
+    PerfMetrics() {} // Tests use their own
+
+    public static PerfMetrics get() {
+        return INSTANCE;
+    }
+
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /** Records the time since {@code startNanos}, taken with {@link #now()}. */
+    public void record(Timer timer, long startNanos) {
+        recordNanos(timer, System.nanoTime() - startNanos);
+    }
+
+    public void recordNanos(Timer timer, long nanos) {
+        add(timers, timer.ordinal() * STRIDE, nanos);
+    }
+
+    /** A rate fetch for one base; also counts towards {@link Timer#RATE_FETCH}. */
+    public void recordFetch(String base, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        recordNanos(Timer.RATE_FETCH, nanos);
+        int ordinal = CurrencyCodes.ordinal(base);
+        if (ordinal >= 0) add(fetches, ordinal * STRIDE, nanos);
+    }
+
+    public void count(Counter counter) {
+        counters.incrementAndGet(counter.ordinal());
+    }
+
+    private static void add(AtomicLongArray array, int at, long nanos) {
+        if (nanos < 0) nanos = 0; // nanoTime is monotonic, but be safe with caller-made values
+        array.incrementAndGet(at + bucket(nanos));
+        array.addAndGet(at + SUM, nanos);
+        long max;
+        while (nanos > (max = array.get(at + MAX)) && !array.compareAndSet(at + MAX, max, nanos)) {
+            // Lost a race with another writer, retry against its value
+        }
+    }
+
+    static int bucket(long nanos) {
+        return Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (int i = 0; i < timers.length(); i++) timers.set(i, 0);
+        for (int i = 0; i < fetches.length(); i++) fetches.set(i, 0);
+        for (int i = 0; i < counters.length(); i++) counters.set(i, 0);
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /** A copy of everything recorded so far, for display and export. */
+    public static final class Snapshot {
+        private final long[] timers, fetches, counters;
+
+        private Snapshot(PerfMetrics metrics) {
+            timers = copy(metrics.timers);
+            fetches = copy(metrics.fetches);
+            counters = copy(metrics.counters);
+        }
+
+        private static long[] copy(AtomicLongArray array) {
+            long[] copy = new long[array.length()];
+            for (int i = 0; i < copy.length; i++) copy[i] = array.get(i);
+            return copy;
+        }
+
+        public long count(Counter counter) {
+            return counters[counter.ordinal()];
+        }
+
+        public long count(Timer timer) {
+            return count(timers, timer.ordinal() * STRIDE);
+        }
+
+        public long meanNanos(Timer timer) {
+            return mean(timers, timer.ordinal() * STRIDE);
+        }
+
+        public long maxNanos(Timer timer) {
+            return timers[timer.ordinal() * STRIDE + MAX];
+        }
+
+        /** Percentile (0-100), interpolated inside its power-of-two bucket; 0 when empty. */
+        public long percentileNanos(Timer timer, double percentile) {
+            return percentile(timers, timer.ordinal() * STRIDE, percentile);
+        }
+
+        public long fetchCount(int baseOrdinal) {
+            return count(fetches, baseOrdinal * STRIDE);
+        }
+
+        public long fetchMeanNanos(int baseOrdinal) {
+            return mean(fetches, baseOrdinal * STRIDE);
+        }
+
+        public long fetchPercentileNanos(int baseOrdinal, double percentile) {
+            return percentile(fetches, baseOrdinal * STRIDE, percentile);
+        }
+
+        private static long count(long[] array, int at) {
+            long count = 0;
+            for (int b = 0; b < BUCKETS; b++) count += array[at + b];
+            return count;
+        }
+
+        private static long mean(long[] array, int at) {
+            long count = count(array, at);
+            return count == 0 ? 0 : array[at + SUM] / count;
+        }
+
+        private static long percentile(long[] array, int at, double percentile) {
+            long count = count(array, at);
+            if (count == 0) return 0;
+            double rank = Math.max(1, Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                long inBucket = array[at + b];
+                if (seen + inBucket >= rank) {
+                    if (b == 0) return 0;
+                    long low = 1L << (b - 1), high = b == BUCKETS - 1 ? array[at + MAX] : (1L << b) - 1;
+                    long value = low + (long) ((high - low) * ((rank - seen) / inBucket));
+                    return Math.min(value, array[at + MAX]);
+                }
+                seen += inBucket;
+            }
+            return array[at + MAX];
+        }
+
+        /** One line per timer, busy base and counter, for the debug overlay. */
+        public String summary() {
+            StringBuilder out = new StringBuilder();
+            for (Timer timer : Timer.values()) {
+                if (count(timer) == 0) continue;
+                out.append(String.format(Locale.US, "%-15s %6d  p50 %8.3f  p95 %8.3f  max %8.3f ms%n", timer, count(timer),
+                        percentileNanos(timer, 50) / 1e6, percentileNanos(timer, 95) / 1e6, maxNanos(timer) / 1e6));
+            }
+            for (int base = 0; base < CurrencyCodes.count(); base++) {
+                if (fetchCount(base) == 0) continue;
+                out.append(String.format(Locale.US, "  fetch %s      %6d  p50 %8.3f  mean %7.3f ms%n", CurrencyCodes.code(base),
+                        fetchCount(base), fetchPercentileNanos(base, 50) / 1e6, fetchMeanNanos(base) / 1e6));
+            }
+            for (Counter counter : Counter.values()) {
+                out.append(String.format(Locale.US, "%-17s %6d%n", counter, count(counter)));
+            }
+            return out.toString();
+        }
+
+        /** CSV export: one row per timer and per base fetched, then the counters. */
+        public void writeCsv(Writer out) throws IOException {
+            out.write("metric,count,mean_ns,p50_ns,p95_ns,p99_ns,max_ns\n");
+            for (Timer timer : Timer.values()) {
+                int at = timer.ordinal() * STRIDE;
+                writeRow(out, timer.name().toLowerCase(Locale.ROOT), timers, at);
+            }
+            for (int base = 0; base < CurrencyCodes.count(); base++) {
+                if (fetchCount(base) > 0) writeRow(out, "rate_fetch_" + CurrencyCodes.code(base), fetches, base * STRIDE);
+            }
+            out.write("counter,value\n");
+            for (Counter counter : Counter.values()) {
+                out.write(counter.name().toLowerCase(Locale.ROOT) + "," + count(counter) + "\n");
+            }
+        }
+
+        private static void writeRow(Writer out, String name, long[] array, int at) throws IOException {
+            out.write(name + "," + count(array, at) + "," + mean(array, at) + "," + percentile(array, at, 50) + ","
+                    + percentile(array, at, 95) + "," + percentile(array, at, 99) + "," + array[at + MAX] + "\n");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.megaproject.currencyconverter;
+
+import android.app.Activity;
+import android.content.pm.ApplicationInfo;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Debug builds only: long-pressing the trigger view shows {@link PerfMetrics} over the
+ * activity, refreshed every second. Tapping the overlay exports a CSV to the app's external
+ * files dir (perf-<time>.csv, readable with adb without root); long-pressing it resets.
+ */
+public final class PerfOverlay {
+
+    private static final long REFRESH_MS = 1000;
+
+    private final Activity activity;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private TextView view;
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            if (view == null || activity.isDestroyed()) return;
+            view.setText(PerfMetrics.get().snapshot().summary());
+            handler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    private PerfOverlay(Activity activity) {
+        this.activity = activity;
+    }
+
+    /** Does nothing in release builds. */
+    public static void attach(Activity activity, View trigger) {
+        if ((activity.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0) return;
+        PerfOverlay overlay = new PerfOverlay(activity);
+        trigger.setOnLongClickListener(v -> {
+            overlay.toggle();
+            return true;
+        });
+    }
+
+    private void toggle() {
+        if (view == null) {
+            view = new TextView(activity);
+            view.setTypeface(Typeface.MONOSPACE);
+            view.setTextSize(9);
+            view.setTextColor(Color.WHITE);
+            view.setBackgroundColor(0xCC000000);
+            int padding = (int) (8 * activity.getResources().getDisplayMetrics().density);
+            view.setPadding(padding, padding, padding, padding);
+            view.setOnClickListener(v -> export());
+            view.setOnLongClickListener(v -> {
+                PerfMetrics.get().reset();
+                return true;
+            });
+            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM);
+            ((FrameLayout) activity.findViewById(android.R.id.content)).addView(view, params);
+            handler.post(refresh);
+        } else {
+            handler.removeCallbacks(refresh);
+            ((ViewGroup) view.getParent()).removeView(view);
+            view = null;
+        }
+    }
+
+    private void export() {
+        File dir = activity.getExternalFilesDir(null);
+        if (dir == null) dir = activity.getFilesDir();
+        File file = new File(dir, "perf-" + System.currentTimeMillis() + ".csv");
+        try (Writer out = new FileWriter(file)) { // A few KB, fine on the main thread in a debug tool
+            PerfMetrics.get().snapshot().writeCsv(out);
+            Toast.makeText(activity, "Saved " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            e.printStackTrace();
+            Toast.makeText(activity, "Export failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.megaproject.currencyconverter;
+
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks {@link RateAlertRule}s against each new rate table. Rules are grouped by pair, each
+ * group keeps its thresholds sorted and the groups are indexed by both currencies. A refresh
+ * starts from the currencies its {@link RateSnapshots.Changes} say moved, looks only at the
+ * pairs with one of them, and finds the rules each crossed with a binary search:
+ * O(changed pairs × log rules), however many rules and pairs there are.
+ *
+ * ABOVE and BELOW fire when the rate crosses the threshold between two refreshes (or, for a
+ * pair seen for the first time, when it is already past it). MOVE fires when the rate is at
+ * least that many percent from the day before, once per day. The last rate of each pair is
+ * part of the state, so a restart doesn't fire the same crossing again. Not thread-safe.
+ */
+public final class RateAlertEngine {
+
+    /** The rate of a pair on the closest day on or before the given one, NaN if unknown. */
+    public interface DayRates {
+        double rate(int from, int to, int epochDay);
+    }
+
+    public static final class Alert {
+        public final RateAlertRule rule;
+        public final double rate;
+        public final double reference; // The rate crossed from, or the day before's for MOVE
+
+        Alert(RateAlertRule rule, double rate, double reference) {
+            this.rule = rule;
+            this.rate = rate;
+            this.reference = reference;
+        }
+    }
+
+    // One pair's rules, each kind sorted by threshold with the thresholds alongside for searching
+    private static final class PairRules {
+        final int from, to;
+        final List<RateAlertRule> rules = new ArrayList<>();
+        RateAlertRule[] above, below, moves;
+        double[] aboveAt, belowAt, movesAt;
+        double lastRate = Double.NaN;
+        int round; // Last evaluate that looked at the pair, so one with both sides moved is done once
+
+        PairRules(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        void index() {
+            above = sorted(RateAlertRule.Kind.ABOVE);
+            below = sorted(RateAlertRule.Kind.BELOW);
+            moves = sorted(RateAlertRule.Kind.MOVE);
+            aboveAt = thresholds(above);
+            belowAt = thresholds(below);
+            movesAt = thresholds(moves);
+        }
+
+        private RateAlertRule[] sorted(RateAlertRule.Kind kind) {
+            List<RateAlertRule> matching = new ArrayList<>();
+            for (RateAlertRule rule : rules) {
+                if (rule.kind == kind) matching.add(rule);
+            }
+            RateAlertRule[] array = matching.toArray(new RateAlertRule[0]);
+            Arrays.sort(array, (a, b) -> Double.compare(a.threshold, b.threshold));
+            return array;
+        }
+
+        private static double[] thresholds(RateAlertRule[] rules) {
+            double[] at = new double[rules.length];
+            for (int i = 0; i < rules.length; i++) at[i] = rules[i].threshold;
+            return at;
+        }
+    }
+
+    // What gets persisted
+    private static final class State {
+        List<RateAlertRule> rules = new ArrayList<>();
+        Map<String, Double> lastRates = new HashMap<>(); // By "FROM/TO"
+        long nextId = 1;
+    }
+
+    private final Map<Integer, PairRules> pairs = new HashMap<>();
+    private final List<List<PairRules>> byCurrency = new ArrayList<>(); // By ordinal, either side; null for none
+    private int round;
+    private final Map<Long, RateAlertRule> byId = new LinkedHashMap<>();
+    private long nextId = 1;
+
+    public RateAlertEngine() {
+        for (int i = 0; i < CurrencyCodes.count(); i++) byCurrency.add(null);
+    }
+
+    /** Adds the rule and gives it an id. Returns false for an unknown currency or a bad threshold. */
+    public boolean add(RateAlertRule rule) {
+        int from = CurrencyCodes.ordinal(rule.fromCode), to = CurrencyCodes.ordinal(rule.toCode);
+        if (from < 0 || to < 0 || from == to || rule.kind == null || !(rule.threshold > 0)) return false;
+        if (rule.id < 0) rule.id = nextId;
+        nextId = Math.max(nextId, rule.id + 1);
+        byId.put(rule.id, rule);
+        PairRules pair = pairs.get(key(from, to));
+        if (pair == null) {
+            pair = new PairRules(from, to);
+            pairs.put(key(from, to), pair);
+            withCurrency(from).add(pair);
+            withCurrency(to).add(pair);
+        }
+        pair.rules.add(rule);
+        pair.index();
+        return true;
+    }
+
+    public boolean remove(long id) {
+        RateAlertRule rule = byId.remove(id);
+        if (rule == null) return false;
+        int key = key(CurrencyCodes.ordinal(rule.fromCode), CurrencyCodes.ordinal(rule.toCode));
+        PairRules pair = pairs.get(key);
+        pair.rules.remove(rule);
+        if (pair.rules.isEmpty()) {
+            pairs.remove(key);
+            byCurrency.get(pair.from).remove(pair);
+            byCurrency.get(pair.to).remove(pair);
+        } else {
+            pair.index();
+        }
+        return true;
+    }
+
+    private List<PairRules> withCurrency(int ordinal) {
+        List<PairRules> list = byCurrency.get(ordinal);
+        if (list == null) {
+            list = new ArrayList<>();
+            byCurrency.set(ordinal, list);
+        }
+        return list;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /** The pair's rules in the order they were added, or every rule if both codes are null. */
+    public List<RateAlertRule> rules(String fromCode, String toCode) {
+        if (fromCode == null && toCode == null) return new ArrayList<>(byId.values());
+        PairRules pair = pairs.get(key(CurrencyCodes.ordinal(fromCode), CurrencyCodes.ordinal(toCode)));
+        return pair != null ? new ArrayList<>(pair.rules) : new ArrayList<>();
+    }
+
+    /** True if a pair with rules is among the changes; if not, {@link #evaluate} would find nothing. */
+    public boolean watchesAny(RateSnapshots.Changes changes) {
+        for (int c = changes.nextMoved(0); c >= 0; c = changes.nextMoved(c + 1)) {
+            List<PairRules> withC = byCurrency.get(c);
+            if (withC == null) continue;
+            for (PairRules pair : withC) {
+                if (changes.contains(pair.from, pair.to)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the pairs with rules that {@code changes} touches (the changes that led to
+     * {@code table}) and returns the alerts to raise. Other pairs aren't looked at.
+     * {@code dayRates} may be null, then MOVE rules are skipped.
+     */
+    public List<Alert> evaluate(CrossRateTable table, RateSnapshots.Changes changes, int epochDay, DayRates dayRates) {
+        List<Alert> alerts = new ArrayList<>();
+        round++;
+        for (int c = changes.nextMoved(0); c >= 0; c = changes.nextMoved(c + 1)) {
+            List<PairRules> withC = byCurrency.get(c);
+            if (withC != null) {
+                for (PairRules pair : withC) evaluate(pair, table, epochDay, dayRates, alerts);
+            }
+        }
+        return alerts;
+    }
+
+    private void evaluate(PairRules pair, CrossRateTable table, int epochDay, DayRates dayRates, List<Alert> alerts) {
+        if (pair.round == round) return;
+        pair.round = round;
+        double rate = table.rate(pair.from, pair.to);
+        if (Double.isNaN(rate) || rate == pair.lastRate) return; // Unchanged pairs cost nothing more
+        double previous = pair.lastRate;
+        pair.lastRate = rate;
+
+        // Rising past ABOVE thresholds in (previous, rate]
+        if (pair.above.length > 0 && !(rate < previous)) {
+            int start = Double.isNaN(previous) ? 0 : upperBound(pair.aboveAt, previous);
+            int end = upperBound(pair.aboveAt, rate);
+            for (int i = start; i < end; i++) alerts.add(new Alert(pair.above[i], rate, previous));
+        }
+        // Falling past BELOW thresholds in [rate, previous)
+        if (pair.below.length > 0 && !(rate > previous)) {
+            int start = lowerBound(pair.belowAt, rate);
+            int end = Double.isNaN(previous) ? pair.belowAt.length : lowerBound(pair.belowAt, previous);
+            for (int i = start; i < end; i++) alerts.add(new Alert(pair.below[i], rate, previous));
+        }
+        if (pair.moves.length > 0 && dayRates != null) {
+            double dayBefore = dayRates.rate(pair.from, pair.to, epochDay - 1);
+            if (dayBefore > 0) {
+                double movePercent = Math.abs(rate / dayBefore - 1) * 100;
+                int end = upperBound(pair.movesAt, movePercent);
+                for (int i = 0; i < end; i++) {
+                    RateAlertRule rule = pair.moves[i];
+                    if (rule.firedOnDay == epochDay) continue;
+                    rule.firedOnDay = epochDay;
+                    alerts.add(new Alert(rule, rate, dayBefore));
+                }
+            }
+        }
+    }
+
+    // First index whose value is > x
+    private static int upperBound(double[] sorted, double x) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= x) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // First index whose value is >= x
+    private static int lowerBound(double[] sorted, double x) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < x) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int key(int from, int to) {
+        return from * CurrencyCodes.count() + to;
+    }
+
+    // --- Persistence ---
+
+    public String toJson() {
+        State state = new State();
+        state.rules.addAll(byId.values());
+        state.nextId = nextId;
+        for (PairRules pair : pairs.values()) {
+            if (!Double.isNaN(pair.lastRate)) {
+                state.lastRates.put(CurrencyCodes.code(pair.from) + "/" + CurrencyCodes.code(pair.to), pair.lastRate);
+            }
+        }
+        return new Gson().toJson(state);
+    }
+
+    /** Rules and last rates saved by {@link #toJson}; an empty engine for null or unreadable input. */
+    public static RateAlertEngine fromJson(String json) {
+        RateAlertEngine engine = new RateAlertEngine();
+        if (json == null) return engine;
+        State state;
+        try {
+            state = new Gson().fromJson(json, State.class);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return engine;
+        }
+        if (state == null) return engine;
+        if (state.rules != null) {
+            for (RateAlertRule rule : state.rules) engine.add(rule);
+        }
+        engine.nextId = Math.max(engine.nextId, state.nextId);
+        if (state.lastRates != null) {
+            for (PairRules pair : engine.pairs.values()) {
+                Double last = state.lastRates.get(CurrencyCodes.code(pair.from) + "/" + CurrencyCodes.code(pair.to));
+                if (last != null) pair.lastRate = last;
+            }
+        }
+        return engine;
+    }
+}
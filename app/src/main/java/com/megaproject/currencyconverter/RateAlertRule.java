@@ -0,0 +1,33 @@
+package com.megaproject.currencyconverter;
+
+public class RateAlertRule {
+
+    public enum Kind {
+        ABOVE, // Rate rises to or above the threshold
+        BELOW, // Rate falls to or below the threshold
+        MOVE   // Rate is at least threshold percent away from the day before, either way
+    }
+
+    public long id = -1; // Assigned by RateAlertEngine.add
+    public String fromCode;
+    public String toCode;
+    public Kind kind;
+    public double threshold;
+    public int firedOnDay = Integer.MIN_VALUE; // MOVE rules fire at most once per epoch day
+
+    public RateAlertRule(String fromCode, String toCode, Kind kind, double threshold) {
+        this.fromCode = fromCode;
+        this.toCode = toCode;
+        this.kind = kind;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case ABOVE: return fromCode + "/" + toCode + " above " + threshold;
+            case BELOW: return fromCode + "/" + toCode + " below " + threshold;
+            default: return fromCode + "/" + toCode + " moves " + threshold + "% in a day";
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.megaproject.currencyconverter;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Looper;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The app's {@link RateAlertEngine}: rules are kept in prefs, checked against every new rate
+ * snapshot (fetched in the foreground or background) and raised as notifications. Snapshots
+ * that change none of the pairs with rules are skipped without loading anything. Thread-safe.
+ */
+public class RateAlerts implements RateSnapshots.Listener {
+
+    private static final String CHANNEL_ID = "rate_alerts";
+    private static final String PREF_ALERT_STATE = "rate_alert_state";
+
+    private final Context context;
+    private final RateHistoryStore history;
+    private RateAlertEngine engine; // Loaded on first use
+    private long lastVersion; // Newest snapshot evaluated, older ones arriving late are dropped
+    // Fetches publish on the main thread; prefs and history reads don't belong there
+    private final Executor executor = Executors.newSingleThreadExecutor();
+
+    public RateAlerts(Context context, RateHistoryStore history) {
+        this.context = context.getApplicationContext();
+        this.history = history;
+    }
+
+    public synchronized boolean add(RateAlertRule rule) {
+        if (!engine().add(rule)) return false;
+        save();
+        return true;
+    }
+
+    public synchronized void removeAll(String fromCode, String toCode) {
+        for (RateAlertRule rule : engine().rules(fromCode, toCode)) engine.remove(rule.id);
+        save();
+    }
+
+    public synchronized List<RateAlertRule> rules(String fromCode, String toCode) {
+        return engine().rules(fromCode, toCode);
+    }
+
+    @Override
+    public void onSnapshot(RateSnapshots.Snapshot snapshot, RateSnapshots.Changes changes) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            executor.execute(() -> evaluate(snapshot, changes));
+        } else {
+            evaluate(snapshot, changes); // A background sync: done before the job returns
+        }
+    }
+
+    private void evaluate(RateSnapshots.Snapshot snapshot, RateSnapshots.Changes changes) {
+        List<RateAlertEngine.Alert> alerts;
+        synchronized (this) {
+            if (snapshot.version <= lastVersion) return;
+            lastVersion = snapshot.version;
+            if (engine().size() == 0 || !engine.watchesAny(changes)) return;
+            int day = RateHistoryStore.epochDay(snapshot.table.getDate());
+            if (day == Integer.MIN_VALUE) day = RateHistoryStore.epochDay(snapshot.fetchedAt);
+            // MOVE rules compare with the day before, which the history has whether or not today is in yet
+            alerts = engine.evaluate(snapshot.table, changes, day, history::rate);
+            save(); // Last rates too, so a restart doesn't repeat these
+        }
+        for (RateAlertEngine.Alert alert : alerts) notify(alert);
+    }
+
+    private RateAlertEngine engine() {
+        if (engine == null) engine = RateAlertEngine.fromJson(prefs().getString(PREF_ALERT_STATE, null));
+        return engine;
+    }
+
+    private void save() {
+        prefs().edit().putString(PREF_ALERT_STATE, engine.toJson()).apply();
+    }
+
+    private SharedPreferences prefs() {
+        return context.getSharedPreferences("CurrencyPrefs", Context.MODE_PRIVATE);
+    }
+
+    private void notify(RateAlertEngine.Alert alert) {
+        NotificationManagerCompat manager = NotificationManagerCompat.from(context);
+        if (!manager.areNotificationsEnabled()) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            manager.createNotificationChannel(new NotificationChannel(CHANNEL_ID, "Rate alerts", NotificationManager.IMPORTANCE_DEFAULT));
+        }
+        RateAlertRule rule = alert.rule;
+        String text = String.format(Locale.getDefault(), "1 %s = %.4f %s", rule.fromCode, alert.rate, rule.toCode);
+        if (!Double.isNaN(alert.reference)) {
+            text += String.format(Locale.getDefault(), rule.kind == RateAlertRule.Kind.MOVE ? " (%.4f the day before)" : " (was %.4f)", alert.reference);
+        }
+        Intent intent = new Intent(context, MainActivity.class).addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent open = PendingIntent.getActivity(context, 0, intent, PendingIntent.FLAG_IMMUTABLE);
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_currency_exchange)
+                .setContentTitle(rule.toString())
+                .setContentText(text)
+                .setContentIntent(open)
+                .setAutoCancel(true);
+        try {
+            manager.notify((int) rule.id, builder.build()); // One per rule, a repeat replaces it
+        } catch (SecurityException e) {
+            e.printStackTrace(); // Permission revoked in between
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.megaproject.currencyconverter;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.Arrays;
+
+/**
+ * Line chart of one pair over the last N days. The series is decimated to about one
+ * {@link ChartSeries} bucket per pixel, and the path is built in data coordinates (days, rate)
+ * and mapped to the screen with a matrix at draw time. A new snapshot therefore only extends
+ * the path (or just moves the open end), and scrolling the window or rescaling the y axis is a
+ * matrix change; the path is rebuilt only when the range, pair or width changes.
+ */
+public class RateChartView extends View {
+
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint dotPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path dataPath = new Path();   // Closed buckets, only ever extended
+    private int pathPoints;
+    private final Path tailPath = new Path();   // Last closed point through the open bucket
+    private final Path screenPath = new Path(); // Scratch for the transformed paths
+    private final Matrix toScreen = new Matrix();
+    private final float[] open = new float[8];
+    private final float[] yRange = new float[2];
+    private final float[] lastPoint = new float[2];
+
+    private int rangeDays = 30;
+    private ChartSeries series;
+
+    // Raw points, kept so the series can be rebucketed when the width changes
+    private int[] days = new int[0];
+    private double[] rates = new double[0];
+    private int size;
+
+    public RateChartView(Context context) {
+        this(context, null);
+    }
+
+    public RateChartView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(2 * density);
+        linePaint.setStrokeJoin(Paint.Join.ROUND);
+        linePaint.setStrokeCap(Paint.Cap.ROUND);
+        linePaint.setColor(ContextCompat.getColor(context, R.color.primary));
+        dotPaint.setColor(ContextCompat.getColor(context, R.color.primary));
+    }
+
+    /** Replaces the data (days ascending) and shows the last {@code rangeDays} of it. */
+    public void setSeries(int[] days, double[] rates, int size, int rangeDays) {
+        this.days = Arrays.copyOf(days, Math.max(size, 16));
+        this.rates = Arrays.copyOf(rates, Math.max(size, 16));
+        this.size = size;
+        this.rangeDays = Math.max(1, rangeDays);
+        rebuild();
+    }
+
+    /** Adds (or, for the newest day, replaces) one snapshot without rebuilding the chart. */
+    public void append(int day, double rate) {
+        if (size > 0 && day < days[size - 1]) return;
+        if (size > 0 && day == days[size - 1]) {
+            rates[size - 1] = rate;
+        } else {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, Math.max(16, size * 2));
+                rates = Arrays.copyOf(rates, Math.max(16, size * 2));
+            }
+            days[size] = day;
+            rates[size++] = rate;
+        }
+        if (series == null) {
+            rebuild();
+            return;
+        }
+        series.add(day, rate);
+        extendPath();
+        invalidate();
+    }
+
+    public void clear() {
+        size = 0;
+        rebuild();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (w != oldw) rebuild();
+    }
+
+    private int chartWidth() {
+        return getWidth() - getPaddingLeft() - getPaddingRight();
+    }
+
+    private void rebuild() {
+        dataPath.rewind();
+        pathPoints = 0;
+        series = null;
+        if (chartWidth() > 0 && size > 0) {
+            series = new ChartSeries(ChartSeries.bucketDaysFor(rangeDays, chartWidth()));
+            // Only the visible range (plus the bucket it starts in) needs to be bucketed
+            int first = days[size - 1] - rangeDays - series.getBucketDays();
+            int start = Arrays.binarySearch(days, 0, size, first);
+            for (int i = start >= 0 ? start : -start - 1; i < size; i++) series.add(days[i], rates[i]);
+            extendPath();
+        }
+        invalidate();
+    }
+
+    private void extendPath() {
+        int count = series.pointCount();
+        for (int i = pathPoints; i < count; i++) {
+            if (i == 0) {
+                dataPath.moveTo(series.x(i), series.y(i));
+            } else {
+                dataPath.lineTo(series.x(i), series.y(i));
+            }
+        }
+        pathPoints = count;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (series == null || series.isEmpty()) return;
+        int lastDay = series.lastDay();
+        int firstDay = lastDay - rangeDays + 1;
+        if (!series.range(firstDay, lastDay, yRange)) return;
+
+        // Data space to pixels: the window's days across, the visible min/max top to bottom
+        float inset = linePaint.getStrokeWidth() * 2;
+        float left = getPaddingLeft() + inset, right = getWidth() - getPaddingRight() - inset;
+        float top = getPaddingTop() + inset, bottom = getHeight() - getPaddingBottom() - inset;
+        float spread = yRange[1] - yRange[0];
+        if (spread <= 0) spread = Math.max(yRange[1] * 0.01f, 1e-6f); // Flat line sits mid-height
+        float mid = (yRange[0] + yRange[1]) / 2;
+        float sx = (right - left) / Math.max(1, rangeDays - 1);
+        float sy = (bottom - top) / spread;
+        toScreen.setTranslate(-(firstDay - series.getOriginDay()), -mid);
+        toScreen.postScale(sx, -sy);
+        toScreen.postTranslate(left, (top + bottom) / 2);
+
+        canvas.save();
+        canvas.clipRect(getPaddingLeft(), getPaddingTop(), getWidth() - getPaddingRight(), getHeight() - getPaddingBottom());
+        dataPath.transform(toScreen, screenPath);
+        canvas.drawPath(screenPath, linePaint);
+
+        tailPath.rewind();
+        int closed = series.pointCount();
+        int openCount = series.openPoints(open);
+        if (closed > 0) {
+            tailPath.moveTo(series.x(closed - 1), series.y(closed - 1));
+        } else {
+            tailPath.moveTo(open[0], open[1]);
+        }
+        for (int i = 0; i < openCount; i++) tailPath.lineTo(open[i * 2], open[i * 2 + 1]);
+        tailPath.transform(toScreen, screenPath);
+        canvas.drawPath(screenPath, linePaint);
+
+        if (openCount > 0) {
+            lastPoint[0] = open[openCount * 2 - 2];
+            lastPoint[1] = open[openCount * 2 - 1];
+        } else {
+            lastPoint[0] = series.x(closed - 1);
+            lastPoint[1] = series.y(closed - 1);
+        }
+        toScreen.mapPoints(lastPoint);
+        canvas.drawCircle(lastPoint[0], lastPoint[1], linePaint.getStrokeWidth() * 2, dotPaint);
+        canvas.restore();
+    }
+}
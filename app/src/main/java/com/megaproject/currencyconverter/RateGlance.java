@@ -0,0 +1,102 @@
+package com.megaproject.currencyconverter;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * What the home-screen widget and the quick-settings tile show: the rate from the last base
+ * into the first few board pins, formatted once. Two glances with the same rows differ only in
+ * their values, which is what lets the widget send a partial update. Immutable.
+ */
+public final class RateGlance {
+
+    public static final int MAX_ROWS = 4;
+
+    private final String base;
+    private final String date;      // Of the table the values come from, null without one
+    private final int[] ordinals;
+    private final String[] values;  // Null where the table has no rate
+    private final int size;
+
+    private RateGlance(String base, String date, int[] ordinals, String[] values, int size) {
+        this.base = base;
+        this.date = date;
+        this.ordinals = ordinals;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Rows for the pins (comma separated codes, as the board stores them) against the base,
+     * with values from the table. The table may be null, then every row shows no rate.
+     */
+    public static RateGlance of(CrossRateTable table, String base, String pins, Locale locale) {
+        int from = CurrencyCodes.ordinal(base);
+        int[] ordinals = new int[MAX_ROWS];
+        String[] values = new String[MAX_ROWS];
+        int size = 0;
+        MoneyFormatter formatter = new MoneyFormatter(locale);
+        StringBuilder text = new StringBuilder(24);
+        int start = 0;
+        while (pins != null && start < pins.length() && size < MAX_ROWS) {
+            int end = pins.indexOf(',', start);
+            if (end < 0) end = pins.length();
+            int to = end - start == 3 ? CurrencyCodes.ordinal(pins.charAt(start), pins.charAt(start + 1), pins.charAt(start + 2)) : -1;
+            start = end + 1;
+            if (to < 0 || to == from) continue;
+            ordinals[size] = to;
+            double rate = table != null ? table.rate(from, to) : Double.NaN;
+            if (!Double.isNaN(rate)) {
+                text.setLength(0);
+                formatter.appendDecimal(text, MoneyFormatter.rescale(MoneyFormatter.scaleRate(rate), MoneyFormatter.RATE_SCALE, 4), 4, true);
+                values[size] = text.toString();
+            }
+            size++;
+        }
+        return new RateGlance(base, table != null ? table.getDate() : null, ordinals, values, size);
+    }
+
+    public String base() {
+        return base;
+    }
+
+    public String date() {
+        return date;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String code(int row) {
+        return CurrencyCodes.code(ordinals[row]);
+    }
+
+    /** The formatted rate, or null if there is none. */
+    public String value(int row) {
+        return values[row];
+    }
+
+    /** True if both show the same pairs in the same order, so only values can differ. */
+    public boolean sameRows(RateGlance other) {
+        if (other == null || other.size != size || !other.base.equals(base)) return false;
+        for (int row = 0; row < size; row++) {
+            if (other.ordinals[row] != ordinals[row]) return false;
+        }
+        return true;
+    }
+
+    /** For glances with {@link #sameRows}: whether the row's value differs from the other's. */
+    public boolean valueChanged(RateGlance other, int row) {
+        return !Objects.equals(values[row], other.values[row]);
+    }
+
+    /** True if a snapshot with these changes moves any pair shown. */
+    public boolean affectedBy(RateSnapshots.Changes changes) {
+        int from = CurrencyCodes.ordinal(base);
+        for (int row = 0; row < size; row++) {
+            if (changes.contains(from, ordinals[row])) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,231 @@
+package com.megaproject.currencyconverter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Every rate table the app has fetched, one snapshot per day per base, so past rates can be
+ * looked up and charted without going back to the network. Each base is a
+ * {@link RateTimeSeries} in its own file ({@code <BASE>.rts}), loaded on first use and rewritten
+ * whole when a day is added; even years of data are only a few hundred KB.
+ *
+ * Any base's snapshot gives every pair, so lookups use whichever base has the most days in the
+ * requested range. Days are epoch days (UTC). Thread-safe.
+ */
+public class RateHistoryStore {
+
+    /** A pair's rate per stored day, oldest first. */
+    public static final class Series {
+        public final int[] days;
+        public final double[] rates;
+        public final int size;
+
+        Series(int[] days, double[] rates, int size) {
+            this.days = days;
+            this.rates = rates;
+            this.size = size;
+        }
+    }
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private final File dir;
+    private RateTimeSeries[] series; // By base ordinal, null until loaded
+
+    public RateHistoryStore(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Records a fetched table as the snapshot for its date (the fetch day if it has none).
+     * Returns false if it was older than what is already stored for that base.
+     */
+    public synchronized boolean record(ExchangeRateResponse response, long fetchedAtMillis) throws IOException {
+        int base = CurrencyCodes.ordinal(response.base);
+        if (base < 0 || !response.hasRates()) return false;
+        int day = response.date != null ? epochDay(response.date) : Integer.MIN_VALUE;
+        if (day == Integer.MIN_VALUE) day = epochDay(fetchedAtMillis);
+
+        double[] perBase = new double[CurrencyCodes.count()];
+        for (int i = 0; i < perBase.length; i++) perBase[i] = response.getRate(i);
+
+        RateTimeSeries[] all = loaded();
+        if (all[base] == null) all[base] = new RateTimeSeries(base);
+        if (!all[base].add(day, perBase)) return false;
+        save(all[base]);
+        return true;
+    }
+
+    /** Rate for the pair on the given day, or the closest earlier day stored. NaN if none. */
+    public synchronized double rate(int from, int to, int epochDay) {
+        RateTimeSeries best = null;
+        int bestIndex = -1;
+        for (RateTimeSeries s : loaded()) {
+            if (s == null) continue;
+            int index = s.indexAtOrBefore(epochDay);
+            if (index >= 0 && !Double.isNaN(s.rateAt(index, from, to))
+                    && (best == null || s.day(index) > best.day(bestIndex))) {
+                best = s;
+                bestIndex = index;
+            }
+        }
+        return best != null ? best.rateAt(bestIndex, from, to) : Double.NaN;
+    }
+
+    public double rate(String from, String to, String isoDate) {
+        return rate(CurrencyCodes.ordinal(from), CurrencyCodes.ordinal(to), epochDay(isoDate));
+    }
+
+    /** The pair over [firstDay, lastDay], one point per stored day (NaN where not quoted). */
+    public synchronized Series range(int from, int to, int firstDay, int lastDay) {
+        RateTimeSeries best = null;
+        int bestStart = 0, bestEnd = 0;
+        for (RateTimeSeries s : loaded()) {
+            if (s == null) continue;
+            int start = s.indexAtOrBefore(firstDay - 1) + 1;
+            int end = s.indexAtOrBefore(lastDay) + 1;
+            if (best == null || end - start > bestEnd - bestStart) {
+                best = s;
+                bestStart = start;
+                bestEnd = end;
+            }
+        }
+        int size = best != null ? Math.max(0, bestEnd - bestStart) : 0;
+        int[] days = new int[size];
+        double[] rates = new double[size];
+        for (int i = 0; i < size; i++) days[i] = best.day(bestStart + i);
+        if (size > 0) best.ratesBetween(bestStart, bestEnd, from, to, rates, 0);
+        return new Series(days, rates, size);
+    }
+
+    /** The last {@code days} days up to and including the newest snapshot of any base. */
+    public synchronized Series lastDays(int from, int to, int days) {
+        int newest = Integer.MIN_VALUE;
+        for (RateTimeSeries s : loaded()) {
+            if (s != null) newest = Math.max(newest, s.lastDay());
+        }
+        if (newest == Integer.MIN_VALUE) return new Series(new int[0], new double[0], 0);
+        return range(from, to, newest - days + 1, newest);
+    }
+
+    /** A full table for the day (or the closest earlier one) within {@code maxAgeDays}, or null. */
+    public synchronized CrossRateTable tableOn(int epochDay, int maxAgeDays) {
+        RateTimeSeries best = null;
+        int bestIndex = -1;
+        for (RateTimeSeries s : loaded()) {
+            if (s == null) continue;
+            int index = s.indexAtOrBefore(epochDay);
+            if (index >= 0 && epochDay - s.day(index) <= maxAgeDays
+                    && (best == null || s.day(index) > best.day(bestIndex))) {
+                best = s;
+                bestIndex = index;
+            }
+        }
+        if (best == null) return null;
+        double[] perBase = new double[CurrencyCodes.count()];
+        best.snapshotAt(bestIndex, perBase);
+        return new CrossRateTable(best.getBaseOrdinal(), isoDate(best.day(bestIndex)), perBase);
+    }
+
+    /** Bytes on disk for all bases. */
+    public synchronized long sizeOnDisk() {
+        long size = 0;
+        for (RateTimeSeries s : loaded()) {
+            if (s != null) size += fileFor(s.getBaseOrdinal()).length();
+        }
+        return size;
+    }
+
+    private RateTimeSeries[] loaded() {
+        if (series != null) return series;
+        series = new RateTimeSeries[CurrencyCodes.count()];
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".rts"));
+        if (files == null) return series;
+        for (File file : files) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                RateTimeSeries s = RateTimeSeries.read(in);
+                series[s.getBaseOrdinal()] = s;
+            } catch (IOException e) {
+                // Corrupt file, start that base over rather than failing every lookup
+                e.printStackTrace();
+            }
+        }
+        return series;
+    }
+
+    private File fileFor(int base) {
+        return new File(dir, CurrencyCodes.code(base) + ".rts");
+    }
+
+    private void save(RateTimeSeries s) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        File file = fileFor(s.getBaseOrdinal());
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            s.write(out);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    // --- Dates (java.time needs API 26) ---
+
+    /** Epoch day of a "yyyy-MM-dd" date, Integer.MIN_VALUE if it isn't one. */
+    public static int epochDay(String isoDate) {
+        if (isoDate == null || isoDate.length() < 10 || isoDate.charAt(4) != '-' || isoDate.charAt(7) != '-') {
+            return Integer.MIN_VALUE;
+        }
+        int year = digits(isoDate, 0, 4), month = digits(isoDate, 5, 7), day = digits(isoDate, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) return Integer.MIN_VALUE;
+        // Days from civil, proleptic Gregorian
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    public static int epochDay(long epochMillis) {
+        return (int) Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+    }
+
+    public static String isoDate(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        char[] out = {
+                (char) ('0' + year / 1000 % 10), (char) ('0' + year / 100 % 10), (char) ('0' + year / 10 % 10), (char) ('0' + year % 10), '-',
+                (char) ('0' + month / 10), (char) ('0' + month % 10), '-',
+                (char) ('0' + day / 10), (char) ('0' + day % 10)
+        };
+        return new String(out);
+    }
+
+    private static int digits(String s, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,277 @@
+package com.megaproject.currencyconverter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Hand-rolled reader for the exchange-rate payload. It scans the JSON straight out of a reused
+ * char buffer and writes each rate into a double[] by {@link CurrencyCodes} ordinal, so the
+ * ~160 entries don't cost a String key and a boxed Double each like the Gson path does. The
+ * only allocations per payload are the rate array and the date string.
+ *
+ * Fields other than base, date and rates are skipped. Not thread-safe, keep one per thread.
+ */
+public final class RatePayloadParser {
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final char[] buf = new char[8192];
+    private final char[] token = new char[64]; // Scratch space for keys and numbers
+    private Reader in;
+    private int pos;
+    private int limit;
+
+    public ExchangeRateResponse parse(Reader reader) throws IOException {
+        in = reader;
+        pos = 0;
+        limit = 0;
+        try {
+            ExchangeRateResponse response = new ExchangeRateResponse();
+            double[] table = new double[CurrencyCodes.count()];
+            Arrays.fill(table, Double.NaN);
+
+            expect('{');
+            if (peekSkipWs() == '}') {
+                pos++;
+            } else {
+                do {
+                    int len = readString(token);
+                    expect(':');
+                    if (matches(len, "base")) {
+                        int n = readString(token);
+                        int ordinal = n == 3 ? CurrencyCodes.ordinal(token[0], token[1], token[2]) : -1;
+                        response.base = ordinal >= 0 ? CurrencyCodes.code(ordinal) : new String(token, 0, n);
+                    } else if (matches(len, "date")) {
+                        int n = readString(token);
+                        response.date = new String(token, 0, n);
+                    } else if (matches(len, "rates")) {
+                        readRates(table);
+                    } else {
+                        skipValue();
+                    }
+                } while (nextMember('}'));
+            }
+            response.table = table;
+            int base = CurrencyCodes.ordinal(response.base);
+            if (base >= 0) table[base] = 1.0;
+            return response;
+        } finally {
+            in = null;
+        }
+    }
+
+    private void readRates(double[] table) throws IOException {
+        expect('{');
+        if (peekSkipWs() == '}') {
+            pos++;
+            return;
+        }
+        do {
+            int len = readString(token);
+            int ordinal = len == 3 ? CurrencyCodes.ordinal(token[0], token[1], token[2]) : -1;
+            expect(':');
+            if (ordinal >= 0) {
+                table[ordinal] = readNumber();
+            } else {
+                skipValue(); // Code we don't know yet
+            }
+        } while (nextMember('}'));
+    }
+
+    /**
+     * Writes the payload shape the API returns (base, date, rates) so cached files can be read
+     * back with {@link #parse}.
+     */
+    public static void write(ExchangeRateResponse response, Writer out) throws IOException {
+        out.write("{\"base\":\"");
+        out.write(response.base);
+        out.write("\",\"date\":\"");
+        out.write(response.date != null ? response.date : "");
+        out.write("\",\"rates\":{");
+        boolean first = true;
+        for (int i = 0; i < CurrencyCodes.count(); i++) {
+            double rate = response.getRate(i);
+            if (!(rate > 0)) continue;
+            if (!first) out.write(',');
+            first = false;
+            out.write('"');
+            out.write(CurrencyCodes.code(i));
+            out.write("\":");
+            out.write(Double.toString(rate));
+        }
+        out.write("}}");
+    }
+
+    // --- Scanning ---
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private char next() throws IOException {
+        if (pos >= limit && !fill()) throw new IOException("Unexpected end of rate payload");
+        return buf[pos++];
+    }
+
+    private char peekSkipWs() throws IOException {
+        while (true) {
+            if (pos >= limit && !fill()) throw new IOException("Unexpected end of rate payload");
+            char c = buf[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private void expect(char c) throws IOException {
+        char actual = peekSkipWs();
+        if (actual != c) throw new IOException("Expected '" + c + "' but found '" + actual + "'");
+        pos++;
+    }
+
+    // After a member: true if a ',' follows, false at the closing bracket
+    private boolean nextMember(char close) throws IOException {
+        char c = peekSkipWs();
+        pos++;
+        if (c == ',') return true;
+        if (c == close) return false;
+        throw new IOException("Unexpected '" + c + "' in rate payload");
+    }
+
+    private boolean matches(int len, String name) {
+        if (len != name.length()) return false;
+        for (int i = 0; i < len; i++) {
+            if (token[i] != name.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // Reads a string into out and returns its length; characters past out's size are dropped
+    private int readString(char[] out) throws IOException {
+        expect('"');
+        int len = 0;
+        while (true) {
+            char c = next();
+            if (c == '"') return len;
+            if (c == '\\') {
+                c = next();
+                if (c == 'u') {
+                    c = (char) Integer.parseInt(String.valueOf(new char[]{next(), next(), next(), next()}), 16);
+                } else if (c == 'n') {
+                    c = '\n';
+                } else if (c == 't') {
+                    c = '\t';
+                }
+            }
+            if (len < out.length) out[len] = c;
+            len++;
+        }
+    }
+
+    private double readNumber() throws IOException {
+        peekSkipWs();
+        int len = 0;
+        while (true) {
+            if (pos >= limit && !fill()) break;
+            char c = buf[pos];
+            if ((c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E') {
+                if (len == token.length) throw new IOException("Number too long in rate payload");
+                token[len++] = c;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (len == 0) {
+            skipValue(); // null or something else we can't use
+            return Double.NaN;
+        }
+        return parseDouble(token, len);
+    }
+
+    /**
+     * Exact for up to 15 significant digits and a power of ten within 10^22 (the values the API
+     * sends), since both operands are then exact doubles and one division rounds correctly.
+     * Anything else goes through Double.parseDouble.
+     */
+    static double parseDouble(char[] s, int len) {
+        int i = 0;
+        boolean negative = false;
+        if (s[0] == '-') {
+            negative = true;
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        for (; i < len; i++) {
+            char c = s[i];
+            if (c >= '0' && c <= '9') {
+                if (mantissa == 0 && c == '0') {
+                    if (dot) scale++;
+                    continue; // Leading zeros are not significant
+                }
+                if (++digits > 15) return Double.parseDouble(new String(s, 0, len));
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) scale++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                // Exponent or anything unusual
+                return Double.parseDouble(new String(s, 0, len));
+            }
+        }
+        if (scale > 22) return Double.parseDouble(new String(s, 0, len));
+        double value = mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    private void skipValue() throws IOException {
+        char c = peekSkipWs();
+        if (c == '"') {
+            expect('"');
+            while (true) {
+                char s = next();
+                if (s == '\\') next();
+                else if (s == '"') return;
+            }
+        } else if (c == '{' || c == '[') {
+            pos++;
+            int depth = 1;
+            boolean inString = false;
+            while (depth > 0) {
+                char s = next();
+                if (inString) {
+                    if (s == '\\') next();
+                    else if (s == '"') inString = false;
+                } else if (s == '"') {
+                    inString = true;
+                } else if (s == '{' || s == '[') {
+                    depth++;
+                } else if (s == '}' || s == ']') {
+                    depth--;
+                }
+            }
+        } else {
+            // Number, true, false or null
+            while (true) {
+                if (pos >= limit && !fill()) return;
+                char s = buf[pos];
+                if (s == ',' || s == '}' || s == ']' || s == ' ' || s == '\n' || s == '\r' || s == '\t') return;
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.megaproject.currencyconverter;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the rate tables for the recently used bases fresh in the background, so opening the app
+ * finds rates within the TTL instead of waiting on the network. Runs about once per TTL, only on
+ * an unmetered network while charging. Requests are conditional, so an unchanged table costs a
+ * 304. A failed run is retried with exponential backoff.
+ */
+public class RatePrefetchWorker extends Worker {
+
+    private static final String UNIQUE_NAME = "rate_prefetch";
+    private static final String PREF_RECENT_BASES = "recent_bases";
+    private static final long FLEX_MILLIS = 15 * 60 * 1000L;  // Run in the last quarter hour of each period
+    private static final long BACKOFF_SECONDS = 30;
+    private static final int MAX_ATTEMPTS = 5;                // Then wait for the next period
+
+    public RatePrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Schedules the periodic prefetch, keeping the existing schedule if there is one. */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(RatePrefetchWorker.class,
+                RateRepository.DEFAULT_TTL_MILLIS, TimeUnit.MILLISECONDS, FLEX_MILLIS, TimeUnit.MILLISECONDS)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(UNIQUE_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /** Records a base the user switched to, so it is among the ones prefetched. */
+    public static void noteBase(Context context, String base) {
+        SharedPreferences prefs = context.getSharedPreferences("CurrencyPrefs", Context.MODE_PRIVATE);
+        RecentBases recent = RecentBases.fromString(prefs.getString(PREF_RECENT_BASES, null));
+        if (recent.touch(base)) prefs.edit().putString(PREF_RECENT_BASES, recent.toString()).apply();
+    }
+
+    /** The base the user switched to last, or the app's start base. */
+    public static String lastBase(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences("CurrencyPrefs", Context.MODE_PRIVATE);
+        List<String> recent = RecentBases.fromString(prefs.getString(PREF_RECENT_BASES, null)).list();
+        return recent.isEmpty() ? MainActivity.START_BASE : recent.get(0);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        SharedPreferences prefs = context.getSharedPreferences("CurrencyPrefs", Context.MODE_PRIVATE);
+        RecentBases recent = RecentBases.fromString(prefs.getString(PREF_RECENT_BASES, "USD"));
+        RateRepository repository = RateServices.get(context).repository;
+
+        boolean failed = false;
+        for (String base : recent.list()) {
+            if (isStopped()) return Result.retry(); // Constraints lost, finish the rest later
+            try {
+                repository.syncNow(base);
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                failed = true; // Still try the other bases
+            }
+        }
+        if (!failed) return Result.success();
+        return getRunAttemptCount() < MAX_ATTEMPTS ? Result.retry() : Result.failure();
+    }
+}
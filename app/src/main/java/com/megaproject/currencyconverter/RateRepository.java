@@ -0,0 +1,354 @@
+package com.megaproject.currencyconverter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import okhttp3.Headers;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Sits between the screens and {@link CurrencyApiService}. The last response for every base
+ * currency is kept in memory and on disk, so cached rates are handed back straight away (even
+ * after a restart) and the network is only hit once they are older than the TTL. If that
+ * refresh fails the stale copy keeps being served.
+ *
+ * Concurrent requests for the same base share one call. Asking for a different base cancels
+ * the calls for the old one, and a response is only handed out while its base is still the
+ * one asked for last, so a slow reply can't overwrite newer rates.
+ *
+ * Callbacks arrive on whatever thread Retrofit delivers on (the main thread on Android).
+ * {@link #syncNow} is for background jobs and may run on any thread alongside them. Every table
+ * read from disk or fetched is also published to {@link #snapshots()}, which is what screens
+ * and background work should read rates from.
+ */
+public class RateRepository {
+
+    public static final long DEFAULT_TTL_MILLIS = 60 * 60 * 1000L; // 1 hour
+
+    public interface Callback {
+        // Called with cached rates first (fromCache = true), then again if a refresh brings new ones
+        void onRates(ExchangeRateResponse rates, boolean fromCache);
+
+        // Only called when the network failed and there was nothing cached to fall back to
+        void onError(Throwable t);
+    }
+
+    public interface Clock {
+        long now();
+    }
+
+    private static class CachedRates {
+        final ExchangeRateResponse response;
+        final long fetchedAt;
+
+        CachedRates(ExchangeRateResponse response, long fetchedAt) {
+            this.response = response;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final CurrencyApiService apiService;
+    private final File cacheDir;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Executor diskExecutor;
+    private final RatePayloadParser parser = new RatePayloadParser();
+    private final Map<String, CachedRates> memoryCache = new ConcurrentHashMap<>(); // Also filled by background syncs
+    private final InFlightRequests<Waiter> inFlight = new InFlightRequests<>();
+    private volatile String activeBase;
+    private final RateSnapshots snapshots = new RateSnapshots();
+    private volatile RateHistoryStore rateHistory;
+
+    private static class Waiter {
+        final Callback callback;
+        final boolean hasFallback;
+
+        Waiter(Callback callback, boolean hasFallback) {
+            this.callback = callback;
+            this.hasFallback = hasFallback;
+        }
+    }
+
+    public RateRepository(CurrencyApiService apiService, File cacheDir, long ttlMillis) {
+        this(apiService, cacheDir, ttlMillis, System::currentTimeMillis, Executors.newSingleThreadExecutor());
+    }
+
+    public RateRepository(CurrencyApiService apiService, File cacheDir, long ttlMillis,
+                          Clock clock, Executor diskExecutor) {
+        this.apiService = apiService;
+        this.cacheDir = cacheDir;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.diskExecutor = diskExecutor;
+    }
+
+    /**
+     * Serves cached rates for the base immediately (if there are any) and refreshes them from
+     * the network when they are missing or older than the TTL.
+     */
+    public void getRates(String base, Callback callback) {
+        switchTo(base);
+        CachedRates cached = readCached(base);
+        if (cached != null) {
+            callback.onRates(cached.response, true);
+            if (clock.now() - cached.fetchedAt < ttlMillis) {
+                PerfMetrics.get().count(PerfMetrics.Counter.RATE_CACHE_HIT);
+                return; // Still fresh, no round trip needed
+            }
+        }
+        PerfMetrics.get().count(cached != null ? PerfMetrics.Counter.RATE_CACHE_STALE : PerfMetrics.Counter.RATE_CACHE_MISS);
+        fetch(base, callback, cached != null);
+    }
+
+    /** Skips the cache and goes to the network, still falling back to stale rates on failure. */
+    public void refresh(String base, Callback callback) {
+        switchTo(base);
+        fetch(base, callback, readCached(base) != null);
+    }
+
+    /** Every fetched table also goes into the history (on the disk thread). */
+    public void setRateHistory(RateHistoryStore rateHistory) {
+        this.rateHistory = rateHistory;
+    }
+
+    /** Every table this repository loads or fetches, whatever the base, ends up here. */
+    public RateSnapshots snapshots() {
+        return snapshots;
+    }
+
+    /** Returns whatever is cached for the base (fresh or stale) without touching the network. */
+    public ExchangeRateResponse peek(String base) {
+        CachedRates cached = readCached(base);
+        return cached != null ? cached.response : null;
+    }
+
+    public boolean isFresh(String base) {
+        CachedRates cached = readCached(base);
+        return cached != null && clock.now() - cached.fetchedAt < ttlMillis;
+    }
+
+    /**
+     * Blocking refresh for background sync, run on the calling thread. It sends the ETag and
+     * Last-Modified of the cached copy, so an unchanged table comes back as a 304 without a body
+     * and only the cache's fetch time moves. Returns true if new rates were stored.
+     */
+    public boolean syncNow(String base) throws IOException {
+        CachedRates cached = readCached(base);
+        String[] validators = cached != null ? readValidators(base) : null;
+        long start = PerfMetrics.now();
+        Response<ExchangeRateResponse> response = apiService.getLatestRates(base,
+                validators != null ? validators[0] : null, validators != null ? validators[1] : null).execute();
+        PerfMetrics.get().recordFetch(base, start);
+        long now = clock.now();
+        if (response.code() == 304 && cached != null) {
+            PerfMetrics.get().count(PerfMetrics.Counter.RATE_NOT_MODIFIED);
+            memoryCache.put(base, new CachedRates(cached.response, now));
+            fileFor(base).setLastModified(now); // The timestamp is the fetch time, see writeToDisk
+            return false;
+        }
+        ExchangeRateResponse body = response.body();
+        if (!response.isSuccessful() || body == null || !body.hasRates()) {
+            throw new IOException("Unexpected response " + response.code() + " for " + base);
+        }
+        memoryCache.put(base, new CachedRates(body, now));
+        snapshots.publish(CrossRateTable.from(body), now);
+        persist(base, body, response.headers(), now); // Already off the main thread
+        return true;
+    }
+
+    // Calls for any base other than the new one are superseded
+    private void switchTo(String base) {
+        activeBase = base;
+        inFlight.cancelOthers(base);
+    }
+
+    private void fetch(String base, Callback callback, boolean hasFallback) {
+        Waiter waiter = new Waiter(callback, hasFallback);
+        if (inFlight.join(base, waiter)) {
+            return; // Same base already on the wire, share its result
+        }
+        Call<ExchangeRateResponse> call = apiService.getLatestRates(base);
+        inFlight.start(base, call, waiter);
+        long start = PerfMetrics.now();
+        call.enqueue(new retrofit2.Callback<ExchangeRateResponse>() {
+            @Override
+            public void onResponse(Call<ExchangeRateResponse> call, Response<ExchangeRateResponse> response) {
+                ExchangeRateResponse body = response.body();
+                if (!response.isSuccessful() || body == null || !body.hasRates()) {
+                    onFailure(call, new IOException("Unexpected response " + response.code() + " for " + base));
+                    return;
+                }
+                PerfMetrics.get().recordFetch(base, start); // Parsed by now, the converter runs before this
+                List<Waiter> waiters = inFlight.finish(base, call);
+                if (waiters == null) return; // Cancelled or superseded while in flight
+
+                store(base, body, response.headers());
+                if (!base.equals(activeBase)) return; // Valid rates, but no longer what the UI wants
+                for (Waiter w : waiters) {
+                    w.callback.onRates(body, false);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ExchangeRateResponse> call, Throwable t) {
+                if (!call.isCanceled()) PerfMetrics.get().count(PerfMetrics.Counter.RATE_FETCH_ERROR);
+                List<Waiter> waiters = inFlight.finish(base, call);
+                if (waiters == null || !base.equals(activeBase)) return;
+                for (Waiter w : waiters) {
+                    // Waiters that already got stale rates keep using them
+                    if (!w.hasFallback) w.callback.onError(t);
+                }
+            }
+        });
+    }
+
+    private CachedRates readCached(String base) {
+        CachedRates cached = memoryCache.get(base);
+        if (cached == null) {
+            cached = readFromDisk(base);
+            if (cached != null) {
+                memoryCache.put(base, cached);
+                snapshots.publish(CrossRateTable.from(cached.response), cached.fetchedAt);
+            }
+        }
+        return cached;
+    }
+
+    private void store(String base, ExchangeRateResponse response, Headers headers) {
+        long now = clock.now();
+        memoryCache.put(base, new CachedRates(response, now));
+        snapshots.publish(CrossRateTable.from(response), now);
+        diskExecutor.execute(() -> persist(base, response, headers, now));
+    }
+
+    // Synchronized as the disk thread and a background sync may write the same base
+    private synchronized void persist(String base, ExchangeRateResponse response, Headers headers, long fetchedAt) {
+        writeToDisk(base, response, fetchedAt);
+        writeValidators(base, headers);
+        RateHistoryStore history = rateHistory;
+        if (history != null) {
+            try {
+                history.record(response, fetchedAt);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private File fileFor(String base) {
+        return new File(cacheDir, "rates_" + base + ".json");
+    }
+
+    // ETag and Last-Modified of the cached response, one per line (empty if the server sent none)
+    private File validatorsFor(String base) {
+        return new File(cacheDir, "rates_" + base + ".etag");
+    }
+
+    private String[] readValidators(String base) {
+        File file = validatorsFor(base);
+        if (!file.exists()) return null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String etag = reader.readLine(), lastModified = reader.readLine();
+            return new String[]{emptyToNull(etag), emptyToNull(lastModified)};
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private void writeValidators(String base, Headers headers) {
+        String etag = headers != null ? headers.get("ETag") : null;
+        String lastModified = headers != null ? headers.get("Last-Modified") : null;
+        File file = validatorsFor(base);
+        if (etag == null && lastModified == null) {
+            file.delete();
+            return;
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write((etag != null ? etag : "") + "\n" + (lastModified != null ? lastModified : "") + "\n");
+        } catch (IOException e) {
+            e.printStackTrace();
+            file.delete();
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Reads a persisted table without a repository (no Retrofit, never the network), for the
+     * widget and tile when the app isn't running: the base's own file if there is one, else the
+     * newest of the others, as any table covers every pair. Null if nothing usable is cached.
+     */
+    public static ExchangeRateResponse readPersisted(File cacheDir, String base) {
+        File file = new File(cacheDir, "rates_" + base + ".json");
+        if (!file.exists()) {
+            file = null;
+            File[] files = cacheDir.listFiles((dir, name) -> name.startsWith("rates_") && name.endsWith(".json"));
+            if (files != null) {
+                for (File f : files) {
+                    if (file == null || f.lastModified() > file.lastModified()) file = f;
+                }
+            }
+            if (file == null) return null;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            ExchangeRateResponse response = new RatePayloadParser().parse(reader);
+            return response.base != null ? response : null;
+        } catch (Exception e) {
+            e.printStackTrace(); // Corrupt or half-written, same as a miss
+            return null;
+        }
+    }
+
+    private CachedRates readFromDisk(String base) {
+        File file = fileFor(base);
+        if (!file.exists()) return null;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            // Same format as the API payload, so the streaming parser reads it back without Gson
+            ExchangeRateResponse response;
+            synchronized (parser) {
+                response = parser.parse(reader);
+            }
+            if (response.base == null) return null;
+            return new CachedRates(response, file.lastModified());
+        } catch (Exception e) {
+            // Corrupt or half-written file, treat as a cache miss
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String base, ExchangeRateResponse response, long fetchedAt) {
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) return;
+        File file = fileFor(base);
+        File tmp = new File(cacheDir, file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            RatePayloadParser.write(response, writer);
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+            return;
+        }
+        // The file timestamp doubles as the fetch time, so no extra metadata is needed
+        tmp.setLastModified(fetchedAt);
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+        }
+    }
+}
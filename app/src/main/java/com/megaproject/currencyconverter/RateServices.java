@@ -0,0 +1,63 @@
+package com.megaproject.currencyconverter;
+
+import android.content.Context;
+
+import java.io.File;
+
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * The API, rate cache, rate history and alerts, one of each per process. Screens and background jobs
+ * share them so a table fetched by one is what the other finds in memory.
+ */
+public final class RateServices {
+
+    // Using a reliable free API
+    // Note: In production, base URL usually goes in a constant or build config.
+    // Exchangerate-api v4 is common for simple free usage.
+    private static final String BASE_URL = "https://api.exchangerate-api.com/v4/";
+
+    private static RateServices instance;
+
+    public final CurrencyApiService api;
+    public final RateRepository repository;
+    public final RateHistoryStore history;
+    public final RateAlerts alerts;
+    public final RateSnapshots rates; // What every screen and job converts with, see RateSnapshots
+
+    private RateServices(Context context) {
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(BASE_URL)
+                .addConverterFactory(RateTableConverterFactory.create()) // Streams rate payloads, no reflection
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+        api = retrofit.create(CurrencyApiService.class);
+        // Rates are persisted per base so restarts and flaky networks still have something to convert with
+        repository = new RateRepository(api, ratesDir(context), RateRepository.DEFAULT_TTL_MILLIS);
+        rates = repository.snapshots();
+        // Every fetch is kept by day too, for past rates and charts
+        history = new RateHistoryStore(new File(context.getFilesDir(), "rate_history"));
+        repository.setRateHistory(history);
+        // Alert rules are checked against every snapshot that comes in
+        alerts = new RateAlerts(context, history);
+        repository.snapshots().subscribe(alerts);
+        // And the widget and tile redraw when a pair they show moves
+        rates.subscribe(new RateWidgets.Refresher(context));
+    }
+
+    /** Where the repository persists rate tables. */
+    static File ratesDir(Context context) {
+        return new File(context.getFilesDir(), "rates");
+    }
+
+    /** The instance if something already created it in this process, else null. Creates nothing. */
+    public static synchronized RateServices running() {
+        return instance;
+    }
+
+    public static synchronized RateServices get(Context context) {
+        if (instance == null) instance = new RateServices(context.getApplicationContext());
+        return instance;
+    }
+}
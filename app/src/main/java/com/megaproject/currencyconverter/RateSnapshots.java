@@ -0,0 +1,149 @@
+package com.megaproject.currencyconverter;
+
+import java.util.BitSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The rates everyone converts with: one immutable {@link Snapshot} behind an atomic reference.
+ * Reading it is a single volatile load, with no lock and no copy, so the UI, alerts, batch
+ * imports and background jobs all share the same table. Publishing swaps in a new snapshot
+ * with a higher version and tells listeners which pairs it changed.
+ *
+ * A table fetched before the current one is ignored, as is one that changes no pair. Listeners
+ * are called on the publishing thread; if two threads publish at once they may hear about the
+ * snapshots out of order, so check {@link Snapshot#version} against {@link #current()} when
+ * that matters.
+ */
+public final class RateSnapshots {
+
+    public static final class Snapshot {
+        public final long version;
+        public final CrossRateTable table;
+        public final long fetchedAt;
+
+        Snapshot(long version, CrossRateTable table, long fetchedAt) {
+            this.version = version;
+            this.table = table;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    public interface Listener {
+        void onSnapshot(Snapshot snapshot, Changes changes);
+    }
+
+    /**
+     * Pairs whose rate differs between two snapshots. Worked out per currency against a
+     * currency both tables have, so it's a bitset of 169 rather than 169² pairs; a pair changed
+     * if either side moved and the rate between them is actually different.
+     */
+    public static final class Changes {
+        // Rates within this factor of each other count as the same; tables are only given to ~6 digits
+        private static final double TOLERANCE = 1e-9;
+
+        private final CrossRateTable before, after; // Before is null for the first snapshot
+        private final BitSet moved;
+
+        private Changes(CrossRateTable before, CrossRateTable after, BitSet moved) {
+            this.before = before;
+            this.after = after;
+            this.moved = moved;
+        }
+
+        static Changes between(CrossRateTable before, CrossRateTable after) {
+            int count = CurrencyCodes.count();
+            BitSet moved = new BitSet(count);
+            int pivot = before != null ? pivot(before, after) : -1;
+            if (pivot < 0) {
+                // Nothing in common to compare through: everything the new table has is new
+                for (int i = 0; i < count; i++) if (after.has(i) || (before != null && before.has(i))) moved.set(i);
+                return new Changes(before, after, moved);
+            }
+            for (int i = 0; i < count; i++) {
+                if (!same(before.rate(pivot, i), after.rate(pivot, i))) moved.set(i);
+            }
+            return new Changes(before, after, moved);
+        }
+
+        // The new table's base if the old one has it too, else any currency both have
+        private static int pivot(CrossRateTable before, CrossRateTable after) {
+            int base = after.getBaseOrdinal();
+            if (before.has(base) && after.has(base)) return base;
+            for (int i = 0; i < CurrencyCodes.count(); i++) {
+                if (before.has(i) && after.has(i)) return i;
+            }
+            return -1;
+        }
+
+        private static boolean same(double a, double b) {
+            if (Double.isNaN(a) || Double.isNaN(b)) return Double.isNaN(a) && Double.isNaN(b);
+            return Math.abs(a - b) <= TOLERANCE * Math.max(Math.abs(a), Math.abs(b));
+        }
+
+        public boolean isEmpty() {
+            return moved.isEmpty();
+        }
+
+        /** True if the rate from one to the other is new, gone or different. */
+        public boolean contains(int from, int to) {
+            if (from < 0 || to < 0 || (!moved.get(from) && !moved.get(to))) return false;
+            return !same(before != null ? before.rate(from, to) : Double.NaN, after.rate(from, to));
+        }
+
+        public boolean contains(String from, String to) {
+            return contains(CurrencyCodes.ordinal(from), CurrencyCodes.ordinal(to));
+        }
+
+        /** True if the currency moved against the others, so some pair with it changed. */
+        public boolean moved(int ordinal) {
+            return ordinal >= 0 && moved.get(ordinal);
+        }
+
+        /** The first currency at or after {@code ordinal} that moved, -1 if there is none. */
+        public int nextMoved(int ordinal) {
+            return moved.nextSetBit(ordinal);
+        }
+    }
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /** The latest snapshot, or null before the first table. Wait-free. */
+    public Snapshot current() {
+        return current.get();
+    }
+
+    /** The latest table, or null before the first one. Wait-free. */
+    public CrossRateTable table() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot.table : null;
+    }
+
+    /**
+     * Makes the table the current one unless a newer one is already there or it changes
+     * nothing. Returns the snapshot that is current afterwards.
+     */
+    public Snapshot publish(CrossRateTable table, long fetchedAt) {
+        while (true) {
+            Snapshot previous = current.get();
+            if (previous != null && fetchedAt < previous.fetchedAt) return previous;
+            Changes changes = Changes.between(previous != null ? previous.table : null, table);
+            if (previous != null && changes.isEmpty()) return previous;
+            Snapshot next = new Snapshot(previous != null ? previous.version + 1 : 1, table, fetchedAt);
+            if (current.compareAndSet(previous, next)) {
+                for (Listener listener : listeners) listener.onSnapshot(next, changes);
+                return next;
+            }
+            // Someone else published in between, compare against theirs instead
+        }
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,46 @@
+package com.megaproject.currencyconverter;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit converter that streams {@link ExchangeRateResponse} bodies through
+ * {@link RatePayloadParser} instead of Gson reflection. Other types return null so the next
+ * factory (Gson) still handles them.
+ */
+public final class RateTableConverterFactory extends Converter.Factory {
+
+    // Converters run on OkHttp's threads, each keeps its own parser and buffers
+    private static final ThreadLocal<RatePayloadParser> PARSERS = new ThreadLocal<RatePayloadParser>() {
+        @Override
+        protected RatePayloadParser initialValue() {
+            return new RatePayloadParser();
+        }
+    };
+
+    public static RateTableConverterFactory create() {
+        return new RateTableConverterFactory();
+    }
+
+    private RateTableConverterFactory() {}
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        if (type != ExchangeRateResponse.class) return null;
+        return new Converter<ResponseBody, ExchangeRateResponse>() {
+            @Override
+            public ExchangeRateResponse convert(ResponseBody body) throws IOException {
+                try {
+                    return PARSERS.get().parse(body.charStream());
+                } finally {
+                    body.close();
+                }
+            }
+        };
+    }
+}
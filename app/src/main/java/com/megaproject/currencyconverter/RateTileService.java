@@ -0,0 +1,61 @@
+package com.megaproject.currencyconverter;
+
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.service.quicksettings.Tile;
+import android.service.quicksettings.TileService;
+
+/**
+ * Quick-settings tile with one pinned pair's rate; tapping it moves to the next pair. Active
+ * mode (see the manifest), so it is only bound when {@link RateWidgets} asks after new rates
+ * or the user taps it, never to poll. Reads local rates only, like the widget.
+ */
+public class RateTileService extends TileService {
+
+    private static final String PREF_TILE_ROW = "tile_row";
+
+    private final Handler main = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void onStartListening() {
+        render();
+    }
+
+    @Override
+    public void onClick() {
+        SharedPreferences prefs = prefs();
+        prefs.edit().putInt(PREF_TILE_ROW, prefs.getInt(PREF_TILE_ROW, 0) + 1).apply();
+        render();
+    }
+
+    // The glance may read the persisted table, so it's built in the background
+    private void render() {
+        RateWidgets.execute(() -> {
+            RateGlance glance = RateWidgets.glance(this, null);
+            main.post(() -> show(glance));
+        });
+    }
+
+    private void show(RateGlance glance) {
+        Tile tile = getQsTile();
+        if (tile == null) return;
+        if (glance.size() == 0) {
+            tile.setLabel("No pinned currencies");
+            tile.setState(Tile.STATE_UNAVAILABLE);
+        } else {
+            int row = Math.floorMod(prefs().getInt(PREF_TILE_ROW, 0), glance.size());
+            tile.setLabel(glance.code(row) + " " + RateWidgets.valueText(glance, row));
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                tile.setSubtitle("per 1 " + glance.base());
+            }
+            tile.setState(glance.value(row) != null ? Tile.STATE_ACTIVE : Tile.STATE_INACTIVE);
+        }
+        tile.updateTile();
+    }
+
+    private SharedPreferences prefs() {
+        return getSharedPreferences("CurrencyPrefs", MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,376 @@
+package com.megaproject.currencyconverter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Daily rate snapshots for one base, stored by column: one byte stream per currency holding
+ * its rate for every day. Rates are kept as quantized logs (1e-6 steps, about six significant
+ * digits) and each value is the varint-encoded change from the previous day, so a currency that
+ * barely moves costs one or two bytes a day. Every {@link #BLOCK_DAYS} days a column restarts
+ * from an absolute value, which bounds how much has to be decoded to answer a lookup.
+ *
+ * Snapshots can only be added in date order; a second one for the newest day replaces it.
+ * Not thread-safe, see {@link RateHistoryStore}.
+ */
+public final class RateTimeSeries {
+
+    public static final int BLOCK_DAYS = 64;
+    private static final double LOG_SCALE = 1e6;
+    private static final int MAGIC = 0x52545331; // "RTS1"
+    private static final int VERSION = 1;
+
+    private final int baseOrdinal;
+    private int[] days = new int[BLOCK_DAYS];      // Epoch days, ascending
+    private int dayCount;
+    private Column[] columns = new Column[16];
+    private int columnCount;
+    private final int[] columnOf = new int[CurrencyCodes.count()]; // Ordinal -> column, -1 if none
+
+    private static final class Column {
+        final int ordinal;
+        byte[] bytes = new byte[256];
+        int length;
+        int[] blockStarts = new int[4]; // Byte offset of each block's first value
+        int last;                       // Last present value in the current block, for the next delta
+        boolean hasLast;
+        // State before the newest day was added, so it can be replaced
+        int tailStart;
+        int prevLast;
+        boolean prevHasLast;
+
+        Column(int ordinal) {
+            this.ordinal = ordinal;
+        }
+    }
+
+    public RateTimeSeries(int baseOrdinal) {
+        this.baseOrdinal = baseOrdinal;
+        Arrays.fill(columnOf, -1);
+    }
+
+    public int getBaseOrdinal() {
+        return baseOrdinal;
+    }
+
+    public int dayCount() {
+        return dayCount;
+    }
+
+    public int day(int index) {
+        return days[index];
+    }
+
+    public int firstDay() {
+        return dayCount > 0 ? days[0] : Integer.MIN_VALUE;
+    }
+
+    public int lastDay() {
+        return dayCount > 0 ? days[dayCount - 1] : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Adds the rates (units per base, by ordinal, NaN if missing) for a day. Returns false if the
+     * day is older than the newest one stored; the newest day itself is replaced.
+     */
+    public boolean add(int epochDay, double[] perBase) {
+        if (dayCount > 0 && epochDay < days[dayCount - 1]) return false;
+        if (dayCount > 0 && epochDay == days[dayCount - 1]) removeNewestDay();
+
+        for (int ordinal = 0; ordinal < perBase.length && ordinal < columnOf.length; ordinal++) {
+            if (perBase[ordinal] > 0 && columnOf[ordinal] < 0 && ordinal != baseOrdinal) addColumn(ordinal);
+        }
+        int index = dayCount;
+        for (int c = 0; c < columnCount; c++) {
+            Column column = columns[c];
+            double rate = column.ordinal < perBase.length ? perBase[column.ordinal] : Double.NaN;
+            column.tailStart = column.length;
+            column.prevLast = column.last;
+            column.prevHasLast = column.hasLast;
+            append(column, index, rate > 0 ? quantize(rate) : 0, rate > 0);
+        }
+        if (dayCount == days.length) days = Arrays.copyOf(days, dayCount * 2);
+        days[dayCount++] = epochDay;
+        return true;
+    }
+
+    private void removeNewestDay() {
+        for (int c = 0; c < columnCount; c++) {
+            Column column = columns[c];
+            column.length = column.tailStart;
+            column.last = column.prevLast;
+            column.hasLast = column.prevHasLast;
+        }
+        dayCount--;
+    }
+
+    private void addColumn(int ordinal) {
+        Column column = new Column(ordinal);
+        for (int index = 0; index < dayCount; index++) {
+            append(column, index, 0, false); // Not quoted on earlier days
+        }
+        if (columnCount == columns.length) columns = Arrays.copyOf(columns, columnCount * 2);
+        columnOf[ordinal] = columnCount;
+        columns[columnCount++] = column;
+    }
+
+    // Encodes one day's value: 0 if missing, otherwise zigzag(delta) + 1
+    private static void append(Column column, int index, int value, boolean present) {
+        if (index % BLOCK_DAYS == 0) {
+            int block = index / BLOCK_DAYS;
+            if (block == column.blockStarts.length) column.blockStarts = Arrays.copyOf(column.blockStarts, block * 2);
+            column.blockStarts[block] = column.length;
+            column.hasLast = false;
+        }
+        long code = 0;
+        if (present) {
+            long delta = (long) value - (column.hasLast ? column.last : 0);
+            code = ((delta << 1) ^ (delta >> 63)) + 1;
+            column.last = value;
+            column.hasLast = true;
+        }
+        if (column.length + 10 > column.bytes.length) column.bytes = Arrays.copyOf(column.bytes, column.bytes.length * 2);
+        while ((code & ~0x7FL) != 0) {
+            column.bytes[column.length++] = (byte) ((code & 0x7F) | 0x80);
+            code >>>= 7;
+        }
+        column.bytes[column.length++] = (byte) code;
+    }
+
+    private static int quantize(double rate) {
+        return (int) Math.round(Math.log(rate) * LOG_SCALE);
+    }
+
+    // --- Queries ---
+
+    /** Index of the newest day on or before {@code epochDay}, -1 if there is none. */
+    public int indexAtOrBefore(int epochDay) {
+        int i = Arrays.binarySearch(days, 0, dayCount, epochDay);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /** Units of {@code to} per {@code from} on the day at {@code index}, NaN if either wasn't quoted. */
+    public double rateAt(int index, int from, int to) {
+        if (index < 0 || index >= dayCount) return Double.NaN;
+        long qFrom = from == baseOrdinal ? 0 : valueAt(from, index);
+        long qTo = to == baseOrdinal ? 0 : valueAt(to, index);
+        if (qFrom == Long.MIN_VALUE || qTo == Long.MIN_VALUE) return Double.NaN;
+        return Math.exp((qTo - qFrom) / LOG_SCALE);
+    }
+
+    /** Every currency's rate per base on the day at {@code index}, NaN where not quoted. */
+    public void snapshotAt(int index, double[] perBase) {
+        Arrays.fill(perBase, Double.NaN);
+        if (index < 0 || index >= dayCount) return;
+        if (baseOrdinal < perBase.length) perBase[baseOrdinal] = 1.0;
+        for (int c = 0; c < columnCount; c++) {
+            int ordinal = columns[c].ordinal;
+            long q = valueAt(ordinal, index);
+            if (q != Long.MIN_VALUE && ordinal < perBase.length) perBase[ordinal] = Math.exp(q / LOG_SCALE);
+        }
+    }
+
+    // Quantized value of a currency on a day, Long.MIN_VALUE if missing
+    private long valueAt(int ordinal, int index) {
+        int c = ordinal >= 0 && ordinal < columnOf.length ? columnOf[ordinal] : -1;
+        if (c < 0) return Long.MIN_VALUE;
+        Column column = columns[c];
+        int block = index / BLOCK_DAYS;
+        int pos = column.blockStarts[block];
+        long last = 0;
+        long value = Long.MIN_VALUE;
+        byte[] bytes = column.bytes;
+        for (int i = block * BLOCK_DAYS; i <= index; i++) {
+            long code = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                code |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (code == 0) {
+                value = Long.MIN_VALUE;
+            } else {
+                code -= 1;
+                last += (code >>> 1) ^ -(code & 1);
+                value = last;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Writes the pair's rate for every stored day in [fromIndex, toIndex) into {@code out}
+     * (NaN where not quoted). Both columns are decoded in one forward pass each.
+     */
+    public void ratesBetween(int fromIndex, int toIndex, int from, int to, double[] out, int outOffset) {
+        int n = toIndex - fromIndex;
+        if (n <= 0) return;
+        long[] qFrom = decodeRange(from, fromIndex, toIndex);
+        long[] qTo = decodeRange(to, fromIndex, toIndex);
+        for (int i = 0; i < n; i++) {
+            long a = qFrom[i], b = qTo[i];
+            out[outOffset + i] = a == Long.MIN_VALUE || b == Long.MIN_VALUE ? Double.NaN : Math.exp((b - a) / LOG_SCALE);
+        }
+    }
+
+    private long[] decodeRange(int ordinal, int fromIndex, int toIndex) {
+        long[] out = new long[toIndex - fromIndex];
+        if (ordinal == baseOrdinal) return out; // log(1) = 0 every day
+        int c = ordinal >= 0 && ordinal < columnOf.length ? columnOf[ordinal] : -1;
+        if (c < 0) {
+            Arrays.fill(out, Long.MIN_VALUE);
+            return out;
+        }
+        Column column = columns[c];
+        byte[] bytes = column.bytes;
+        int block = fromIndex / BLOCK_DAYS;
+        int pos = column.blockStarts[block];
+        long last = 0;
+        for (int i = block * BLOCK_DAYS; i < toIndex; i++) {
+            if (i % BLOCK_DAYS == 0) last = 0;
+            long code = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                code |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            long value = Long.MIN_VALUE;
+            if (code != 0) {
+                code -= 1;
+                last += (code >>> 1) ^ -(code & 1);
+                value = last;
+            }
+            if (i >= fromIndex) out[i - fromIndex] = value;
+        }
+        return out;
+    }
+
+    // --- Persistence ---
+
+    /** Encoded size in bytes, about what {@link #write} produces. */
+    public int encodedSize() {
+        int size = 16 + dayCount * 2;
+        for (int c = 0; c < columnCount; c++) size += 7 + columns[c].length;
+        return size;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeCode(out, baseOrdinal);
+        out.writeInt(dayCount);
+        int previous = 0;
+        for (int i = 0; i < dayCount; i++) {
+            writeVarint(out, days[i] - previous); // Day column, delta encoded too
+            previous = days[i];
+        }
+        out.writeShort(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            Column column = columns[c];
+            writeCode(out, column.ordinal); // Codes rather than ordinals, in case the dictionary grows
+            out.writeInt(column.length);
+            out.write(column.bytes, 0, column.length);
+        }
+    }
+
+    public static RateTimeSeries read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a rate series");
+        int version = in.readShort();
+        if (version != VERSION) throw new IOException("Unsupported rate series version " + version);
+        int base = readCode(in);
+        if (base < 0) throw new IOException("Unknown base in rate series");
+        RateTimeSeries series = new RateTimeSeries(base);
+        int dayCount = in.readInt();
+        series.days = new int[Math.max(BLOCK_DAYS, dayCount)];
+        int day = 0;
+        for (int i = 0; i < dayCount; i++) {
+            day += readVarint(in);
+            series.days[i] = day;
+        }
+        series.dayCount = dayCount;
+        int columnCount = in.readShort();
+        for (int c = 0; c < columnCount; c++) {
+            int ordinal = readCode(in);
+            int length = in.readInt();
+            byte[] bytes = new byte[Math.max(length + 16, 256)];
+            in.readFully(bytes, 0, length);
+            if (ordinal < 0 || series.columnOf[ordinal] >= 0) continue; // Code this build doesn't know
+            Column column = new Column(ordinal);
+            column.bytes = bytes;
+            column.length = length;
+            series.index(column, dayCount);
+            if (series.columnCount == series.columns.length) series.columns = Arrays.copyOf(series.columns, series.columnCount * 2);
+            series.columnOf[ordinal] = series.columnCount;
+            series.columns[series.columnCount++] = column;
+        }
+        return series;
+    }
+
+    // Rebuilds block offsets and the append state by walking the column once
+    private void index(Column column, int values) throws IOException {
+        column.blockStarts = new int[Math.max(4, values / BLOCK_DAYS + 1)];
+        int pos = 0;
+        for (int i = 0; i < values; i++) {
+            if (i % BLOCK_DAYS == 0) {
+                column.blockStarts[i / BLOCK_DAYS] = pos;
+                column.hasLast = false;
+                column.last = 0;
+            }
+            column.tailStart = pos;
+            column.prevLast = column.last;
+            column.prevHasLast = column.hasLast;
+            long code = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos >= column.length) throw new IOException("Truncated rate column");
+                b = column.bytes[pos++];
+                code |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (code != 0) {
+                code -= 1;
+                column.last += (int) ((code >>> 1) ^ -(code & 1));
+                column.hasLast = true;
+            }
+        }
+    }
+
+    private static void writeCode(DataOutputStream out, int ordinal) throws IOException {
+        String code = CurrencyCodes.code(ordinal);
+        out.writeByte(code.charAt(0));
+        out.writeByte(code.charAt(1));
+        out.writeByte(code.charAt(2));
+    }
+
+    private static int readCode(DataInputStream in) throws IOException {
+        char a = (char) in.readUnsignedByte(), b = (char) in.readUnsignedByte(), c = (char) in.readUnsignedByte();
+        return CurrencyCodes.ordinal(a, b, c);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
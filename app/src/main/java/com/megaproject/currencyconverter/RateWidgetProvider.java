@@ -0,0 +1,26 @@
+package com.megaproject.currencyconverter;
+
+import android.appwidget.AppWidgetManager;
+import android.appwidget.AppWidgetProvider;
+import android.content.Context;
+
+/**
+ * The home-screen widget. The system only calls this when a widget is added or restored (there
+ * is no update period); later redraws come from {@link RateWidgets} as rates arrive.
+ */
+public class RateWidgetProvider extends AppWidgetProvider {
+
+    @Override
+    public void onUpdate(Context context, AppWidgetManager manager, int[] appWidgetIds) {
+        // A new widget has nothing on it yet, so always everything. Kept alive until it's drawn
+        PendingResult result = goAsync();
+        Context app = context.getApplicationContext();
+        RateWidgets.execute(() -> {
+            try {
+                RateWidgets.render(app, manager, appWidgetIds, RateWidgets.glance(app, null), true);
+            } finally {
+                result.finish();
+            }
+        });
+    }
+}
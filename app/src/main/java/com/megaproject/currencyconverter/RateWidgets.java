@@ -0,0 +1,155 @@
+package com.megaproject.currencyconverter;
+
+import android.app.PendingIntent;
+import android.appwidget.AppWidgetManager;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Looper;
+import android.service.quicksettings.TileService;
+import android.view.View;
+import android.widget.RemoteViews;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The home-screen widget and quick-settings tile. Both show a {@link RateGlance} of the board
+ * pins against the last base, built from rates already on the device: the live snapshot when
+ * the app is running, else the persisted table read straight from disk (no Retrofit, never
+ * the network). Nothing polls: the widget has no update period and is redrawn when a snapshot
+ * moves a pair it shows, or when the app goes to the background with possibly new pins.
+ *
+ * When only values changed the widget gets a partial update carrying just those TextViews.
+ * Glances are built and drawn off the main thread, since they may read the persisted table.
+ */
+public final class RateWidgets {
+
+    private static final int[] ROW_IDS = {R.id.widgetRow0, R.id.widgetRow1, R.id.widgetRow2, R.id.widgetRow3};
+    private static final int[] CODE_IDS = {R.id.widgetCode0, R.id.widgetCode1, R.id.widgetCode2, R.id.widgetCode3};
+    private static final int[] VALUE_IDS = {R.id.widgetValue0, R.id.widgetValue1, R.id.widgetValue2, R.id.widgetValue3};
+
+    private static final Executor executor = Executors.newSingleThreadExecutor();
+    private static RateGlance shown; // What the widgets show, as far as this process knows
+
+    private RateWidgets() {}
+
+    /** Redraws the widget and refreshes the tile when a snapshot moves a pair they show. */
+    static final class Refresher implements RateSnapshots.Listener {
+        private final Context context;
+
+        Refresher(Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        @Override
+        public void onSnapshot(RateSnapshots.Snapshot snapshot, RateSnapshots.Changes changes) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                executor.execute(() -> refresh(snapshot, changes));
+            } else {
+                refresh(snapshot, changes); // A background sync: done before the job returns
+            }
+        }
+
+        private void refresh(RateSnapshots.Snapshot snapshot, RateSnapshots.Changes changes) {
+            RateGlance glance = glance(context, snapshot.table);
+            if (!glance.affectedBy(changes)) return;
+            render(context, glance, false);
+            requestTile(context);
+        }
+    }
+
+    /** Redraws every widget and the tile from local rates, in the background. */
+    public static void update(Context context) {
+        Context app = context.getApplicationContext();
+        executor.execute(() -> {
+            render(app, glance(app, null), false);
+            requestTile(app);
+        });
+    }
+
+    /** Runs widget or tile work on the thread that builds glances. */
+    static void execute(Runnable work) {
+        executor.execute(work);
+    }
+
+    /** The pins against the last base, with rates from the device only. May read a file. */
+    static RateGlance glance(Context context, CrossRateTable table) {
+        String base = RatePrefetchWorker.lastBase(context);
+        String pins = context.getSharedPreferences("CurrencyPrefs", Context.MODE_PRIVATE)
+                .getString(MainActivity.PREF_BOARD_PINS, MainActivity.DEFAULT_BOARD_PINS);
+        if (table == null || !table.has(base)) table = cachedTable(context, base);
+        return RateGlance.of(table, base, pins, Locale.getDefault());
+    }
+
+    private static CrossRateTable cachedTable(Context context, String base) {
+        RateServices services = RateServices.running();
+        CrossRateTable table = services != null ? services.rates.table() : null;
+        if (table != null && table.has(base)) return table;
+        ExchangeRateResponse persisted = RateRepository.readPersisted(RateServices.ratesDir(context), base);
+        return persisted != null ? CrossRateTable.from(persisted) : null;
+    }
+
+    private static void render(Context context, RateGlance glance, boolean full) {
+        AppWidgetManager manager = AppWidgetManager.getInstance(context);
+        render(context, manager, manager.getAppWidgetIds(new ComponentName(context, RateWidgetProvider.class)), glance, full);
+    }
+
+    static synchronized void render(Context context, AppWidgetManager manager, int[] ids, RateGlance glance, boolean full) {
+        if (ids.length == 0) return;
+        long start = PerfMetrics.now();
+        RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_rates);
+        if (!full && glance.sameRows(shown)) {
+            boolean changed = false;
+            for (int row = 0; row < glance.size(); row++) {
+                if (!glance.valueChanged(shown, row)) continue;
+                views.setTextViewText(VALUE_IDS[row], valueText(glance, row));
+                changed = true;
+            }
+            if (!Objects.equals(glance.date(), shown.date())) {
+                views.setTextViewText(R.id.widgetDate, dateText(glance));
+                changed = true;
+            }
+            if (changed) manager.partiallyUpdateAppWidget(ids, views);
+        } else {
+            views.setTextViewText(R.id.widgetBase, "1 " + glance.base());
+            views.setTextViewText(R.id.widgetDate, dateText(glance));
+            views.setViewVisibility(R.id.widgetEmpty, glance.size() == 0 ? View.VISIBLE : View.GONE);
+            for (int row = 0; row < RateGlance.MAX_ROWS; row++) {
+                boolean visible = row < glance.size();
+                views.setViewVisibility(ROW_IDS[row], visible ? View.VISIBLE : View.GONE);
+                if (!visible) continue;
+                views.setTextViewText(CODE_IDS[row], glance.code(row));
+                views.setTextViewText(VALUE_IDS[row], valueText(glance, row));
+            }
+            views.setOnClickPendingIntent(R.id.widgetRoot, openApp(context));
+            manager.updateAppWidget(ids, views);
+        }
+        shown = glance;
+        PerfMetrics.get().record(PerfMetrics.Timer.WIDGET_UPDATE, start);
+    }
+
+    static String valueText(RateGlance glance, int row) {
+        String value = glance.value(row);
+        return value != null ? value : "—";
+    }
+
+    private static String dateText(RateGlance glance) {
+        return glance.date() != null ? "Rates of " + glance.date() : "Open the app to load rates";
+    }
+
+    static PendingIntent openApp(Context context) {
+        Intent intent = new Intent(context, SplashActivity.class).addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        return PendingIntent.getActivity(context, 0, intent, PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private static void requestTile(Context context) {
+        try {
+            TileService.requestListeningState(context, new ComponentName(context, RateTileService.class));
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // Some builds refuse while the tile isn't added; nothing to refresh then
+        }
+    }
+}
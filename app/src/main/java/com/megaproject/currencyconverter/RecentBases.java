@@ -0,0 +1,44 @@
+package com.megaproject.currencyconverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The base currencies used most recently, newest first, at most {@link #MAX} of them. Stored as
+ * a comma separated string.
+ */
+public final class RecentBases {
+
+    public static final int MAX = 4;
+
+    private final List<String> bases = new ArrayList<>(MAX + 1);
+
+    /** Moves the base to the front. Returns false if it already was there (nothing to save). */
+    public boolean touch(String base) {
+        if (base == null || base.isEmpty()) return false;
+        if (!bases.isEmpty() && bases.get(0).equals(base)) return false;
+        bases.remove(base);
+        bases.add(0, base);
+        if (bases.size() > MAX) bases.remove(MAX);
+        return true;
+    }
+
+    public List<String> list() {
+        return new ArrayList<>(bases);
+    }
+
+    public static RecentBases fromString(String value) {
+        RecentBases recent = new RecentBases();
+        if (value == null) return recent;
+        for (String base : value.split(",")) {
+            String code = base.trim();
+            if (!code.isEmpty() && !recent.bases.contains(code) && recent.bases.size() < MAX) recent.bases.add(code);
+        }
+        return recent;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", bases);
+    }
+}
@@ -7,11 +7,21 @@ import android.graphics.Shader;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 
 public class SplashActivity extends AppCompatActivity {
 
+    // Long enough for the branding to register, short enough not to be a wait
+    private static final long MIN_SPLASH_MS = 600;
+    // Slow storage shouldn't hold the app hostage; MainActivity copes with a cold start
+    private static final long MAX_SPLASH_MS = 2000;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private long shownAt;
+    private boolean opened;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -37,11 +47,30 @@ public class SplashActivity extends AppCompatActivity {
             tvTitle.getPaint().setShader(textShader);
         }
 
-        // Navigate to MainActivity after 3 seconds
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-            Intent intent = new Intent(SplashActivity.this, MainActivity.class);
-            startActivity(intent);
-            finish();
-        }, 3000);
+        // Rates cache, history and Retrofit load in parallel while the splash is up, and
+        // MainActivity opens as soon as they are ready (but not before the minimum)
+        shownAt = SystemClock.uptimeMillis();
+        AppWarmup.start(this).graph().whenFinished(() -> handler.post(this::openMainWhenShown));
+        handler.postDelayed(this::openMain, MAX_SPLASH_MS);
+    }
+
+    private void openMainWhenShown() {
+        long shown = SystemClock.uptimeMillis() - shownAt;
+        handler.postDelayed(this::openMain, Math.max(0, MIN_SPLASH_MS - shown));
+    }
+
+    private void openMain() {
+        if (opened || isFinishing() || isDestroyed()) return;
+        opened = true;
+        handler.removeCallbacksAndMessages(null);
+        Intent intent = new Intent(SplashActivity.this, MainActivity.class);
+        startActivity(intent);
+        finish();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacksAndMessages(null);
     }
 }
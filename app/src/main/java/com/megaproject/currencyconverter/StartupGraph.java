@@ -0,0 +1,175 @@
+package com.megaproject.currencyconverter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup work as a small dependency graph. Each step goes to the executor as soon as the
+ * steps it depends on are done, so independent ones (disk reads, network client setup) overlap
+ * instead of queueing behind each other in onCreate. Steps can only depend on steps added
+ * before them, which keeps the graph acyclic.
+ *
+ * A step that throws is logged and still counts as done: whatever needed its result does the
+ * work itself later, startup just gets no head start there. Thread-safe.
+ */
+public final class StartupGraph {
+
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    private static final class Node {
+        final String name;
+        final Step step;
+        final List<Node> dependents = new ArrayList<>();
+        int waitingOn;
+        long startNanos, endNanos = -1;
+        Throwable error;
+
+        Node(String name, Step step) {
+            this.name = name;
+            this.step = step;
+        }
+    }
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final List<Runnable> finishListeners = new ArrayList<>();
+    private Executor executor;
+    private int remaining;
+    private long startNanos, endNanos = -1;
+
+    public synchronized StartupGraph add(String name, Step step, String... dependsOn) {
+        if (executor != null) throw new IllegalStateException("Already started");
+        if (nodes.containsKey(name)) throw new IllegalArgumentException("Duplicate step " + name);
+        Node node = new Node(name, step);
+        for (String dependency : dependsOn) {
+            Node before = nodes.get(dependency);
+            if (before == null) throw new IllegalArgumentException(name + " depends on unknown step " + dependency);
+            before.dependents.add(node);
+            node.waitingOn++;
+        }
+        nodes.put(name, node);
+        return this;
+    }
+
+    public void start(Executor executor) {
+        List<Node> ready = new ArrayList<>();
+        List<Runnable> listeners;
+        synchronized (this) {
+            if (this.executor != null) throw new IllegalStateException("Already started");
+            this.executor = executor;
+            startNanos = System.nanoTime();
+            remaining = nodes.size();
+            for (Node node : nodes.values()) {
+                if (node.waitingOn == 0) ready.add(node);
+            }
+            listeners = remaining == 0 ? finish() : null;
+        }
+        for (Node node : ready) schedule(node);
+        if (listeners != null) for (Runnable listener : listeners) listener.run();
+    }
+
+    private void schedule(Node node) {
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            Throwable error = null;
+            try {
+                node.step.run();
+            } catch (Throwable t) {
+                t.printStackTrace();
+                error = t;
+            }
+            complete(node, start, error);
+        });
+    }
+
+    private void complete(Node node, long start, Throwable error) {
+        List<Node> ready = new ArrayList<>();
+        List<Runnable> listeners;
+        synchronized (this) {
+            node.startNanos = start;
+            node.endNanos = System.nanoTime();
+            node.error = error;
+            for (Node dependent : node.dependents) {
+                if (--dependent.waitingOn == 0) ready.add(dependent);
+            }
+            listeners = --remaining == 0 ? finish() : null;
+        }
+        for (Node next : ready) schedule(next);
+        if (listeners != null) for (Runnable listener : listeners) listener.run();
+    }
+
+    // Called with the lock held once the last step is done; listeners run after it is released
+    private List<Runnable> finish() {
+        endNanos = System.nanoTime();
+        notifyAll();
+        List<Runnable> listeners = new ArrayList<>(finishListeners);
+        finishListeners.clear();
+        return listeners;
+    }
+
+    /**
+     * Runs the listener once every step is done: right away on this thread if they already are,
+     * otherwise on the thread that finishes the last one.
+     */
+    public void whenFinished(Runnable listener) {
+        synchronized (this) {
+            if (!isFinished()) {
+                finishListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    public synchronized boolean isFinished() {
+        return endNanos >= 0;
+    }
+
+    /** Waits for every step; false if the timeout ran out first. */
+    public synchronized boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isFinished()) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) return false;
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        return true;
+    }
+
+    /** Start to last step done, or -1 while running. */
+    public synchronized long totalNanos() {
+        return isFinished() ? endNanos - startNanos : -1;
+    }
+
+    /** How long the step itself ran, or -1 if it hasn't finished. */
+    public synchronized long stepNanos(String name) {
+        Node node = nodes.get(name);
+        return node != null && node.endNanos >= 0 ? node.endNanos - node.startNanos : -1;
+    }
+
+    public synchronized Throwable error(String name) {
+        Node node = nodes.get(name);
+        return node != null ? node.error : null;
+    }
+
+    /** One line per step with when it started and ended relative to {@link #start}, for logs. */
+    public synchronized String report() {
+        StringBuilder out = new StringBuilder(String.format(Locale.US, "startup %.1f ms", totalNanos() / 1e6));
+        for (Node node : nodes.values()) {
+            if (node.endNanos < 0) {
+                out.append(String.format(Locale.US, "%n  %-10s running", node.name));
+            } else {
+                out.append(String.format(Locale.US, "%n  %-10s %6.1f -> %6.1f ms%s", node.name,
+                        (node.startNanos - startNanos) / 1e6, (node.endNanos - startNanos) / 1e6,
+                        node.error != null ? " failed: " + node.error : ""));
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,244 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchConverterTest {
+
+    private final CrossRateTable usd = CrossRateTable.from(
+            FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.8, "GBP", 0.75, "JPY", 150.0));
+    private final List<String> requestedDates = new ArrayList<>();
+    private final BatchConverter.RateSource source = (from, date) -> {
+        requestedDates.add(date);
+        return usd;
+    };
+
+    private static InputStream fixture(String name) {
+        InputStream in = BatchConverterTest.class.getResourceAsStream("/batch/" + name);
+        assertNotNull(name, in);
+        return in;
+    }
+
+    @Test
+    public void convertsCsvWithHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchConverter.Result result = new BatchConverter(source).convert(
+                fixture("expenses.csv"), out, BatchConverter.Format.CSV, null);
+
+        assertEquals(5, result.rows);
+        assertEquals(3, result.converted);
+        assertEquals(2, result.failed);
+        assertFalse(result.cancelled);
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertEquals("amount,from,to,date,result,rate,rate_date,error", lines[0]);
+        assertEquals("100.00,USD,EUR,2026-10-01,80.00,0.8000000000,2026-10-18,", lines[1]);
+        assertEquals("1234.5,eur,usd,2026-10-02,1543.12,1.2500000000,2026-10-18,", lines[2]); // 1543.125 rounds half-even
+        assertEquals("-20,GBP,JPY,2026-10-03,-4000.00,200.0000000000,2026-10-18,", lines[3]);
+        assertEquals("abc,USD,EUR,2026-10-04,,,,invalid amount", lines[4]);
+        assertEquals("10,USD,XXX,2026-10-05,,,,unknown currency", lines[5]);
+        assertEquals(6, lines.length);
+        assertTrue(requestedDates.contains("2026-10-01"));
+    }
+
+    @Test
+    public void resultsUseTheTargetsMinorUnits() throws IOException {
+        CrossRateTable withKwd = CrossRateTable.from(
+                FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.8, "JPY", 150.0, "KWD", 0.3071));
+        String in = "amount,from,to\n100,USD,JPY\n100,USD,KWD\n100,USD,EUR\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BatchConverter((from, date) -> withKwd, ordinal -> {
+            String code = CurrencyCodes.code(ordinal);
+            return code.equals("JPY") ? 0 : code.equals("KWD") ? 3 : 2;
+        }).convert(new ByteArrayInputStream(in.getBytes(StandardCharsets.UTF_8)), out, BatchConverter.Format.CSV, null);
+
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertEquals("100,USD,JPY,,15000,150.0000000000,2026-10-18,", lines[1]);
+        assertEquals("100,USD,KWD,,30.710,0.3071000000,2026-10-18,", lines[2]);
+        assertEquals("100,USD,EUR,,80.00,0.8000000000,2026-10-18,", lines[3]);
+    }
+
+    @Test
+    public void csvWithoutHeaderIsPositional() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchConverter.Result result = new BatchConverter(source).convert(
+                fixture("expenses_no_header.csv"), out, BatchConverter.Format.CSV, null);
+
+        assertEquals(2, result.converted);
+        String[] lines = out.toString("UTF-8").split("\n");
+        assertEquals("100.00,USD,EUR,,80.00,0.8000000000,2026-10-18,", lines[1]);
+        assertEquals("1234.5,EUR,USD,,1543.12,1.2500000000,2026-10-18,", lines[2]);
+    }
+
+    @Test
+    public void convertsJsonArray() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchConverter.Result result = new BatchConverter(source).convert(
+                fixture("expenses.json"), out, BatchConverter.Format.JSON, null);
+
+        assertEquals(6, result.rows);
+        assertEquals(3, result.converted);
+        assertEquals(3, result.failed);
+        assertEquals("[{\"amount\":100.00,\"from\":\"USD\",\"to\":\"EUR\",\"date\":\"2026-10-01\",\"result\":80.00,\"rate\":0.8000000000,\"rate_date\":\"2026-10-18\"},"
+                        + "{\"amount\":1234.5,\"from\":\"EUR\",\"to\":\"USD\",\"result\":1543.12,\"rate\":1.2500000000,\"rate_date\":\"2026-10-18\"},"
+                        + "{\"amount\":-20,\"from\":\"GBP\",\"to\":\"JPY\",\"result\":-4000.00,\"rate\":200.0000000000,\"rate_date\":\"2026-10-18\"},"
+                        + "{\"amount\":\"abc\",\"from\":\"USD\",\"to\":\"EUR\",\"error\":\"invalid amount\"},"
+                        // Values of the wrong type are skipped and fail their row, like bad CSV fields
+                        + "{\"amount\":null,\"from\":\"USD\",\"to\":\"EUR\",\"error\":\"invalid amount\"},"
+                        + "{\"amount\":5,\"from\":\"\",\"to\":\"EUR\",\"error\":\"unknown currency\"}]",
+                out.toString("UTF-8"));
+    }
+
+    @Test
+    public void amountsThatAreNotJsonNumbersAreWrittenAsStrings() throws IOException {
+        String in = "[{\"amount\":\"-\",\"from\":\"USD\",\"to\":\"EUR\"},"
+                + "{\"amount\":\".\",\"from\":\"USD\",\"to\":\"EUR\"},"
+                + "{\"amount\":\"1.2.3\",\"from\":\"USD\",\"to\":\"EUR\"},"
+                + "{\"amount\":\".5\",\"from\":\"USD\",\"to\":\"EUR\"},"
+                + "{\"amount\":\"5.\",\"from\":\"USD\",\"to\":\"EUR\"},"
+                + "{\"amount\":\"1e2\",\"from\":\"USD\",\"to\":\"EUR\"}]";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BatchConverter(source).convert(new ByteArrayInputStream(in.getBytes(StandardCharsets.UTF_8)),
+                out, BatchConverter.Format.JSON, null);
+
+        assertEquals("[{\"amount\":\"-\",\"from\":\"USD\",\"to\":\"EUR\",\"error\":\"invalid amount\"},"
+                        + "{\"amount\":\".\",\"from\":\"USD\",\"to\":\"EUR\",\"error\":\"invalid amount\"},"
+                        + "{\"amount\":\"1.2.3\",\"from\":\"USD\",\"to\":\"EUR\",\"error\":\"invalid amount\"},"
+                        + "{\"amount\":\".5\",\"from\":\"USD\",\"to\":\"EUR\",\"result\":0.40,\"rate\":0.8000000000,\"rate_date\":\"2026-10-18\"},"
+                        + "{\"amount\":\"5.\",\"from\":\"USD\",\"to\":\"EUR\",\"result\":4.00,\"rate\":0.8000000000,\"rate_date\":\"2026-10-18\"},"
+                        // Valid JSON, though not an amount this parses
+                        + "{\"amount\":1e2,\"from\":\"USD\",\"to\":\"EUR\",\"error\":\"invalid amount\"}]",
+                out.toString("UTF-8"));
+    }
+
+    @Test
+    public void ratesComeFromTheApiWhenNotOnScreen() throws IOException {
+        FakeCurrencyApi api = new FakeCurrencyApi();
+        api.executeBodies.put("USD", FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.8));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchConverter.Result result = new BatchConverter(new ApiRateSource(api, null)).convert(
+                fixture("expenses_no_header.csv"), out, BatchConverter.Format.CSV, null);
+
+        assertEquals(2, result.converted);
+        assertEquals(1, api.calls.size()); // One table covers both directions
+    }
+
+    @Test
+    public void datedRowsWithoutHistoryShowTheDateOfTheRatesUsed() throws IOException {
+        FakeCurrencyApi api = new FakeCurrencyApi();
+        api.executeBodies.put("USD", FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.8));
+        String in = "amount,from,to,date\n100,USD,EUR,2020-01-02\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BatchConverter(new ApiRateSource(api, null)).convert(
+                new ByteArrayInputStream(in.getBytes(StandardCharsets.UTF_8)), out, BatchConverter.Format.CSV, null);
+
+        assertEquals("100,USD,EUR,2020-01-02,80.00,0.8000000000,2026-10-18,", out.toString("UTF-8").split("\n")[1]);
+    }
+
+    @Test(expected = IOException.class)
+    public void failedRateRequestStopsTheRun() throws IOException {
+        FakeCurrencyApi api = new FakeCurrencyApi();
+        api.executeBodies.put("USD", null);
+        new BatchConverter(new ApiRateSource(api, null)).convert(
+                fixture("expenses_no_header.csv"), new ByteArrayOutputStream(), BatchConverter.Format.CSV, null);
+    }
+
+    @Test
+    public void cancelStopsAtTheNextChunk() throws IOException {
+        BatchConverter converter = new BatchConverter(source, 10, ordinal -> 2);
+        List<Long> progress = new ArrayList<>();
+        BatchConverter.Result result = converter.convert(new SyntheticRows(1_000), new ByteArrayOutputStream(),
+                BatchConverter.Format.CSV, (rows, bytes) -> {
+                    progress.add(rows);
+                    if (rows == 30) converter.cancel();
+                });
+
+        assertTrue(result.cancelled);
+        assertEquals(30, result.rows);
+        assertEquals("[10, 20, 30]", progress.toString());
+    }
+
+    // Heap and time per row are measured by BatchConverterBenchmark
+    @Test
+    public void streamsAMillionRows() throws IOException {
+        int rows = 1_000_000;
+        SyntheticRows in = new SyntheticRows(rows);
+        CountingSink out = new CountingSink();
+        List<Long> progress = new ArrayList<>();
+
+        BatchConverter.Result result = new BatchConverter(source).convert(in, out, BatchConverter.Format.CSV,
+                (done, bytes) -> progress.add(done));
+
+        assertEquals(rows, result.converted);
+        assertEquals(in.bytesServed, in.length);
+        // One report per chunk: rows were converted and written as they came, never all held at once
+        assertEquals((rows + BatchConverter.DEFAULT_CHUNK_ROWS - 1) / BatchConverter.DEFAULT_CHUNK_ROWS, progress.size());
+        assertTrue(out.bytes > 0);
+    }
+
+    /** "amount,from,to" CSV generated on the fly, so the file itself is never in memory. */
+    private static class SyntheticRows extends InputStream {
+        final long length;
+        long bytesServed;
+        private final int rows;
+        private int row;
+        private byte[] line = new byte[0];
+        private int pos;
+
+        SyntheticRows(int rows) {
+            this.rows = rows;
+            long total = 0;
+            for (int r = 0; r < rows; r++) total += line(r).length;
+            this.length = total;
+        }
+
+        private static byte[] line(int r) {
+            return ((r % 10_000) + "." + (r % 100) + ",USD,EUR\n").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public int read() {
+            if (pos == line.length) {
+                if (row == rows) return -1;
+                line = line(row++);
+                pos = 0;
+            }
+            bytesServed++;
+            return line[pos++];
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int n = 0;
+            while (n < len) {
+                int c = read();
+                if (c < 0) break;
+                b[off + n++] = (byte) c;
+            }
+            return n == 0 && len > 0 ? -1 : n;
+        }
+    }
+
+    private static class CountingSink extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ChartSeriesTest {
+
+    @Test
+    public void bucketKeepsFirstMinMaxLastInDayOrder() {
+        ChartSeries series = new ChartSeries(5);
+        double[] rates = {1.0, 3.0, 0.5, 2.0, 1.5};
+        for (int d = 0; d < 5; d++) series.add(100 + d, rates[d]); // Days 100-104 are one bucket
+        assertEquals(0, series.pointCount()); // Still open
+
+        assertTrue(series.add(105, 1.0));
+        assertEquals(4, series.pointCount());
+        float[] expectX = {0, 1, 2, 4};
+        float[] expectY = {1.0f, 3.0f, 0.5f, 1.5f};
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expectX[i], series.x(i), 0f);
+            assertEquals(expectY[i], series.y(i), 0f);
+        }
+    }
+
+    @Test
+    public void oneDayBucketsKeepEveryPoint() {
+        ChartSeries series = new ChartSeries(ChartSeries.bucketDaysFor(30, 900));
+        assertEquals(1, series.getBucketDays());
+        for (int d = 0; d < 30; d++) series.add(d, 1 + d);
+        float[] open = new float[8];
+        assertEquals(29, series.pointCount());
+        assertEquals(1, series.openPoints(open));
+        assertEquals(29f, open[0], 0f);
+        assertEquals(30f, open[1], 0f);
+    }
+
+    @Test
+    public void newestDayIsReplacedAndOlderDaysIgnored() {
+        ChartSeries series = new ChartSeries(1);
+        series.add(10, 1.0);
+        series.add(11, 2.0);
+        series.add(11, 2.5);
+        series.add(9, 7.0);
+        series.add(12, Double.NaN);
+        float[] range = new float[2];
+        assertTrue(series.range(0, 20, range));
+        assertEquals(1.0f, range[0], 0f);
+        assertEquals(2.5f, range[1], 0f);
+        assertEquals(11, series.lastDay());
+    }
+
+    @Test
+    public void appendingMatchesBuildingInOneGo() {
+        Random random = new Random(7);
+        int[] days = new int[500];
+        double[] rates = new double[500];
+        int day = 18_000;
+        for (int i = 0; i < days.length; i++) {
+            day += 1 + (random.nextInt(10) == 0 ? 2 : 0); // Weekends and gaps
+            days[i] = day;
+            rates[i] = 1 + random.nextDouble();
+        }
+        ChartSeries all = new ChartSeries(3);
+        for (int i = 0; i < days.length; i++) all.add(days[i], rates[i]);
+
+        // Same data, with a placeholder for each day that is then replaced, as re-fetches do
+        ChartSeries incremental = new ChartSeries(3);
+        for (int i = 0; i < days.length; i++) {
+            incremental.add(days[i], 99.0);
+            incremental.add(days[i], rates[i]);
+        }
+        assertEquals(all.pointCount(), incremental.pointCount());
+        for (int i = 0; i < all.pointCount(); i++) {
+            assertEquals(all.x(i), incremental.x(i), 0f);
+            assertEquals(all.y(i), incremental.y(i), 0f);
+        }
+    }
+
+    @Test
+    public void fiveYearsDecimateToTheWidth() {
+        int width = 300;
+        ChartSeries series = new ChartSeries(ChartSeries.bucketDaysFor(5 * 365, width));
+        Random random = new Random(1);
+        double rate = 1.1, min = Double.MAX_VALUE, max = 0;
+        for (int d = 0; d < 5 * 365; d++) {
+            rate *= Math.exp(random.nextGaussian() * 0.005);
+            min = Math.min(min, rate);
+            max = Math.max(max, rate);
+            series.add(18_000 + d, rate);
+        }
+        assertTrue(series.pointCount() <= 4 * (width + 1));
+
+        // Extremes survive decimation, so the y axis matches the raw data
+        float[] range = new float[2];
+        assertTrue(series.range(18_000, 18_000 + 5 * 365, range));
+        assertEquals((float) min, range[0], 0f);
+        assertEquals((float) max, range[1], 0f);
+    }
+}
@@ -0,0 +1,88 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class ConversionBoardTest {
+
+    private final CrossRateTable table = CrossRateTable.from(
+            FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.8, "JPY", 150.0, "INR", 88.0));
+    private final int usd = CurrencyCodes.ordinal("USD");
+
+    @Test
+    public void convertsIntoEveryPinnedCurrency() {
+        ConversionBoard board = new ConversionBoard();
+        board.pinsFromString("EUR,JPY,GBP");
+        board.compute(table, usd, 1_000_000); // 100.00
+
+        assertEquals(3, board.size());
+        assertEquals("EUR", CurrencyCodes.code(board.ordinal(0)));
+        assertEquals(8_000, board.amount(0));
+        assertEquals(1_500_000, board.amount(1));
+        assertEquals(ConversionBoard.NO_RATE, board.amount(2)); // No GBP rate in the table
+
+        board.compute(table, usd, MoneyFormatter.INVALID);
+        assertEquals(ConversionBoard.NO_RATE, board.amount(0));
+    }
+
+    @Test
+    public void rowsUseTheirCurrencysMinorUnits() {
+        CrossRateTable withKwd = CrossRateTable.from(
+                FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.8, "JPY", 150.0, "KWD", 0.3071));
+        ConversionBoard board = new ConversionBoard(ordinal -> {
+            String code = CurrencyCodes.code(ordinal);
+            return code.equals("JPY") ? 0 : code.equals("KWD") ? 3 : 2;
+        });
+        board.pinsFromString("EUR,JPY,KWD");
+        board.compute(withKwd, usd, 1_000_000); // 100.00
+
+        assertEquals(8_000, board.amount(0));   // 80.00
+        assertEquals(2, board.digits(0));
+        assertEquals(15_000, board.amount(1));  // 15000
+        assertEquals(0, board.digits(1));
+        assertEquals(30_710, board.amount(2));  // 30.710
+        assertEquals(3, board.digits(2));
+    }
+
+    @Test
+    public void pinsKeepTheirOrderAndRoundTrip() {
+        ConversionBoard board = new ConversionBoard();
+        assertTrue(board.pin(CurrencyCodes.ordinal("JPY")));
+        assertTrue(board.pin(CurrencyCodes.ordinal("EUR")));
+        assertFalse(board.pin(CurrencyCodes.ordinal("JPY")));
+        assertFalse(board.pin(-1));
+        assertEquals("JPY,EUR", board.pinsToString());
+
+        board.pinAll(table);
+        assertEquals("JPY,EUR,INR,USD", board.pinsToString());
+        assertTrue(board.unpin(CurrencyCodes.ordinal("EUR")));
+        assertFalse(board.isPinned(CurrencyCodes.ordinal("EUR")));
+        assertEquals("JPY,INR,USD", board.pinsToString());
+
+        ConversionBoard restored = new ConversionBoard();
+        restored.pinsFromString(board.pinsToString() + ",XYZ,,eur");
+        assertEquals("JPY,INR,USD", restored.pinsToString());
+    }
+
+    @Test
+    public void everyRecordedCurrencyMatchesThePairPath() throws IOException {
+        CrossRateTable recorded = CrossRateTable.from(
+                new RatePayloadParser().parse(new StringReader(RatePayloadParserTest.recordedPayload())));
+        ConversionBoard board = new ConversionBoard();
+        board.pinAll(recorded);
+        int eur = CurrencyCodes.ordinal("EUR");
+        long amount = new MoneyFormatter(Locale.US).parseAmount("1234.56");
+        board.compute(recorded, eur, amount);
+
+        assertTrue(board.size() > 150);
+        for (int row = 0; row < board.size(); row++) {
+            long expected = MoneyFormatter.multiply(amount, MoneyFormatter.scaleRate(recorded.rate(eur, board.ordinal(row))), 2);
+            assertEquals(CurrencyCodes.code(board.ordinal(row)), expected, board.amount(row));
+        }
+    }
+}
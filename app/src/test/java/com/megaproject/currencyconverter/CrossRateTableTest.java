@@ -0,0 +1,50 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CrossRateTableTest {
+
+    private final CrossRateTable table = CrossRateTable.from(
+            FakeCurrencyApi.response("USD", "2026-10-18", "USD", 1.0, "EUR", 0.8, "INR", 88.0, "XYZ", 3.0));
+
+    @Test
+    public void directRatesComeFromTheBase() {
+        assertEquals(0.8, table.rate("USD", "EUR"), 1e-12);
+        assertEquals(1.0, table.rate("USD", "USD"), 1e-12);
+    }
+
+    @Test
+    public void reverseAndCrossRatesAreTriangulated() {
+        assertEquals(1.25, table.rate("EUR", "USD"), 1e-12);
+        assertEquals(110.0, table.rate("EUR", "INR"), 1e-9);
+        assertEquals(220.0, table.convert(2.0, CurrencyCodes.ordinal("EUR"), CurrencyCodes.ordinal("INR")), 1e-9);
+    }
+
+    @Test
+    public void unknownCurrenciesHaveNoRate() {
+        assertFalse(table.has("GBP"));
+        assertTrue(Double.isNaN(table.rate("USD", "GBP")));
+        assertEquals(-1, CurrencyCodes.ordinal("XYZ"));
+        assertEquals(-1, CurrencyCodes.ordinal("usd"));
+    }
+
+    @Test
+    public void crossRatesMatchesPairLookups() {
+        double[] out = new double[CurrencyCodes.count()];
+        int eur = CurrencyCodes.ordinal("EUR");
+        table.crossRates(eur, out);
+        for (int i = 0; i < out.length; i++) {
+            double expected = table.rate(eur, i);
+            if (Double.isNaN(expected)) {
+                assertTrue(Double.isNaN(out[i]));
+            } else {
+                assertEquals(expected, out[i], 0.0);
+            }
+        }
+
+        table.crossRates(CurrencyCodes.ordinal("GBP"), out); // No rate for the source, nothing converts
+        assertTrue(Double.isNaN(out[CurrencyCodes.ordinal("USD")]));
+    }
+}
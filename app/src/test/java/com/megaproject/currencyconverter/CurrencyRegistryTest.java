@@ -0,0 +1,78 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CurrencyRegistryTest {
+
+    // Unit tests run from the module directory
+    private static CurrencyRegistry asset() throws IOException {
+        try (InputStream in = new FileInputStream("src/main/assets/" + CurrencyRegistry.ASSET)) {
+            return CurrencyRegistry.read(in);
+        }
+    }
+
+    @Test
+    public void assetCoversEveryCode() throws IOException {
+        CurrencyRegistry registry = asset();
+        for (int ordinal = 0; ordinal < CurrencyCodes.count(); ordinal++) {
+            String code = CurrencyCodes.code(ordinal);
+            assertTrue(code, registry.has(ordinal));
+            assertFalse(code, registry.name(ordinal).equals(code));
+            assertFalse(code, registry.symbol(ordinal).isEmpty());
+            assertTrue(code, registry.minorUnits(ordinal) >= 0 && registry.minorUnits(ordinal) <= 4);
+        }
+    }
+
+    @Test
+    public void readsIsoMetadata() throws IOException {
+        CurrencyRegistry registry = asset();
+        assertEquals("Japanese Yen", registry.name("JPY"));
+        assertEquals(0, registry.minorUnits("JPY"));
+        assertEquals(3, registry.minorUnits("KWD"));
+        assertEquals(4, registry.minorUnits("CLF"));
+        assertEquals(2, registry.minorUnits("USD"));
+        assertEquals("$", registry.prefix("USD"));
+        assertEquals("CHF ", registry.prefix("CHF"));
+        assertEquals("https://flagcdn.com/w160/eu.png", registry.flagUrl("EUR"));
+        assertEquals("cm", registry.country(CurrencyCodes.ordinal("XAF")));
+        assertNull(registry.flagUrl("XDR"));
+        assertTrue(Arrays.asList(registry.aliases(CurrencyCodes.ordinal("EUR"))).contains("Germany"));
+        assertEquals("São Tomé and Príncipe Dobra", registry.name("STN"));
+    }
+
+    @Test
+    public void unknownCodesFallBackToTheCode() throws IOException {
+        CurrencyRegistry registry = asset();
+        assertEquals("XXX", registry.name("XXX"));
+        assertEquals("XXX ", registry.prefix("XXX"));
+        assertEquals(2, registry.minorUnits("XXX"));
+        assertNull(registry.flagUrl("XXX"));
+
+        CurrencyRegistry empty = CurrencyRegistry.empty();
+        int usd = CurrencyCodes.ordinal("USD");
+        assertFalse(empty.has(usd));
+        assertEquals("USD", empty.name(usd));
+        assertEquals("USD ", empty.prefix(usd));
+        assertEquals(0, empty.aliases(usd).length);
+    }
+
+    @Test
+    public void rejectsOtherFiles() {
+        byte[][] bad = {{}, "{\"rates\":{}}".getBytes(), {'C', 'U', 'R', '1', 0, 5, 0, 12}};
+        for (byte[] data : bad) {
+            try {
+                CurrencyRegistry.read(new ByteArrayInputStream(data));
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CurrencySearchIndexTest {
+
+    private final CurrencySearchIndex index = new CurrencySearchIndex()
+            .add(new CurrencyItem("USD", "United States Dollar", null), "United States", "America")
+            .add(new CurrencyItem("EUR", "Euro", null), "Europe", "Eurozone", "Germany")
+            .add(new CurrencyItem("BRL", "Brazilian Réal", null), "Brazil")
+            .add(new CurrencyItem("ANG", "Netherlands Antillean Guilder", null), "Curaçao", "Sint Maarten")
+            .add(new CurrencyItem("SEK", "Swedish Krona", null), "Sweden")
+            .add(new CurrencyItem("AUD", "Australian Dollar", null), "Australia")
+            .add(new CurrencyItem("HEADER"))
+            .add(new CurrencyItem("NZD", "New Zealand Dollar", null), "New Zealand")
+            .build();
+
+    private List<String> codes(String query) {
+        List<String> codes = new ArrayList<>();
+        for (CurrencyItem item : index.search(query)) codes.add(item.getCode());
+        return codes;
+    }
+
+    @Test
+    public void ranksExactCodeThenPrefixThenSubstring() {
+        assertEquals(List.of("EUR"), codes("eur"));
+        assertEquals(List.of("ANG", "EUR", "BRL", "AUD", "NZD"), codes("an")); // Code prefix, then "Germany", "Brazilian"... in list order
+        assertEquals(List.of("ANG", "NZD", "EUR"), codes("ne"));               // "Netherlands", "New" start with it, "Eurozone" only contains it
+        assertEquals(List.of("USD", "AUD", "NZD"), codes("dollar"));
+    }
+
+    @Test
+    public void accentsAndCaseAreIgnored() {
+        assertEquals(List.of("BRL"), codes("REAL"));
+        assertEquals(List.of("BRL"), codes("réal"));
+        assertEquals(List.of("ANG"), codes("curacao"));
+        assertEquals(List.of("ANG"), codes("Curaçao"));
+    }
+
+    @Test
+    public void everyWordMustMatch() {
+        assertEquals(List.of("NZD"), codes("new dollar"));
+        assertEquals(List.of("USD"), codes("united  st."));
+        assertTrue(codes("new krona").isEmpty());
+    }
+
+    @Test
+    public void emptyQueryAndHeadersMatchNothing() {
+        assertTrue(codes("").isEmpty());
+        assertTrue(codes(" - ").isEmpty());
+        assertTrue(codes("header").isEmpty());
+        assertEquals(7, index.size());
+    }
+
+    @Test
+    public void normalizesToWords() {
+        assertEquals("cote d ivoire", CurrencySearchIndex.normalize("Côte d'Ivoire"));
+        assertEquals("sao tome", CurrencySearchIndex.normalize("  São-Tomé "));
+    }
+}
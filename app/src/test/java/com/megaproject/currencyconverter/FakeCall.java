@@ -0,0 +1,93 @@
+package com.megaproject.currencyconverter;
+
+import java.io.IOException;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Stand-in for a Retrofit call. The test decides when (and how) it completes, which lets it
+ * play the server's part the same way MockWebServer would, without sockets.
+ */
+class FakeCall<T> implements Call<T> {
+
+    private Callback<T> callback;
+    Response<T> executeResponse; // What execute() returns, for code that calls synchronously
+    private boolean executed;
+    private boolean canceled;
+
+    // What Retrofit hands back for a 304: not successful, no body
+    static <T> Response<T> notModified() {
+        okhttp3.Response raw = new okhttp3.Response.Builder()
+                .code(304)
+                .message("Not Modified")
+                .protocol(okhttp3.Protocol.HTTP_1_1)
+                .request(new Request.Builder().url("http://localhost/").build())
+                .build();
+        return Response.error(okhttp3.ResponseBody.create(null, ""), raw);
+    }
+
+    void respond(T body) {
+        complete(Response.success(body));
+    }
+
+    // Still delivers after cancel(), like a reply that was already on its way when it was cancelled
+    void complete(Response<T> response) {
+        if (callback == null) return;
+        callback.onResponse(this, response);
+    }
+
+    void fail(Throwable t) {
+        if (callback == null) return;
+        callback.onFailure(this, t);
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        executed = true;
+        if (executeResponse == null) throw new UnsupportedOperationException("No response set for execute()");
+        return executeResponse;
+    }
+
+    @Override
+    public void enqueue(Callback<T> callback) {
+        executed = true;
+        this.callback = callback;
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return executed;
+    }
+
+    @Override
+    public void cancel() {
+        if (canceled) return;
+        canceled = true;
+        // Retrofit reports cancellation through onFailure, mirror that
+        if (callback != null) callback.onFailure(this, new IOException("Canceled"));
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    @Override
+    public Call<T> clone() {
+        return new FakeCall<>();
+    }
+
+    @Override
+    public Request request() {
+        return null;
+    }
+
+    @Override
+    public Timeout timeout() {
+        return Timeout.NONE;
+    }
+}
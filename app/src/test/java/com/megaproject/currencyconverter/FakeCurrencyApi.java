@@ -0,0 +1,53 @@
+package com.megaproject.currencyconverter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+
+/** Records every call made against the API so tests can answer them one by one. */
+class FakeCurrencyApi implements CurrencyApiService {
+
+    final List<FakeCall<ExchangeRateResponse>> calls = new ArrayList<>();
+    final List<String> requestedBases = new ArrayList<>();
+    final Map<String, ExchangeRateResponse> executeBodies = new HashMap<>(); // Answers for execute(), by base
+    final List<retrofit2.Response<ExchangeRateResponse>> conditionalResponses = new ArrayList<>(); // Handed out in order
+    final List<String> conditionalHeaders = new ArrayList<>(); // "etag|lastModified" per conditional call
+
+    @Override
+    public Call<ExchangeRateResponse> getLatestRates(String base) {
+        FakeCall<ExchangeRateResponse> call = new FakeCall<>();
+        if (executeBodies.containsKey(base)) call.executeResponse = retrofit2.Response.success(executeBodies.get(base));
+        calls.add(call);
+        requestedBases.add(base);
+        return call;
+    }
+
+    @Override
+    public Call<ExchangeRateResponse> getLatestRates(String base, String etag, String lastModified) {
+        FakeCall<ExchangeRateResponse> call = new FakeCall<>();
+        call.executeResponse = conditionalResponses.isEmpty() ? null : conditionalResponses.remove(0);
+        calls.add(call);
+        requestedBases.add(base);
+        conditionalHeaders.add(etag + "|" + lastModified);
+        return call;
+    }
+
+    FakeCall<ExchangeRateResponse> lastCall() {
+        return calls.get(calls.size() - 1);
+    }
+
+    static ExchangeRateResponse response(String base, String date, Object... codesAndRates) {
+        ExchangeRateResponse response = new ExchangeRateResponse();
+        response.base = base;
+        response.date = date;
+        Map<String, Double> rates = new HashMap<>();
+        for (int i = 0; i < codesAndRates.length; i += 2) {
+            rates.put((String) codesAndRates[i], ((Number) codesAndRates[i + 1]).doubleValue());
+        }
+        response.rates = rates;
+        return response;
+    }
+}
@@ -0,0 +1,48 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+public class FlagAtlasIndexTest {
+
+    private static CurrencyRegistry registry() throws IOException {
+        try (InputStream in = new FileInputStream("src/main/assets/" + CurrencyRegistry.ASSET)) {
+            return CurrencyRegistry.read(in);
+        }
+    }
+
+    @Test
+    public void mapsCurrenciesToTheirCountrysCell() throws IOException {
+        FlagAtlasIndex index = FlagAtlasIndex.parse("80 16\neu gb jp us cn\n", registry());
+        assertEquals(80, index.cellSize());
+        assertEquals(0, index.cell("EUR"));
+        assertEquals(3, index.cell("USD"));
+        assertEquals(4, index.cell("CNY"));
+        assertEquals(4, index.cell("CNH"));  // Same flag
+        assertEquals(-1, index.cell("AUD")); // Not packed
+        assertEquals(-1, index.cell("XDR")); // No country
+        assertEquals(-1, index.cell("XXX"));
+    }
+
+    @Test
+    public void cellsSitInsideTheirGutters() throws IOException {
+        FlagAtlasIndex index = FlagAtlasIndex.parse("80 16\neu", registry());
+        assertEquals(1, index.left(0));
+        assertEquals(1, index.top(0));
+        assertEquals(15 * 82 + 1, index.left(15));
+        assertEquals(1, index.left(16));
+        assertEquals(82 + 1, index.top(16));
+    }
+
+    @Test
+    public void malformedIndexHasNoFlags() throws IOException {
+        for (String text : new String[] {"", "eu gb", "x 16\neu", "0 16\neu", "80\neu"}) {
+            assertEquals(text, -1, FlagAtlasIndex.parse(text, registry()).cell("EUR"));
+        }
+    }
+}
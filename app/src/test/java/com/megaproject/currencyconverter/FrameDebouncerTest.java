@@ -0,0 +1,96 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameDebouncerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final List<Runnable> frameCallbacks = new ArrayList<>();
+    private final PerfMetrics metrics = new PerfMetrics();
+    private long now;
+    private int runs;
+    private FrameDebouncer debouncer;
+
+    @Before
+    public void setUp() {
+        debouncer = new FrameDebouncer(frameCallbacks::add, () -> {
+            runs++;
+            now += 2 * MS; // The recompute itself
+        }, metrics, () -> now);
+    }
+
+    private void frame() {
+        List<Runnable> due = new ArrayList<>(frameCallbacks);
+        frameCallbacks.clear();
+        for (Runnable callback : due) callback.run();
+    }
+
+    @Test
+    public void keystrokesInOneFrameRunTheWorkOnce() {
+        for (int i = 0; i < 5; i++) {
+            debouncer.onInput();
+            now += MS;
+        }
+        assertEquals(1, frameCallbacks.size());
+        assertEquals(0, runs);
+
+        frame();
+        assertEquals(1, runs);
+        assertFalse(debouncer.isPending());
+
+        frame(); // Nothing typed since
+        assertEquals(1, runs);
+    }
+
+    @Test
+    public void eachKeystrokeGetsALatencySample() {
+        debouncer.onInput();
+        now += 4 * MS;
+        debouncer.onInput();
+        now += 4 * MS;
+        frame();
+
+        PerfMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.count(PerfMetrics.Timer.KEYSTROKE));
+        assertEquals(10 * MS, snapshot.maxNanos(PerfMetrics.Timer.KEYSTROKE)); // First key waited 8 ms plus 2 ms of work
+        assertEquals(8 * MS, snapshot.meanNanos(PerfMetrics.Timer.KEYSTROKE));
+
+        debouncer.onInput();
+        now += 20 * MS; // A janky frame
+        frame();
+        snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.count(PerfMetrics.Timer.KEYSTROKE));
+        assertEquals(22 * MS, snapshot.percentileNanos(PerfMetrics.Timer.KEYSTROKE, 100));
+    }
+
+    @Test
+    public void cancelDropsPendingInput() {
+        debouncer.onInput();
+        debouncer.cancel();
+        frame();
+        assertEquals(0, runs);
+        assertEquals(0, metrics.snapshot().count(PerfMetrics.Timer.KEYSTROKE));
+
+        // Typing again after a cancel is picked up by the next frame
+        debouncer.onInput();
+        frame();
+        assertEquals(1, runs);
+    }
+
+    @Test
+    public void inputDuringTheFrameSchedulesTheNextOne() {
+        debouncer.onInput();
+        frame();
+        debouncer.onInput();
+        assertEquals(1, frameCallbacks.size());
+        frame();
+        assertEquals(2, runs);
+    }
+}
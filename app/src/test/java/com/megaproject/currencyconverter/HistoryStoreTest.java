@@ -0,0 +1,122 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HistoryStoreTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static HistoryItem item(double amount) {
+        return new HistoryItem("USD", "EUR", amount, amount * 0.9, 1_700_000_000_000L + (long) amount);
+    }
+
+    @Test
+    public void pagesAreNewestFirst() throws IOException {
+        try (HistoryStore store = new HistoryStore(tmp.newFolder())) {
+            for (int i = 0; i < 10; i++) store.append(item(i));
+
+            List<HistoryItem> first = store.readPage(0, 3);
+            assertEquals(3, first.size());
+            assertEquals(9, first.get(0).fromAmount, 0.0);
+            assertEquals(7, first.get(2).fromAmount, 0.0);
+            assertEquals("EUR", first.get(0).toCode);
+
+            List<HistoryItem> last = store.readPage(8, 5);
+            assertEquals(2, last.size());
+            assertEquals(0, last.get(1).fromAmount, 0.0);
+        }
+    }
+
+    @Test
+    public void deletesSurviveReopenAndShiftPositions() throws IOException {
+        File dir = tmp.newFolder();
+        try (HistoryStore store = new HistoryStore(dir)) {
+            for (int i = 0; i < 6; i++) store.append(item(i));
+            store.delete(store.readPage(0, 1).get(0).id); // 5
+            store.delete(2);
+        }
+        try (HistoryStore store = new HistoryStore(dir)) {
+            assertEquals(4, store.size());
+            List<HistoryItem> all = store.readPage(0, 10);
+            assertEquals(4, all.get(0).fromAmount, 0.0);
+            assertEquals(3, all.get(1).fromAmount, 0.0);
+            assertEquals(1, all.get(2).fromAmount, 0.0);
+            assertEquals(0, all.get(3).fromAmount, 0.0);
+        }
+    }
+
+    @Test
+    public void compactDropsDeletedRecords() throws IOException {
+        File dir = tmp.newFolder();
+        try (HistoryStore store = new HistoryStore(dir)) {
+            for (int i = 0; i < 5; i++) store.append(item(i));
+            store.delete(0);
+            store.delete(3);
+            store.compact();
+            assertEquals(0, store.deletedCount());
+            assertEquals(3, store.size());
+            store.append(item(9));
+        }
+        assertEquals(16 + 4 * HistoryStore.RECORD_SIZE, new File(dir, "history.dat").length());
+        try (HistoryStore store = new HistoryStore(dir)) {
+            List<HistoryItem> all = store.readPage(0, 10);
+            assertEquals(9, all.get(0).fromAmount, 0.0);
+            assertEquals(4, all.get(1).fromAmount, 0.0);
+            assertEquals(1, all.get(3).fromAmount, 0.0);
+        }
+    }
+
+    @Test
+    public void tornAppendIsDroppedOnOpen() throws IOException {
+        File dir = tmp.newFolder();
+        try (HistoryStore store = new HistoryStore(dir)) {
+            store.append(item(1));
+            store.append(item(2));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(new File(dir, "history.dat"), "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+        try (HistoryStore store = new HistoryStore(dir)) {
+            assertEquals(1, store.size());
+            assertEquals(1, store.readPage(0, 1).get(0).fromAmount, 0.0);
+        }
+    }
+
+    @Test
+    public void legacyEntriesKeepTheirOrderAndText() throws IOException {
+        File dir = tmp.newFolder();
+        // Saved on different days, each with the text it showed back then
+        List<HistoryItem> legacy = new ArrayList<>();
+        legacy.add(new HistoryItem("EUR", "JPY", 200, 31400, "Today, 9:00 AM"));
+        legacy.add(new HistoryItem("GBP", "USD", 50, 63.20, "Today, 2:15 PM"));
+        legacy.add(new HistoryItem("USD", "EUR", 100, 92.54, "Today, 10:30 AM"));
+        try (HistoryStore store = new HistoryStore(dir)) {
+            store.importLegacy(legacy);
+            store.append(item(1)); // Converted after the migration
+            store.delete(legacy.get(1).id);
+        }
+        try (HistoryStore store = new HistoryStore(dir)) {
+            store.compact();
+            List<HistoryItem> all = store.readPage(0, 10);
+            assertEquals(3, all.size());
+            assertEquals(1_700_000_000_001L, all.get(0).timestamp);
+            assertEquals("USD", all.get(1).fromCode);
+            assertEquals(HistoryStore.UNKNOWN_DATE, all.get(1).timestamp);
+            assertEquals("Today, 10:30 AM", all.get(1).date);
+            assertEquals("EUR", all.get(2).fromCode);
+            assertEquals(HistoryStore.UNKNOWN_DATE, all.get(2).timestamp);
+            assertEquals("Today, 9:00 AM", all.get(2).date);
+        }
+    }
+}
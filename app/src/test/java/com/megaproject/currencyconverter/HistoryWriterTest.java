@@ -0,0 +1,69 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class HistoryWriterTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static HistoryItem item(double amount) {
+        return new HistoryItem("USD", "EUR", amount, amount * 0.9, 1_700_000_000_000L);
+    }
+
+    private static long dataLength(File dir) {
+        return new File(dir, "history.dat").length();
+    }
+
+    @Test
+    public void changesAreVisibleAtOnceAndWrittenInOneBatch() throws Exception {
+        File dir = tmp.newFolder();
+        HistoryStore store = new HistoryStore(dir);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        HistoryWriter writer = new HistoryWriter(store, executor, 10_000);
+
+        for (int i = 0; i < 5; i++) writer.insert(item(i));
+        writer.delete(1);
+
+        // Readable straight away, nothing on disk until the batch goes out
+        assertEquals(4, store.size());
+        assertEquals(4, store.readPage(0, 1).get(0).fromAmount, 0.0);
+        assertEquals(16, dataLength(dir));
+
+        writer.flush();
+        executor.submit(() -> { }).get(5, TimeUnit.SECONDS); // Wait for the flush ahead of it
+        assertFalse(store.hasPendingWrites());
+        assertEquals(16 + 5 * HistoryStore.RECORD_SIZE, dataLength(dir));
+
+        writer.close();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void closeMakesDeletesDurable() throws IOException, InterruptedException {
+        File dir = tmp.newFolder();
+        HistoryStore store = new HistoryStore(dir);
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        HistoryWriter writer = new HistoryWriter(store, executor, 10_000);
+        writer.insert(item(1));
+        writer.insert(item(2));
+        writer.delete(0);
+        writer.close();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        try (HistoryStore reopened = new HistoryStore(dir)) {
+            assertEquals(1, reopened.size());
+            assertEquals(2, reopened.readPage(0, 1).get(0).fromAmount, 0.0);
+        }
+    }
+}
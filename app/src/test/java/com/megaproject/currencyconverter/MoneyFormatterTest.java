@@ -0,0 +1,108 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class MoneyFormatterTest {
+
+    private final MoneyFormatter us = new MoneyFormatter(Locale.US);
+
+    @Test
+    public void parsesTypedAmounts() {
+        assertEquals(1_000_000, us.parseAmount("100"));
+        assertEquals(1_234_500, us.parseAmount("123.45"));
+        assertEquals(5_000, us.parseAmount(".5"));
+        assertEquals(70_000, us.parseAmount("7."));
+        assertEquals(12_345, us.parseAmount("1.234567")); // Past AMOUNT_SCALE decimals is dropped
+        assertEquals(1_234_500, new MoneyFormatter(Locale.GERMANY).parseAmount("123,45"));
+    }
+
+    @Test
+    public void rejectsMalformedAmounts() {
+        assertEquals(MoneyFormatter.INVALID, us.parseAmount(""));
+        assertEquals(MoneyFormatter.INVALID, us.parseAmount("."));
+        assertEquals(MoneyFormatter.INVALID, us.parseAmount("1.2.3"));
+        assertEquals(MoneyFormatter.INVALID, us.parseAmount("-5"));
+        assertEquals(MoneyFormatter.INVALID, us.parseAmount("12a"));
+        assertEquals(MoneyFormatter.INVALID, us.parseAmount("99999999999999999999"));
+    }
+
+    @Test
+    public void multiplyMatchesBigDecimalHalfEven() {
+        long[] amounts = {0, 1, 5_000, 1_234_500, 999_999_999, 123_456_789_012_345L, 9_000_000_000_000_000L / 1000};
+        double[] rates = {0.925412, 1.0, 0.0000123, 157.84, 42_350.5, 0.00125, 1.5};
+        for (long amount : amounts) {
+            for (double rate : rates) {
+                long scaledRate = MoneyFormatter.scaleRate(rate);
+                BigDecimal expected = BigDecimal.valueOf(amount).scaleByPowerOfTen(-MoneyFormatter.AMOUNT_SCALE)
+                        .multiply(BigDecimal.valueOf(scaledRate).scaleByPowerOfTen(-MoneyFormatter.RATE_SCALE))
+                        .setScale(2, RoundingMode.HALF_EVEN);
+                long actual = MoneyFormatter.multiply(amount, scaledRate, 2);
+                if (expected.unscaledValue().bitLength() < 63) {
+                    assertEquals(amount + " x " + rate, expected.unscaledValue().longValue(), actual);
+                } else {
+                    assertEquals(Long.MAX_VALUE, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void roundsHalfToEven() {
+        // 0.125 and 0.135 in cents
+        assertEquals(12, MoneyFormatter.multiply(1_250, MoneyFormatter.scaleRate(1), 2));
+        assertEquals(14, MoneyFormatter.multiply(1_350, MoneyFormatter.scaleRate(1), 2));
+        assertEquals(9_254, MoneyFormatter.rescale(9_254_123_450L, MoneyFormatter.RATE_SCALE, 4));
+    }
+
+    @Test
+    public void formatsWithLocaleSeparators() {
+        StringBuilder out = new StringBuilder();
+        us.appendMoney(out, "$", 123_456_789, 2);
+        assertEquals("$1,234,567.89", out.toString());
+
+        out.setLength(0);
+        new MoneyFormatter(Locale.GERMANY).appendMoney(out, "€", 123_456_789, 2);
+        assertEquals("€1.234.567,89", out.toString());
+
+        out.setLength(0);
+        us.appendDecimal(out, 5, 2, true);
+        out.append(' ');
+        us.appendDecimal(out, 999, 0, true);
+        out.append(' ');
+        us.appendDecimal(out, 9_254, 4, false);
+        assertEquals("0.05 999 0.9254", out.toString());
+    }
+
+    // Allocation per conversion is measured by ConversionBenchmark.formatResultReused (gc profiler)
+    @Test
+    public void conversionReusesItsBuffers() {
+        // Same steps as MainActivity.performConversion: typed text in, characters for the TextView out
+        StringBuilder typed = new StringBuilder("1234.56");
+        StringBuilder text = new StringBuilder(64);
+        char[] chars = new char[64];
+
+        int length = convert(typed, 0.925412, text, chars);
+        assertEquals("$1,142.48", new String(chars, 0, length));
+        typed.setLength(0);
+        typed.append("5");
+        length = convert(typed, 0.925412, text, chars);
+        assertEquals("$4.63", new String(chars, 0, length));
+        assertEquals("$4.63", text.toString()); // Nothing left over from the longer result
+    }
+
+    private int convert(CharSequence typed, double rate, StringBuilder text, char[] chars) {
+        long amount = us.parseAmount(typed);
+        long result = MoneyFormatter.multiply(amount, MoneyFormatter.scaleRate(rate), 2);
+        text.setLength(0);
+        us.appendMoney(text, "$", result, 2);
+        int length = text.length();
+        text.getChars(0, length, chars, 0);
+        return length;
+    }
+}
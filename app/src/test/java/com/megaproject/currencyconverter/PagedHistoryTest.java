@@ -0,0 +1,72 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PagedHistoryTest {
+
+    private static final int ENTRIES = 1_000_000;
+
+    /** Synthetic history that builds entries on demand, so only what PagedHistory keeps is on the heap. */
+    private static class SyntheticSource implements HistoryPageSource {
+        int pagesRead;
+
+        @Override
+        public int size() {
+            return ENTRIES;
+        }
+
+        @Override
+        public List<HistoryItem> readPage(int start, int count) {
+            pagesRead++;
+            int end = Math.min(ENTRIES, start + count);
+            List<HistoryItem> page = new ArrayList<>(end - start);
+            for (int p = start; p < end; p++) {
+                HistoryItem item = new HistoryItem("USD", "EUR", p, p * 0.9, 1_700_000_000_000L - p);
+                item.date = "Today, 10:30 AM";
+                item.id = ENTRIES - 1 - p;
+                page.add(item);
+            }
+            return page;
+        }
+    }
+
+    @Test
+    public void rowsComeFromTheRightPage() {
+        PagedHistory history = new PagedHistory(new SyntheticSource());
+        assertEquals(ENTRIES, history.size());
+        assertEquals(0, history.get(0).fromAmount, 0.0);
+        assertEquals(123_456, history.get(123_456).fromAmount, 0.0);
+        assertEquals(ENTRIES - 1, history.get(ENTRIES - 1).fromAmount, 0.0);
+        assertNull(history.get(ENTRIES));
+    }
+
+    @Test
+    public void scrollingBackAndForthReusesNearbyPages() {
+        SyntheticSource source = new SyntheticSource();
+        PagedHistory history = new PagedHistory(source);
+        for (int p = 0; p < 200; p++) history.get(p);
+        for (int p = 199; p >= 100; p--) history.get(p);
+        assertEquals(4, source.pagesRead); // Pages 0-3, none read twice
+    }
+
+    // Heap and time per row are measured by PagedHistoryBenchmark
+    @Test
+    public void scrollingAMillionEntriesKeepsOnlyAFewPages() {
+        SyntheticSource source = new SyntheticSource();
+        PagedHistory history = new PagedHistory(source);
+
+        long checksum = 0;
+        for (int p = 0; p < ENTRIES; p++) {
+            checksum += (long) history.get(p).fromAmount;
+            assertTrue(history.residentItemCount() <= PagedHistory.MAX_PAGES * PagedHistory.PAGE_SIZE);
+        }
+
+        assertEquals((long) ENTRIES * (ENTRIES - 1) / 2, checksum);
+        assertEquals(ENTRIES / PagedHistory.PAGE_SIZE, source.pagesRead);
+    }
+}
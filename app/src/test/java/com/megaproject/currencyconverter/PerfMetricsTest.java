@@ -0,0 +1,92 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PerfMetricsTest {
+
+    private final PerfMetrics metrics = new PerfMetrics();
+
+    @Test
+    public void bucketsArePowersOfTwo() {
+        assertEquals(0, PerfMetrics.bucket(0));
+        assertEquals(1, PerfMetrics.bucket(1));
+        assertEquals(2, PerfMetrics.bucket(3));
+        assertEquals(11, PerfMetrics.bucket(1024));
+        assertEquals(PerfMetrics.BUCKETS - 1, PerfMetrics.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void timersKeepCountMeanMaxAndPercentiles() {
+        for (int i = 1; i <= 1000; i++) metrics.recordNanos(PerfMetrics.Timer.CONVERSION, i * 1000L); // 1 µs to 1 ms
+        PerfMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1000, snapshot.count(PerfMetrics.Timer.CONVERSION));
+        assertEquals(500_500, snapshot.meanNanos(PerfMetrics.Timer.CONVERSION));
+        assertEquals(1_000_000, snapshot.maxNanos(PerfMetrics.Timer.CONVERSION));
+        // Within the factor of two the buckets allow
+        long p50 = snapshot.percentileNanos(PerfMetrics.Timer.CONVERSION, 50);
+        long p99 = snapshot.percentileNanos(PerfMetrics.Timer.CONVERSION, 99);
+        assertTrue(String.valueOf(p50), p50 >= 250_000 && p50 <= 1_000_000);
+        assertTrue(String.valueOf(p99), p99 >= 495_000 && p99 <= 1_000_000);
+        assertEquals(0, snapshot.count(PerfMetrics.Timer.FLAG_LOAD));
+        assertEquals(0, snapshot.percentileNanos(PerfMetrics.Timer.FLAG_LOAD, 50));
+    }
+
+    @Test
+    public void fetchesAreAlsoKeptPerBase() {
+        long start = PerfMetrics.now();
+        metrics.recordFetch("EUR", start);
+        metrics.recordFetch("EUR", start);
+        metrics.recordFetch("JPY", start);
+        metrics.recordFetch("???", start);
+        PerfMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(4, snapshot.count(PerfMetrics.Timer.RATE_FETCH));
+        assertEquals(2, snapshot.fetchCount(CurrencyCodes.ordinal("EUR")));
+        assertEquals(1, snapshot.fetchCount(CurrencyCodes.ordinal("JPY")));
+        assertEquals(0, snapshot.fetchCount(CurrencyCodes.ordinal("USD")));
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothing() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long offset = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    metrics.recordNanos(PerfMetrics.Timer.CURRENCY_BIND, i + offset);
+                    metrics.count(PerfMetrics.Counter.RATE_CACHE_HIT);
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        PerfMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(400_000, snapshot.count(PerfMetrics.Timer.CURRENCY_BIND));
+        assertEquals(400_000, snapshot.count(PerfMetrics.Counter.RATE_CACHE_HIT));
+        assertEquals(99_999 + 3, snapshot.maxNanos(PerfMetrics.Timer.CURRENCY_BIND));
+    }
+
+    @Test
+    public void exportsCsvAndResets() throws Exception {
+        metrics.recordNanos(PerfMetrics.Timer.HISTORY_PERSIST, 2_000_000);
+        metrics.recordFetch("GBP", PerfMetrics.now());
+        metrics.count(PerfMetrics.Counter.RATE_CACHE_MISS);
+        StringWriter out = new StringWriter();
+        metrics.snapshot().writeCsv(out);
+        String csv = out.toString();
+        assertTrue(csv, csv.startsWith("metric,count,mean_ns,p50_ns,p95_ns,p99_ns,max_ns\n"));
+        assertTrue(csv, csv.contains("\nhistory_persist,1,2000000,"));
+        assertTrue(csv, csv.contains("\nrate_fetch_GBP,1,"));
+        assertTrue(csv, csv.contains("\nrate_cache_miss,1\n"));
+        assertFalse(metrics.snapshot().summary().isEmpty());
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().count(PerfMetrics.Timer.HISTORY_PERSIST));
+        assertEquals(0, metrics.snapshot().count(PerfMetrics.Counter.RATE_CACHE_MISS));
+    }
+}
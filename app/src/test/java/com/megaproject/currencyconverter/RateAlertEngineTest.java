@@ -0,0 +1,200 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RateAlertEngineTest {
+
+    private static final int DAY = 20_744;
+
+    private static CrossRateTable eurInr(double rate) {
+        return CrossRateTable.from(FakeCurrencyApi.response("EUR", "2026-10-18", "INR", rate, "USD", 1.1));
+    }
+
+    private CrossRateTable previous;
+
+    // Evaluates with the changes since the table this test evaluated last, as RateSnapshots gives them
+    private List<RateAlertEngine.Alert> evaluate(RateAlertEngine engine, CrossRateTable table, int day,
+                                                 RateAlertEngine.DayRates dayRates) {
+        RateSnapshots.Changes changes = RateSnapshots.Changes.between(previous, table);
+        previous = table;
+        return engine.evaluate(table, changes, day, dayRates);
+    }
+
+    private static List<Long> ids(List<RateAlertEngine.Alert> alerts) {
+        List<Long> ids = new ArrayList<>();
+        for (RateAlertEngine.Alert alert : alerts) ids.add(alert.rule.id);
+        return ids;
+    }
+
+    private static RateAlertRule rule(RateAlertRule.Kind kind, double threshold) {
+        return new RateAlertRule("EUR", "INR", kind, threshold);
+    }
+
+    @Test
+    public void thresholdsFireOnceWhenCrossed() {
+        RateAlertEngine engine = new RateAlertEngine();
+        RateAlertRule above92 = rule(RateAlertRule.Kind.ABOVE, 92);
+        RateAlertRule above95 = rule(RateAlertRule.Kind.ABOVE, 95);
+        RateAlertRule below90 = rule(RateAlertRule.Kind.BELOW, 90);
+        assertTrue(engine.add(above92));
+        assertTrue(engine.add(above95));
+        assertTrue(engine.add(below90));
+
+        assertTrue(evaluate(engine, eurInr(91), DAY, null).isEmpty());
+        assertEquals(List.of(above92.id), ids(evaluate(engine, eurInr(92), DAY, null)));
+        assertTrue(evaluate(engine, eurInr(93), DAY, null).isEmpty()); // Already above
+        assertEquals(List.of(above95.id), ids(evaluate(engine, eurInr(96), DAY, null)));
+        assertEquals(List.of(below90.id), ids(evaluate(engine, eurInr(89), DAY, null)));
+        assertEquals(List.of(above92.id, above95.id), ids(evaluate(engine, eurInr(100), DAY, null)));
+    }
+
+    @Test
+    public void firstLookFiresRulesAlreadyPast() {
+        RateAlertEngine engine = new RateAlertEngine();
+        engine.add(rule(RateAlertRule.Kind.ABOVE, 92));
+        engine.add(rule(RateAlertRule.Kind.BELOW, 80));
+        List<RateAlertEngine.Alert> alerts = evaluate(engine, eurInr(93), DAY, null);
+        assertEquals(1, alerts.size());
+        assertEquals(RateAlertRule.Kind.ABOVE, alerts.get(0).rule.kind);
+        assertTrue(Double.isNaN(alerts.get(0).reference));
+    }
+
+    @Test
+    public void dailyMovesFireOncePerDay() {
+        RateAlertEngine engine = new RateAlertEngine();
+        RateAlertRule onePercent = rule(RateAlertRule.Kind.MOVE, 1);
+        RateAlertRule fivePercent = rule(RateAlertRule.Kind.MOVE, 5);
+        engine.add(onePercent);
+        engine.add(fivePercent);
+        RateAlertEngine.DayRates yesterday = (from, to, day) -> day == DAY - 1 ? 90.0 : Double.NaN;
+
+        assertTrue(evaluate(engine, eurInr(90.5), DAY, yesterday).isEmpty());
+        List<RateAlertEngine.Alert> alerts = evaluate(engine, eurInr(88.9), DAY, yesterday); // -1.2%
+        assertEquals(List.of(onePercent.id), ids(alerts));
+        assertEquals(90.0, alerts.get(0).reference, 0.0);
+        assertEquals(List.of(fivePercent.id), ids(evaluate(engine, eurInr(80), DAY, yesterday)));
+        assertTrue(evaluate(engine, eurInr(79), DAY, yesterday).isEmpty());
+        assertTrue(evaluate(engine, eurInr(70), DAY + 1, null).isEmpty()); // No history, no move rules
+    }
+
+    @Test
+    public void crossPairsAreDerivedFromAnyBase() {
+        RateAlertEngine engine = new RateAlertEngine();
+        RateAlertRule usdInr = new RateAlertRule("USD", "INR", RateAlertRule.Kind.ABOVE, 80);
+        engine.add(usdInr);
+        assertEquals(List.of(usdInr.id), ids(evaluate(engine, eurInr(92), DAY, null))); // 92 / 1.1 = 83.6
+    }
+
+    @Test
+    public void onlyPairsTheChangesTouchAreLookedAt() {
+        RateAlertEngine engine = new RateAlertEngine();
+        for (String pair : new String[]{"EUR/INR", "EUR/USD", "USD/GBP", "GBP/JPY"}) {
+            engine.add(new RateAlertRule(pair.substring(0, 3), pair.substring(4), RateAlertRule.Kind.MOVE, 50));
+        }
+        List<String> lookedUp = new ArrayList<>();
+        RateAlertEngine.DayRates dayRates = (from, to, day) -> {
+            lookedUp.add(CurrencyCodes.code(from) + "/" + CurrencyCodes.code(to));
+            return 1.0;
+        };
+        evaluate(engine, CrossRateTable.from(FakeCurrencyApi.response("EUR", "2026-10-18",
+                "INR", 90.0, "USD", 1.1, "GBP", 0.85, "JPY", 160.0)), DAY, dayRates);
+        assertEquals(4, lookedUp.size()); // First table, everything is new
+
+        lookedUp.clear();
+        CrossRateTable inrMoved = CrossRateTable.from(FakeCurrencyApi.response("EUR", "2026-10-18",
+                "INR", 91.0, "USD", 1.1, "GBP", 0.85, "JPY", 160.0));
+        assertTrue(engine.watchesAny(RateSnapshots.Changes.between(previous, inrMoved)));
+        evaluate(engine, inrMoved, DAY, dayRates);
+        assertEquals(List.of("EUR/INR"), lookedUp); // Only INR moved
+
+        CrossRateTable chfAdded = CrossRateTable.from(FakeCurrencyApi.response("EUR", "2026-10-18",
+                "INR", 91.0, "USD", 1.1, "GBP", 0.85, "JPY", 160.0, "CHF", 0.95));
+        assertFalse(engine.watchesAny(RateSnapshots.Changes.between(previous, chfAdded))); // No rule has CHF
+    }
+
+    @Test
+    public void rejectsBadRulesAndRemoves() {
+        RateAlertEngine engine = new RateAlertEngine();
+        assertFalse(engine.add(new RateAlertRule("EUR", "XXX", RateAlertRule.Kind.ABOVE, 1)));
+        assertFalse(engine.add(new RateAlertRule("EUR", "EUR", RateAlertRule.Kind.ABOVE, 1)));
+        assertFalse(engine.add(rule(RateAlertRule.Kind.ABOVE, -1)));
+        RateAlertRule above = rule(RateAlertRule.Kind.ABOVE, 92);
+        engine.add(above);
+        assertEquals(1, engine.rules("EUR", "INR").size());
+        assertTrue(engine.remove(above.id));
+        assertFalse(engine.remove(above.id));
+        assertEquals(0, engine.size());
+        assertTrue(evaluate(engine, eurInr(100), DAY, null).isEmpty());
+    }
+
+    @Test
+    public void stateSurvivesARestart() {
+        RateAlertEngine engine = new RateAlertEngine();
+        engine.add(rule(RateAlertRule.Kind.ABOVE, 92));
+        engine.add(rule(RateAlertRule.Kind.MOVE, 1));
+        evaluate(engine, eurInr(93), DAY, null);
+
+        RateAlertEngine restored = RateAlertEngine.fromJson(engine.toJson());
+        assertEquals(2, restored.size());
+        assertTrue(evaluate(restored, eurInr(94), DAY, null).isEmpty()); // Crossing already reported
+        RateAlertRule added = rule(RateAlertRule.Kind.BELOW, 50);
+        restored.add(added);
+        assertEquals(3, added.id);
+        assertEquals(0, RateAlertEngine.fromJson("not json").size());
+        assertEquals(0, RateAlertEngine.fromJson(null).size());
+    }
+
+    @Test
+    public void thousandsOfRulesMatchABruteForceScan() {
+        Random random = new Random(3);
+        String[] targets = {"INR", "USD", "GBP", "JPY", "CHF"};
+        Map<String, Double> rates = new HashMap<>();
+        for (String target : targets) rates.put(target, 1 + random.nextDouble() * 100);
+
+        RateAlertEngine engine = new RateAlertEngine();
+        List<RateAlertRule> all = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String target = targets[random.nextInt(targets.length)];
+            RateAlertRule.Kind kind = random.nextBoolean() ? RateAlertRule.Kind.ABOVE : RateAlertRule.Kind.BELOW;
+            RateAlertRule rule = new RateAlertRule("EUR", target, kind, rates.get(target) * (0.8 + random.nextDouble() * 0.4));
+            engine.add(rule);
+            all.add(rule);
+        }
+        evaluate(engine, table(rates, targets), DAY, null); // Baseline
+
+        for (int round = 0; round < 50; round++) {
+            Map<String, Double> next = new HashMap<>();
+            for (String target : targets) next.put(target, rates.get(target) * Math.exp(random.nextGaussian() * 0.05));
+            List<Long> expected = new ArrayList<>();
+            for (RateAlertRule rule : all) {
+                double before = rates.get(rule.toCode), after = next.get(rule.toCode);
+                boolean crossed = rule.kind == RateAlertRule.Kind.ABOVE
+                        ? before < rule.threshold && after >= rule.threshold
+                        : before > rule.threshold && after <= rule.threshold;
+                if (crossed) expected.add(rule.id);
+            }
+            List<Long> actual = ids(evaluate(engine, table(next, targets), DAY, null));
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual);
+            rates = next;
+        }
+    }
+
+    private static CrossRateTable table(Map<String, Double> rates, String[] targets) {
+        Object[] codesAndRates = new Object[targets.length * 2];
+        for (int i = 0; i < targets.length; i++) {
+            codesAndRates[i * 2] = targets[i];
+            codesAndRates[i * 2 + 1] = rates.get(targets[i]);
+        }
+        return CrossRateTable.from(FakeCurrencyApi.response("EUR", "2026-10-18", codesAndRates));
+    }
+}
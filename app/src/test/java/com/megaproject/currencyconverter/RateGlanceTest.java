@@ -0,0 +1,68 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class RateGlanceTest {
+
+    private static CrossRateTable usd(double eur, double gbp) {
+        return CrossRateTable.from(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", eur, "GBP", gbp, "JPY", 150.0));
+    }
+
+    @Test
+    public void rowsAreTheFirstPinsAgainstTheBase() {
+        RateGlance glance = RateGlance.of(usd(0.92, 0.8), "USD", "EUR,USD,GBP,XXX,JPY,CAD,CHF", Locale.US);
+        // USD against itself and unknown codes are skipped, then capped at MAX_ROWS
+        assertEquals(RateGlance.MAX_ROWS, glance.size());
+        assertEquals("EUR", glance.code(0));
+        assertEquals("GBP", glance.code(1));
+        assertEquals("JPY", glance.code(2));
+        assertEquals("CAD", glance.code(3));
+        assertEquals("0.9200", glance.value(0));
+        assertEquals("150.0000", glance.value(2));
+        assertNull(glance.value(3)); // Not in the table
+        assertEquals("2026-10-18", glance.date());
+    }
+
+    @Test
+    public void ratesAreCrossedForOtherBases() {
+        RateGlance glance = RateGlance.of(usd(0.8, 0.5), "EUR", "GBP", Locale.US);
+        assertEquals("0.6250", glance.value(0));
+    }
+
+    @Test
+    public void withoutATableEveryRowIsEmpty() {
+        RateGlance glance = RateGlance.of(null, "USD", "EUR,GBP", Locale.US);
+        assertEquals(2, glance.size());
+        assertNull(glance.value(0));
+        assertNull(glance.date());
+    }
+
+    @Test
+    public void newValuesForTheSameRowsAreAPartialUpdate() {
+        RateGlance before = RateGlance.of(usd(0.92, 0.8), "USD", "EUR,GBP", Locale.US);
+        RateGlance after = RateGlance.of(usd(0.92, 0.81), "USD", "EUR,GBP", Locale.US);
+        assertTrue(after.sameRows(before));
+        assertFalse(after.valueChanged(before, 0));
+        assertTrue(after.valueChanged(before, 1));
+
+        assertFalse(RateGlance.of(usd(0.92, 0.8), "USD", "GBP,EUR", Locale.US).sameRows(before));
+        assertFalse(RateGlance.of(usd(0.92, 0.8), "EUR", "EUR,GBP", Locale.US).sameRows(before));
+        assertFalse(before.sameRows(null));
+    }
+
+    @Test
+    public void onlySnapshotsMovingAShownPairMatter() {
+        RateSnapshots snapshots = new RateSnapshots();
+        RateSnapshots.Changes[] last = new RateSnapshots.Changes[1];
+        snapshots.subscribe((snapshot, changes) -> last[0] = changes);
+        snapshots.publish(usd(0.92, 0.8), 1);
+        snapshots.publish(CrossRateTable.from(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92, "GBP", 0.8, "JPY", 151.0)), 2);
+
+        assertFalse(RateGlance.of(snapshots.table(), "USD", "EUR,GBP", Locale.US).affectedBy(last[0]));
+        assertTrue(RateGlance.of(snapshots.table(), "USD", "EUR,JPY", Locale.US).affectedBy(last[0]));
+    }
+}
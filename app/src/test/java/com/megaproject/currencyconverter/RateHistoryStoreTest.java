@@ -0,0 +1,165 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RateHistoryStoreTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final int USD = CurrencyCodes.ordinal("USD");
+    private static final int EUR = CurrencyCodes.ordinal("EUR");
+    private static final int GBP = CurrencyCodes.ordinal("GBP");
+    private static final int JPY = CurrencyCodes.ordinal("JPY");
+
+    private static double[] rates(Object... codesAndRates) {
+        double[] perBase = new double[CurrencyCodes.count()];
+        Arrays.fill(perBase, Double.NaN);
+        for (int i = 0; i < codesAndRates.length; i += 2) {
+            perBase[CurrencyCodes.ordinal((String) codesAndRates[i])] = ((Number) codesAndRates[i + 1]).doubleValue();
+        }
+        return perBase;
+    }
+
+    @Test
+    public void datesRoundTrip() {
+        assertEquals(0, RateHistoryStore.epochDay("1970-01-01"));
+        assertEquals(20_744, RateHistoryStore.epochDay("2026-10-18"));
+        assertEquals(-1, RateHistoryStore.epochDay("1969-12-31"));
+        assertEquals(Integer.MIN_VALUE, RateHistoryStore.epochDay("18/10/2026"));
+        assertEquals(Integer.MIN_VALUE, RateHistoryStore.epochDay((String) null));
+        assertEquals(20_744, RateHistoryStore.epochDay(1_792_324_800_000L)); // 2026-10-18T12:00Z
+        for (int day = -1000; day < 30_000; day += 7) {
+            assertEquals(day, RateHistoryStore.epochDay(RateHistoryStore.isoDate(day)));
+        }
+        assertEquals("2024-02-29", RateHistoryStore.isoDate(RateHistoryStore.epochDay("2024-02-29")));
+    }
+
+    @Test
+    public void seriesKeepsRatesToSixDigits() {
+        RateTimeSeries series = new RateTimeSeries(USD);
+        series.add(100, rates("EUR", 0.8, "JPY", 150.0));
+        series.add(101, rates("EUR", 0.81, "JPY", 149.5, "GBP", 0.75)); // GBP shows up late
+        series.add(103, rates("EUR", 0.82));                            // Gap, and JPY missing
+
+        assertEquals(3, series.dayCount());
+        assertEquals(0.81, series.rateAt(1, USD, EUR), 1e-6);
+        assertEquals(149.5 / 0.81, series.rateAt(1, EUR, JPY), 1e-3);
+        assertTrue(Double.isNaN(series.rateAt(0, USD, GBP)));
+        assertTrue(Double.isNaN(series.rateAt(2, USD, JPY)));
+        assertEquals(1.0, series.rateAt(2, USD, USD), 0.0);
+        assertEquals(1, series.indexAtOrBefore(102));
+        assertEquals(-1, series.indexAtOrBefore(99));
+
+        double[] snapshot = new double[CurrencyCodes.count()];
+        series.snapshotAt(1, snapshot);
+        assertEquals(1.0, snapshot[USD], 0.0);
+        assertEquals(0.75, snapshot[GBP], 1e-6);
+    }
+
+    @Test
+    public void sameDayReplacesAndOlderDaysAreRejected() {
+        RateTimeSeries series = new RateTimeSeries(USD);
+        assertTrue(series.add(10, rates("EUR", 0.8)));
+        assertTrue(series.add(11, rates("EUR", 0.9)));
+        assertTrue(series.add(11, rates("EUR", 0.95, "GBP", 0.7)));
+        assertFalse(series.add(9, rates("EUR", 0.5)));
+        assertTrue(series.add(12, rates("EUR", 1.0)));
+
+        assertEquals(3, series.dayCount());
+        assertEquals(0.8, series.rateAt(0, USD, EUR), 1e-6);
+        assertEquals(0.95, series.rateAt(1, USD, EUR), 1e-6);
+        assertEquals(0.7, series.rateAt(1, USD, GBP), 1e-6);
+        assertEquals(1.0, series.rateAt(2, USD, EUR), 1e-6);
+    }
+
+    @Test
+    public void fiveYearsOfEveryCurrencyStayCompact() throws IOException {
+        int days = 5 * 365;
+        int currencies = CurrencyCodes.count();
+        Random random = new Random(42);
+        double[] level = new double[currencies];
+        for (int c = 0; c < currencies; c++) level[c] = Math.exp(random.nextGaussian() * 3);
+        double[][] truth = new double[days][];
+        RateTimeSeries series = new RateTimeSeries(USD);
+        for (int d = 0; d < days; d++) {
+            double[] perBase = new double[currencies];
+            for (int c = 0; c < currencies; c++) {
+                level[c] *= Math.exp(random.nextGaussian() * 0.005); // ~0.5% daily moves
+                perBase[c] = c == USD ? 1.0 : level[c];
+            }
+            truth[d] = perBase;
+            series.add(18_000 + d, perBase);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        series.write(new DataOutputStream(bytes));
+        // Raw doubles would be ~2.4 MB; the seed is fixed, so the size is too
+        assertTrue("Encoded to " + bytes.size() + " bytes", bytes.size() < 1024 * 1024);
+
+        RateTimeSeries read = RateTimeSeries.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(days, read.dayCount());
+        for (int d = 0; d < days; d += 97) {
+            for (int c = 0; c < currencies; c += 11) {
+                assertEquals(truth[d][c] / truth[d][EUR], read.rateAt(d, EUR, c), truth[d][c] / truth[d][EUR] * 2e-6);
+            }
+        }
+
+        // A year of one pair is the chart's worst case; RateHistoryBenchmark times it
+        double[] out = new double[365];
+        read.ratesBetween(days - 365, days, EUR, JPY, out, 0);
+        assertEquals(truth[days - 365][JPY] / truth[days - 365][EUR], out[0], out[0] * 2e-6);
+        assertEquals(truth[days - 1][JPY] / truth[days - 1][EUR], out[364], out[364] * 2e-6);
+    }
+
+    @Test
+    public void recordsAreKeptOnDiskPerBase() throws IOException {
+        File dir = tmp.newFolder();
+        RateHistoryStore store = new RateHistoryStore(dir);
+        assertTrue(store.record(FakeCurrencyApi.response("USD", "2026-10-16", "EUR", 0.80, "JPY", 150.0), 0));
+        assertTrue(store.record(FakeCurrencyApi.response("USD", "2026-10-17", "EUR", 0.82, "JPY", 151.0), 0));
+        assertTrue(store.record(FakeCurrencyApi.response("EUR", "2026-10-18", "USD", 1.25, "GBP", 0.9), 0));
+        assertFalse(store.record(FakeCurrencyApi.response("USD", "2026-10-01", "EUR", 0.5), 0));
+        assertTrue(new File(dir, "USD.rts").exists());
+        assertTrue(new File(dir, "EUR.rts").exists());
+
+        RateHistoryStore reopened = new RateHistoryStore(dir);
+        int day = RateHistoryStore.epochDay("2026-10-17");
+        assertEquals(0.82, reopened.rate(USD, EUR, day), 1e-6);
+        assertEquals(0.80, reopened.rate("USD", "EUR", "2026-10-16"), 1e-6);
+        assertEquals(0.8, reopened.rate(USD, EUR, day + 1), 1e-6); // Newest snapshot wins, EUR's from the 18th
+        assertTrue(Double.isNaN(reopened.rate(USD, EUR, day - 5)));
+
+        RateHistoryStore.Series series = reopened.range(EUR, JPY, day - 1, day);
+        assertEquals(2, series.size);
+        assertEquals(day - 1, series.days[0]);
+        assertEquals(150.0 / 0.80, series.rates[0], 1e-3);
+        assertEquals(151.0 / 0.82, series.rates[1], 1e-3);
+
+        CrossRateTable table = reopened.tableOn(day + 3, 7);
+        assertEquals("2026-10-18", table.getDate());
+        assertEquals(0.9, table.rate(EUR, GBP), 1e-6);
+        assertNull(reopened.tableOn(day + 30, 7));
+    }
+
+    @Test
+    public void missingDateUsesTheFetchDay() throws IOException {
+        RateHistoryStore store = new RateHistoryStore(tmp.newFolder());
+        store.record(FakeCurrencyApi.response("USD", null, "EUR", 0.8), 1_792_324_800_000L);
+        assertEquals(0.8, store.rate(USD, EUR, 20_744), 1e-6);
+        assertEquals(1, store.lastDays(USD, EUR, 30).size);
+    }
+}
@@ -0,0 +1,79 @@
+package com.megaproject.currencyconverter;
+
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RatePayloadParserTest {
+
+    static String recordedPayload() throws IOException {
+        try (InputStream in = RatePayloadParserTest.class.getClassLoader().getResourceAsStream("rates_usd.json");
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder();
+            char[] chunk = new char[4096];
+            int n;
+            while ((n = reader.read(chunk)) > 0) sb.append(chunk, 0, n);
+            return sb.toString();
+        }
+    }
+
+    @Test
+    public void matchesGsonOnRecordedPayload() throws IOException {
+        String json = recordedPayload();
+        ExchangeRateResponse gson = new Gson().fromJson(json, ExchangeRateResponse.class);
+        ExchangeRateResponse streamed = new RatePayloadParser().parse(new StringReader(json));
+
+        assertEquals(gson.base, streamed.base);
+        assertEquals(gson.date, streamed.date);
+        assertNull(streamed.rates);
+        for (Map.Entry<String, Double> entry : gson.rates.entrySet()) {
+            // Bit-for-bit, not just close
+            assertEquals(entry.getKey(), entry.getValue(), streamed.getRate(entry.getKey()), 0.0);
+        }
+    }
+
+    @Test
+    public void skipsUnknownCodesAndExtraFields() throws IOException {
+        String json = "{ \"nested\": {\"a\": [1, {\"b\": \"}\"}]}, \"base\": \"EUR\", \"rates\": "
+                + "{\"USD\": 1.09, \"???\": 5, \"XYZ\": null, \"JPY\": 1.6e2}, \"date\": \"2026-10-18\" }";
+        ExchangeRateResponse response = new RatePayloadParser().parse(new StringReader(json));
+
+        assertEquals("EUR", response.base);
+        assertEquals("2026-10-18", response.date);
+        assertEquals(1.09, response.getRate("USD"), 0.0);
+        assertEquals(160.0, response.getRate("JPY"), 0.0);
+        assertEquals(1.0, response.getRate("EUR"), 0.0);
+        assertTrue(Double.isNaN(response.getRate("GBP")));
+    }
+
+    @Test
+    public void writtenCacheReadsBackIdentically() throws IOException {
+        RatePayloadParser parser = new RatePayloadParser();
+        ExchangeRateResponse original = parser.parse(new StringReader(recordedPayload()));
+        StringWriter out = new StringWriter();
+        RatePayloadParser.write(original, out);
+        ExchangeRateResponse copy = parser.parse(new StringReader(out.toString()));
+
+        assertEquals(original.date, copy.date);
+        assertArrayEquals(original.table, copy.table, 0.0);
+    }
+
+    @Test
+    public void fastPathAgreesWithDoubleParseDouble() {
+        String[] samples = {"0", "1", "0.0001", "3.6725", "16574.2", "42111.07", "0.000012345678901", "-2.5", "123456789012345"};
+        for (String s : samples) {
+            assertEquals(s, Double.parseDouble(s), RatePayloadParser.parseDouble(s.toCharArray(), s.length()), 0.0);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RateRepositoryTest {
+
+    private static final long TTL = 60_000L;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private FakeCurrencyApi api;
+    private File cacheDir;
+    private long now = 1_700_000_000_000L;
+    private final List<ExchangeRateResponse> delivered = new ArrayList<>();
+    private final List<Boolean> fromCache = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+
+    private final RateRepository.Callback callback = new RateRepository.Callback() {
+        @Override
+        public void onRates(ExchangeRateResponse rates, boolean cached) {
+            delivered.add(rates);
+            fromCache.add(cached);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            errors.add(t);
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        api = new FakeCurrencyApi();
+        cacheDir = tmp.newFolder("rates");
+    }
+
+    private RateRepository newRepository() {
+        return new RateRepository(api, cacheDir, TTL, () -> now, Runnable::run);
+    }
+
+    @Test
+    public void coldCacheGoesToNetworkAndPersists() {
+        RateRepository repository = newRepository();
+        repository.getRates("USD", callback);
+        assertEquals(1, api.calls.size());
+        assertTrue(delivered.isEmpty());
+
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92));
+        assertEquals(1, delivered.size());
+        assertFalse(fromCache.get(0));
+        assertTrue(new File(cacheDir, "rates_USD.json").exists());
+    }
+
+    @Test
+    public void fetchedRatesGoIntoTheHistory() throws IOException {
+        RateHistoryStore history = new RateHistoryStore(tmp.newFolder("history"));
+        RateRepository repository = newRepository();
+        repository.setRateHistory(history);
+        repository.getRates("USD", callback);
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92));
+
+        assertEquals(0.92, history.rate("USD", "EUR", "2026-10-18"), 1e-6);
+    }
+
+    @Test
+    public void backgroundSyncSkipsUnchangedPayloads() throws IOException {
+        RateRepository repository = newRepository();
+        api.conditionalResponses.add(retrofit2.Response.success(
+                FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92),
+                okhttp3.Headers.of("ETag", "\"v1\"", "Last-Modified", "Sun, 18 Oct 2026 00:00:00 GMT")));
+        assertTrue(repository.syncNow("USD"));
+        assertEquals("null|null", api.conditionalHeaders.get(0)); // Nothing cached yet
+
+        now += 2 * TTL;
+        assertFalse(repository.isFresh("USD"));
+        api.conditionalResponses.add(FakeCall.notModified());
+        assertFalse(repository.syncNow("USD"));
+        assertEquals("\"v1\"|Sun, 18 Oct 2026 00:00:00 GMT", api.conditionalHeaders.get(1));
+        assertTrue(repository.isFresh("USD"));
+
+        // Still fresh after a restart, the 304 moved the file's fetch time too
+        RateRepository restarted = newRepository();
+        restarted.getRates("USD", callback);
+        assertEquals(2, api.calls.size());
+        assertEquals(0.92, delivered.get(0).getRate("EUR"), 0.0);
+    }
+
+    @Test
+    public void fetchedAndPersistedRatesArePublished() throws IOException {
+        RateRepository repository = newRepository();
+        repository.getRates("USD", callback);
+        assertNull(repository.snapshots().current());
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92));
+        assertEquals(0.92, repository.snapshots().table().rate("USD", "EUR"), 1e-9);
+
+        // After a restart the cached file is the first snapshot, before any network
+        RateRepository restarted = newRepository();
+        restarted.peek("USD");
+        assertEquals(1, restarted.snapshots().current().version);
+        assertEquals(0.92, restarted.snapshots().table().rate("USD", "EUR"), 1e-9);
+
+        // A background sync of another base updates it too
+        now += 1000;
+        api.conditionalResponses.add(retrofit2.Response.success(FakeCurrencyApi.response("EUR", "2026-10-18", "USD", 1.1)));
+        assertTrue(restarted.syncNow("EUR"));
+        assertEquals(2, restarted.snapshots().current().version);
+        assertEquals(1.1, restarted.snapshots().table().rate("EUR", "USD"), 1e-9);
+    }
+
+    @Test
+    public void persistedRatesCanBeReadWithoutARepository() {
+        assertNull(RateRepository.readPersisted(cacheDir, "USD"));
+        newRepository().getRates("EUR", callback);
+        api.lastCall().respond(FakeCurrencyApi.response("EUR", "2026-10-18", "USD", 1.1));
+
+        assertEquals("EUR", RateRepository.readPersisted(cacheDir, "EUR").base);
+        // No USD file, the newest table of any base covers it
+        assertEquals("EUR", RateRepository.readPersisted(cacheDir, "USD").base);
+        assertEquals(1, api.calls.size()); // Reading never fetches
+    }
+
+    @Test(expected = IOException.class)
+    public void backgroundSyncReportsFailures() throws IOException {
+        api.conditionalResponses.add(retrofit2.Response.error(500, okhttp3.ResponseBody.create(null, "")));
+        newRepository().syncNow("USD");
+    }
+
+    @Test
+    public void restartServesPersistedRatesWithoutRoundTrip() {
+        newRepository().getRates("USD", callback);
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92));
+
+        // A fresh repository stands in for an app restart
+        RateRepository restarted = newRepository();
+        restarted.getRates("USD", callback);
+        assertEquals(1, api.calls.size());
+        assertEquals(2, delivered.size());
+        assertTrue(fromCache.get(1));
+        assertEquals(0.92, delivered.get(1).getRate("EUR"), 1e-9);
+    }
+
+    @Test
+    public void staleCacheIsServedThenRevalidated() {
+        RateRepository repository = newRepository();
+        repository.getRates("USD", callback);
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-17", "EUR", 0.92));
+
+        now += TTL + 1;
+        repository.getRates("USD", callback);
+        // Stale copy is delivered straight away and a refresh is in flight
+        assertEquals(2, delivered.size());
+        assertTrue(fromCache.get(1));
+        assertEquals(2, api.calls.size());
+
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.93));
+        assertEquals(3, delivered.size());
+        assertFalse(fromCache.get(2));
+        assertTrue(repository.isFresh("USD"));
+    }
+
+    @Test
+    public void networkFailureFallsBackToStaleRates() {
+        RateRepository repository = newRepository();
+        repository.getRates("USD", callback);
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-17", "EUR", 0.92));
+
+        now += TTL + 1;
+        repository.getRates("USD", callback);
+        api.lastCall().fail(new IOException("offline"));
+
+        assertTrue(errors.isEmpty());
+        assertEquals(0.92, repository.peek("USD").getRate("EUR"), 1e-9);
+    }
+
+    @Test
+    public void networkFailureWithoutCacheReportsError() {
+        newRepository().getRates("GBP", callback);
+        api.lastCall().fail(new IOException("offline"));
+
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, errors.size());
+    }
+}
@@ -0,0 +1,93 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RateRequestCoalescingTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private FakeCurrencyApi api;
+    private RateRepository repository;
+    private final List<String> deliveredBases = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+
+    private final RateRepository.Callback callback = new RateRepository.Callback() {
+        @Override
+        public void onRates(ExchangeRateResponse rates, boolean fromCache) {
+            deliveredBases.add(rates.base);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            errors.add(t);
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        api = new FakeCurrencyApi();
+        repository = new RateRepository(api, tmp.newFolder("rates"), 60_000L, () -> 0L, Runnable::run);
+    }
+
+    @Test
+    public void duplicateRequestsShareOneCall() {
+        repository.getRates("USD", callback);
+        repository.getRates("USD", callback);
+        repository.getRates("USD", callback);
+        assertEquals(1, api.calls.size());
+
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92));
+        assertEquals(3, deliveredBases.size());
+    }
+
+    @Test
+    public void changingBaseCancelsTheSupersededCall() {
+        repository.getRates("USD", callback);
+        FakeCall<ExchangeRateResponse> usdCall = api.lastCall();
+        repository.getRates("EUR", callback);
+
+        assertTrue(usdCall.isCanceled());
+        assertEquals(2, api.calls.size());
+        // Cancellation is not an error the user should see
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void lateResponseForOldBaseIsNotApplied() {
+        repository.getRates("USD", callback);
+        FakeCall<ExchangeRateResponse> usdCall = api.lastCall();
+        repository.getRates("EUR", callback);
+        FakeCall<ExchangeRateResponse> eurCall = api.lastCall();
+
+        eurCall.respond(FakeCurrencyApi.response("EUR", "2026-10-18", "USD", 1.09));
+        // The USD reply races the cancel and arrives last anyway
+        usdCall.respond(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92));
+
+        assertEquals(1, deliveredBases.size());
+        assertEquals("EUR", deliveredBases.get(0));
+    }
+
+    @Test
+    public void backAndForthStartsFreshCallForReturningBase() {
+        repository.getRates("USD", callback);
+        repository.getRates("EUR", callback);
+        repository.getRates("USD", callback);
+        assertEquals(3, api.calls.size());
+        assertTrue(api.calls.get(0).isCanceled());
+        assertTrue(api.calls.get(1).isCanceled());
+
+        api.lastCall().respond(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", 0.92));
+        assertEquals(1, deliveredBases.size());
+        assertEquals("USD", deliveredBases.get(0));
+    }
+}
@@ -0,0 +1,130 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RateSnapshotsTest {
+
+    private final RateSnapshots snapshots = new RateSnapshots();
+    private final List<RateSnapshots.Snapshot> published = new ArrayList<>();
+    private final List<RateSnapshots.Changes> changes = new ArrayList<>();
+
+    private static CrossRateTable usd(double eur, double gbp, double inr) {
+        return CrossRateTable.from(FakeCurrencyApi.response("USD", "2026-10-18", "EUR", eur, "GBP", gbp, "INR", inr));
+    }
+
+    private void listen() {
+        snapshots.subscribe((snapshot, changed) -> {
+            published.add(snapshot);
+            changes.add(changed);
+        });
+    }
+
+    @Test
+    public void publishedTablesAreVersionedAndShared() {
+        assertNull(snapshots.current());
+        assertNull(snapshots.table());
+        CrossRateTable first = usd(0.9, 0.8, 88);
+        RateSnapshots.Snapshot one = snapshots.publish(first, 100);
+        assertEquals(1, one.version);
+        assertSame(first, snapshots.table()); // No copy, every reader gets the same table
+
+        RateSnapshots.Snapshot two = snapshots.publish(usd(0.91, 0.8, 88), 200);
+        assertEquals(2, two.version);
+        assertSame(two, snapshots.current());
+    }
+
+    @Test
+    public void olderAndUnchangedTablesAreIgnored() {
+        listen();
+        RateSnapshots.Snapshot current = snapshots.publish(usd(0.9, 0.8, 88), 200);
+        assertSame(current, snapshots.publish(usd(0.95, 0.8, 88), 100)); // Fetched earlier
+        assertSame(current, snapshots.publish(usd(0.9, 0.8, 88), 300));  // Same rates, newer fetch
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    public void firstSnapshotChangesEveryPairItHas() {
+        listen();
+        snapshots.publish(usd(0.9, 0.8, 88), 100);
+        RateSnapshots.Changes first = changes.get(0);
+        assertTrue(first.contains("EUR", "INR"));
+        assertTrue(first.contains("USD", "GBP"));
+        assertFalse(first.contains("USD", "JPY"));
+    }
+
+    @Test
+    public void changesListOnlyPairsWhoseRateMoved() {
+        listen();
+        snapshots.publish(usd(0.9, 0.8, 88), 100);
+        snapshots.publish(usd(0.9, 0.8, 89), 200); // Only INR moved against USD
+        RateSnapshots.Changes changed = changes.get(1);
+        assertTrue(changed.contains("USD", "INR"));
+        assertTrue(changed.contains("INR", "EUR"));
+        assertTrue(changed.moved(CurrencyCodes.ordinal("INR")));
+        assertFalse(changed.contains("USD", "EUR"));
+        assertFalse(changed.contains("EUR", "GBP"));
+        assertFalse(changed.moved(CurrencyCodes.ordinal("USD")));
+    }
+
+    @Test
+    public void changesAreComparedAcrossBases() {
+        listen();
+        snapshots.publish(usd(0.8, 0.5, 80), 100);
+        // Same market with EUR as the base, except GBP
+        snapshots.publish(CrossRateTable.from(FakeCurrencyApi.response("EUR", "2026-10-18",
+                "USD", 1.25, "GBP", 0.6, "INR", 100.0)), 200);
+        RateSnapshots.Changes changed = changes.get(1);
+        assertFalse(changed.contains("USD", "EUR"));
+        assertFalse(changed.contains("USD", "INR"));
+        assertTrue(changed.contains("USD", "GBP"));
+        assertTrue(changed.contains("GBP", "INR"));
+    }
+
+    @Test
+    public void unsubscribedListenersHearNothing() {
+        RateSnapshots.Listener listener = (snapshot, changed) -> published.add(snapshot);
+        snapshots.subscribe(listener);
+        snapshots.subscribe(listener); // Once only
+        snapshots.publish(usd(0.9, 0.8, 88), 100);
+        snapshots.unsubscribe(listener);
+        snapshots.publish(usd(0.91, 0.8, 88), 200);
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    public void concurrentPublishersEachGetTheirOwnVersion() throws Exception {
+        int threads = 4, perThread = 500;
+        AtomicLong notified = new AtomicLong();
+        snapshots.subscribe((snapshot, changed) -> notified.incrementAndGet());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    // Every table differs, and all share one fetch time so none is rejected as older
+                    snapshots.publish(usd(1 + offset * perThread + i, 0.8, 88), 100);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        assertEquals(threads * perThread, snapshots.current().version);
+        assertEquals(threads * perThread, notified.get());
+    }
+}
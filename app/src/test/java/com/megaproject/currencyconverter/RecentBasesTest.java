@@ -0,0 +1,27 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RecentBasesTest {
+
+    @Test
+    public void newestFirstWithoutDuplicates() {
+        RecentBases recent = RecentBases.fromString("USD,EUR");
+        assertTrue(recent.touch("GBP"));
+        assertTrue(recent.touch("EUR"));
+        assertFalse(recent.touch("EUR"));
+        assertEquals("EUR,GBP,USD", recent.toString());
+    }
+
+    @Test
+    public void oldestDropsOff() {
+        RecentBases recent = RecentBases.fromString("A,B,C,D");
+        recent.touch("E");
+        assertEquals(RecentBases.MAX, recent.list().size());
+        assertEquals("E,A,B,C", recent.toString());
+        assertEquals("", RecentBases.fromString(null).toString());
+        assertEquals("USD,EUR", RecentBases.fromString(" USD, ,EUR,USD").toString());
+    }
+}
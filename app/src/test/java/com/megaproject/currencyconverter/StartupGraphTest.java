@@ -0,0 +1,128 @@
+package com.megaproject.currencyconverter;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class StartupGraphTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void stepsRunAfterTheirDependencies() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        StartupGraph graph = new StartupGraph()
+                .add("registry", () -> order.add("registry"))
+                .add("services", () -> order.add("services"))
+                .add("flags", () -> order.add("flags"), "registry")
+                .add("rates", () -> order.add("rates"), "services", "flags");
+        graph.start(executor);
+
+        assertTrue(graph.await(5, TimeUnit.SECONDS));
+        assertEquals(4, order.size());
+        assertTrue(order.indexOf("registry") < order.indexOf("flags"));
+        assertTrue(order.indexOf("flags") < order.indexOf("rates"));
+        assertTrue(order.indexOf("services") < order.indexOf("rates"));
+        assertTrue(graph.totalNanos() >= 0);
+    }
+
+    @Test
+    public void independentStepsOverlap() throws Exception {
+        // Each waits for the other to have started, so this only finishes if they run together
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        StartupGraph.Step step = () -> {
+            bothStarted.countDown();
+            if (!bothStarted.await(5, TimeUnit.SECONDS)) throw new AssertionError("Ran one after the other");
+        };
+        StartupGraph graph = new StartupGraph().add("history", step).add("services", step);
+        graph.start(executor);
+
+        assertTrue(graph.await(10, TimeUnit.SECONDS));
+        assertNull(graph.error("history"));
+        assertNull(graph.error("services"));
+    }
+
+    @Test
+    public void failedStepStillFinishesTheGraph() throws Exception {
+        AtomicInteger ran = new AtomicInteger();
+        StartupGraph graph = new StartupGraph()
+                .add("history", () -> {
+                    throw new java.io.IOException("disk");
+                })
+                .add("after", ran::incrementAndGet, "history");
+        graph.start(executor);
+
+        assertTrue(graph.await(5, TimeUnit.SECONDS));
+        assertEquals(1, ran.get());
+        assertTrue(graph.error("history") instanceof java.io.IOException);
+        assertTrue(graph.report().contains("failed"));
+    }
+
+    @Test
+    public void whenFinishedRunsOnceWhetherAddedBeforeOrAfter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger before = new AtomicInteger(), after = new AtomicInteger();
+        StartupGraph graph = new StartupGraph().add("slow", release::await);
+        graph.start(executor);
+        graph.whenFinished(before::incrementAndGet);
+        assertFalse(graph.isFinished());
+        assertEquals(-1, graph.stepNanos("slow"));
+
+        release.countDown();
+        assertTrue(graph.await(5, TimeUnit.SECONDS));
+        graph.whenFinished(after::incrementAndGet); // Already done: runs right here
+
+        assertEquals(1, after.get());
+        for (int i = 0; i < 100 && before.get() == 0; i++) Thread.sleep(10); // Listener runs after await wakes
+        assertEquals(1, before.get());
+        assertTrue(graph.stepNanos("slow") >= 0);
+    }
+
+    @Test
+    public void emptyGraphFinishesAtOnce() {
+        AtomicInteger finished = new AtomicInteger();
+        StartupGraph graph = new StartupGraph();
+        graph.whenFinished(finished::incrementAndGet);
+        graph.start(executor);
+
+        assertTrue(graph.isFinished());
+        assertEquals(1, finished.get());
+    }
+
+    @Test
+    public void awaitTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StartupGraph graph = new StartupGraph().add("slow", release::await);
+        graph.start(executor);
+
+        assertFalse(graph.await(20, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(graph.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dependenciesMustBeAddedFirst() {
+        new StartupGraph().add("flags", () -> { }, "registry");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cannotAddAfterStart() {
+        StartupGraph graph = new StartupGraph();
+        graph.start(executor);
+        graph.add("late", () -> { });
+    }
+}
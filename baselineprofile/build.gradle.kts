@@ -0,0 +1,42 @@
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+// Runs on a device (API 28+, ideally a physical one) against :app.
+//  - `./gradlew :app:generateBaselineProfile` runs BaselineProfileGenerator and writes the
+//    profile into app/src/main/generated/baselineProfiles.
+//  - `./gradlew :baselineprofile:connectedBenchmarkReleaseAndroidTest` measures release as it
+//    ships today (not minified), `connectedBenchmarkPerformanceAndroidTest` the R8 build. Each
+//    benchmark runs without AOT compilation and with the baseline profile, so the results hold
+//    both comparisons; they land in build/outputs/connected_android_test_additional_output.
+android {
+    namespace = "com.megaproject.currencyconverter.baselineprofile"
+    compileSdk {
+        version = release(36)
+    }
+
+    defaultConfig {
+        minSdk = 28
+        targetSdk = 36
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    targetProjectPath = ":app"
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+}
+
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
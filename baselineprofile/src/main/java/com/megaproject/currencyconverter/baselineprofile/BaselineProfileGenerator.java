@@ -0,0 +1,44 @@
+package com.megaproject.currencyconverter.baselineprofile;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Records the classes and methods used on splash → convert → picker, which Retrofit, Gson,
+ * Glide and RecyclerView otherwise run interpreted on every cold start. Run with
+ * `./gradlew :app:generateBaselineProfile`; the startup part also becomes the startup profile
+ * that orders the dex.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(
+                Journeys.PACKAGE,
+                /* maxIterations = */ 15,
+                /* stableIterations = */ 3,
+                /* outputFilePrefix = */ null,
+                /* includeInStartupProfile = */ true,
+                /* strictStability = */ false,
+                /* filterPredicate = */ name -> true,
+                scope -> {
+                    Journeys.start(scope);
+                    Journeys.convert(scope, "250");
+                    Journeys.scrollPicker(scope);
+                    Journeys.scrollMain(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
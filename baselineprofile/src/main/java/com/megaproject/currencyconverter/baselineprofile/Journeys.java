@@ -0,0 +1,62 @@
+package com.megaproject.currencyconverter.baselineprofile;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/** The user journeys the profile is generated from and the benchmarks measure, as UiAutomator steps. */
+final class Journeys {
+
+    static final String PACKAGE = "com.megaproject.currencyconverter";
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Journeys() {}
+
+    /** Splash to the converter, waiting until rates are on screen (not just the first frame). */
+    static void start(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        find(device, "etAmount");
+        device.wait(Until.hasObject(By.res(PACKAGE, "tvBoardAmount")), TIMEOUT_MS); // The board fills once rates are in
+    }
+
+    /** Types an amount and converts it, which also adds a history row. */
+    static void convert(MacrobenchmarkScope scope, String amount) {
+        UiDevice device = scope.getDevice();
+        find(device, "etAmount").setText(amount);
+        find(device, "btnConvert").click();
+        device.waitForIdle();
+    }
+
+    /** Opens the picker for the "to" currency and flings through the whole list and back. */
+    static void scrollPicker(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        find(device, "containerTo").click();
+        fling(device, find(device, "rvCurrencies"));
+        device.pressBack();
+        device.wait(Until.gone(By.res(PACKAGE, "rvCurrencies")), TIMEOUT_MS);
+    }
+
+    /** Flings the converter screen, history included, down and back up. */
+    static void scrollMain(MacrobenchmarkScope scope) {
+        fling(scope.getDevice(), find(scope.getDevice(), "scrollMain"));
+    }
+
+    private static void fling(UiDevice device, UiObject2 list) {
+        list.setGestureMargin(device.getDisplayWidth() / 5); // Stay clear of the system gesture areas
+        list.fling(Direction.DOWN);
+        device.waitForIdle();
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    private static UiObject2 find(UiDevice device, String id) {
+        UiObject2 view = device.wait(Until.findObject(By.res(PACKAGE, id)), TIMEOUT_MS);
+        if (view == null) throw new AssertionError("No view " + id + " on screen");
+        return view;
+    }
+}
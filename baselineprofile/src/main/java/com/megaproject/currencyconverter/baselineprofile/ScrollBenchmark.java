@@ -0,0 +1,84 @@
+package com.megaproject.currencyconverter.baselineprofile;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Frame times while flinging the currency picker and the converter screen with its history,
+ * right after a cold start when the code is least warmed up.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class ScrollBenchmark {
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void pickerWithoutCompilation() {
+        picker(new CompilationMode.None());
+    }
+
+    @Test
+    public void pickerWithBaselineProfile() {
+        picker(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    @Test
+    public void historyWithoutCompilation() {
+        history(new CompilationMode.None());
+    }
+
+    @Test
+    public void historyWithBaselineProfile() {
+        history(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void picker(CompilationMode compilationMode) {
+        rule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                10,
+                scope -> {
+                    Journeys.start(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.scrollPicker(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private void history(CompilationMode compilationMode) {
+        rule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                10,
+                scope -> {
+                    Journeys.start(scope);
+                    for (int i = 0; i < 5; i++) Journeys.convert(scope, String.valueOf(100 + i)); // Enough rows to scroll
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.scrollMain(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
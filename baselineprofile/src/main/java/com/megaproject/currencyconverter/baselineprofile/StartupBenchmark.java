@@ -0,0 +1,55 @@
+package com.megaproject.currencyconverter.baselineprofile;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Cold start to the converter with rates on screen. timeToFullDisplay is the part to watch:
+ * MainActivity reports fully drawn once the first rates are showing. Run per build type to
+ * compare release with performance, see baselineprofile/build.gradle.kts.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class StartupBenchmark {
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    // What a fresh install gets before the profile is applied, and the worst case on API < 24
+    @Test
+    public void startupWithoutCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupWithBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void startup(CompilationMode compilationMode) {
+        rule.measureRepeated(
+                Journeys.PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                10,
+                scope -> Unit.INSTANCE,
+                scope -> {
+                    Journeys.start(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
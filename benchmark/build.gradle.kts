@@ -0,0 +1,106 @@
+import groovy.json.JsonSlurper
+
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// :app is an Android application and can't be a JVM dependency, so the plain-Java classes on
+// the hot paths are compiled here straight from its sources. Add new ones to this list.
+sourceSets {
+    main {
+        java {
+            setSrcDirs(listOf("../app/src/main/java"))
+            include(
+                "com/megaproject/currencyconverter/BatchConverter.java",
+                "com/megaproject/currencyconverter/ConversionBoard.java",
+                "com/megaproject/currencyconverter/CrossRateTable.java",
+                "com/megaproject/currencyconverter/CurrencyCodes.java",
+                "com/megaproject/currencyconverter/CurrencyItem.java",
+                "com/megaproject/currencyconverter/CurrencySearchIndex.java",
+                "com/megaproject/currencyconverter/ExchangeRateResponse.java",
+                "com/megaproject/currencyconverter/HistoryItem.java",
+                "com/megaproject/currencyconverter/HistoryPageSource.java",
+                "com/megaproject/currencyconverter/HistoryStore.java",
+                "com/megaproject/currencyconverter/MoneyFormatter.java",
+                "com/megaproject/currencyconverter/PagedHistory.java",
+                "com/megaproject/currencyconverter/PerfMetrics.java",
+                "com/megaproject/currencyconverter/RatePayloadParser.java",
+                "com/megaproject/currencyconverter/RateTimeSeries.java",
+                "com/megaproject/currencyconverter/StartupGraph.java"
+            )
+        }
+        // Recorded API payloads, and the currency names and aliases the picker searches
+        resources {
+            setSrcDirs(listOf("../app/src/test/resources", "../tools"))
+            exclude("*.java") // The packers next to currencies.tsv
+        }
+    }
+}
+
+dependencies {
+    implementation(libs.gson)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    benchmarkMode.set(listOf("avgt"))
+    timeUnit.set("ns")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
+// Regression check: `./gradlew :benchmark:jmh :benchmark:checkBenchmarkRegressions` compares the
+// latest run with benchmark/baseline.json and fails if any benchmark got more than 10% slower.
+// `recordBenchmarkBaseline` stores the latest run as the new baseline.
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val baselineFile = layout.projectDirectory.file("baseline.json")
+
+tasks.register<Copy>("recordBenchmarkBaseline") {
+    from(jmhResults)
+    into(layout.projectDirectory)
+    rename { "baseline.json" }
+}
+
+tasks.register("checkBenchmarkRegressions") {
+    doLast {
+        val baseline = baselineFile.asFile
+        val current = jmhResults.get().asFile
+        if (!baseline.exists()) {
+            logger.lifecycle("No benchmark/baseline.json yet, run recordBenchmarkBaseline first")
+            return@doLast
+        }
+        if (!current.exists()) throw GradleException("No JMH results, run :benchmark:jmh first")
+
+        fun scores(file: File): Map<String, Double> {
+            @Suppress("UNCHECKED_CAST")
+            val runs = JsonSlurper().parse(file) as List<Map<String, Any?>>
+            return runs.associate { run ->
+                val params = (run["params"] as Map<*, *>?)?.entries?.joinToString(",") { "${it.key}=${it.value}" }
+                val key = run["benchmark"].toString() + (params?.let { "[$it]" } ?: "")
+                val score = ((run["primaryMetric"] as Map<*, *>)["score"] as Number).toDouble()
+                key to score
+            }
+        }
+
+        val before = scores(baseline)
+        val after = scores(current)
+        val regressions = after.mapNotNull { (name, score) ->
+            val old = before[name] ?: return@mapNotNull null
+            // All benchmarks report time per operation, so higher is worse
+            if (score > old * 1.10) "$name: %.3f -> %.3f".format(old, score) else null
+        }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("Benchmark regressions:\n" + regressions.joinToString("\n"))
+        }
+        logger.lifecycle("No benchmark regressions against baseline (${after.size} results)")
+    }
+}
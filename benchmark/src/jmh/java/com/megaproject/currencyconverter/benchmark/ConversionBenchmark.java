@@ -0,0 +1,79 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.megaproject.currencyconverter.CrossRateTable;
+import com.megaproject.currencyconverter.ExchangeRateResponse;
+import com.megaproject.currencyconverter.MoneyFormatter;
+import com.megaproject.currencyconverter.RatePayloadParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/** Mirrors the body of MainActivity.performConversion() minus the views. */
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+
+    private CrossRateTable table;
+    private String amountText = "1234.56";
+    private String fromCurrency = "USD";
+    private String toCurrency = "EUR";
+    private final MoneyFormatter formatter = new MoneyFormatter(Locale.getDefault());
+    private final StringBuilder text = new StringBuilder(64);
+    private final char[] chars = new char[64];
+
+    @Setup
+    public void setUp() throws IOException {
+        ExchangeRateResponse response = new RatePayloadParser().parse(Payloads.usdReader());
+        table = CrossRateTable.from(response);
+    }
+
+    @Benchmark
+    public double arithmetic() {
+        double amount = Double.parseDouble(amountText);
+        double rate = table.rate(fromCurrency, toCurrency);
+        return amount * rate;
+    }
+
+    @Benchmark
+    public String formatResult() {
+        double amount = Double.parseDouble(amountText);
+        double rate = table.rate(fromCurrency, toCurrency);
+        double result = amount * rate;
+        return String.format(Locale.getDefault(), "%s%.2f", "€", result);
+    }
+
+    @Benchmark
+    public String formatRatePill() {
+        double rate = table.rate(fromCurrency, toCurrency);
+        return String.format(Locale.getDefault(), "1 %s = %.4f %s", fromCurrency, rate, toCurrency);
+    }
+
+    // What performConversion does now: scaled-long math into reused buffers. With the gc
+    // profiler, gc.alloc.rate.norm should be ~0 bytes per operation for this and the next one
+    @Benchmark
+    public int formatResultReused() {
+        long amount = formatter.parseAmount(amountText);
+        long result = MoneyFormatter.multiply(amount, MoneyFormatter.scaleRate(table.rate(fromCurrency, toCurrency)), 2);
+        text.setLength(0);
+        formatter.appendMoney(text, "€", result, 2);
+        int length = text.length();
+        text.getChars(0, length, chars, 0);
+        return length;
+    }
+
+    @Benchmark
+    public int formatRatePillReused() {
+        long rate = MoneyFormatter.scaleRate(table.rate(fromCurrency, toCurrency));
+        text.setLength(0);
+        text.append("1 ").append(fromCurrency).append(" = ");
+        formatter.appendDecimal(text, MoneyFormatter.rescale(rate, MoneyFormatter.RATE_SCALE, 4), 4, false);
+        text.append(' ').append(toCurrency);
+        int length = text.length();
+        text.getChars(0, length, chars, 0);
+        return length;
+    }
+}
@@ -0,0 +1,46 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.megaproject.currencyconverter.ConversionBoard;
+import com.megaproject.currencyconverter.CrossRateTable;
+import com.megaproject.currencyconverter.CurrencyCodes;
+import com.megaproject.currencyconverter.MoneyFormatter;
+import com.megaproject.currencyconverter.RatePayloadParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/** The recompute behind MainActivity's board with every currency pinned, minus the diff and binds. */
+@State(Scope.Benchmark)
+public class ConversionBoardBenchmark {
+
+    private CrossRateTable table;
+    private final ConversionBoard board = new ConversionBoard();
+    private final double[] rates = new double[CurrencyCodes.count()];
+    private int from;
+    private long amount;
+
+    @Setup
+    public void setUp() throws IOException {
+        table = CrossRateTable.from(new RatePayloadParser().parse(Payloads.usdReader()));
+        board.pinAll(table);
+        from = CurrencyCodes.ordinal("EUR");
+        amount = new MoneyFormatter(Locale.US).parseAmount("1234.56");
+    }
+
+    @Benchmark
+    public double[] crossRates() {
+        table.crossRates(from, rates);
+        return rates;
+    }
+
+    @Benchmark
+    public ConversionBoard computeAllPinned() {
+        board.compute(table, from, amount);
+        return board;
+    }
+}
@@ -0,0 +1,63 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.megaproject.currencyconverter.CurrencyCodes;
+import com.megaproject.currencyconverter.CurrencyItem;
+import com.megaproject.currencyconverter.CurrencySearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The picker's search (CurrencySelectionBottomSheet) over every code the API knows, with the
+ * names and aliases from tools/currencies.tsv, the source of the registry asset.
+ */
+@State(Scope.Benchmark)
+public class CurrencySearchBenchmark {
+
+    @Param({"u", "dol", "swiss", "eur"})
+    public String query;
+
+    private final List<CurrencyItem> items = new ArrayList<>();
+    private final List<String[]> aliases = new ArrayList<>();
+    private CurrencySearchIndex index;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("currencies.tsv");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] columns = line.split("\t", -1);
+                if (CurrencyCodes.ordinal(columns[0]) < 0) continue;
+                items.add(new CurrencyItem(columns[0], columns[4], null));
+                aliases.add(columns.length > 5 && !columns[5].isEmpty() ? columns[5].split(";") : new String[0]);
+            }
+        }
+        index = build();
+    }
+
+    // Once per picker opening
+    @Benchmark
+    public CurrencySearchIndex build() {
+        CurrencySearchIndex built = new CurrencySearchIndex();
+        for (int i = 0; i < items.size(); i++) built.add(items.get(i), aliases.get(i));
+        return built.build();
+    }
+
+    // Once per keystroke
+    @Benchmark
+    public List<CurrencyItem> search() {
+        return index.search(query);
+    }
+}
@@ -0,0 +1,39 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.megaproject.currencyconverter.HistoryItem;
+import com.megaproject.currencyconverter.MoneyFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+
+/** The text HistoryAdapter.onBindViewHolder() builds for every row it binds. */
+@State(Scope.Benchmark)
+public class HistoryBindBenchmark {
+
+    private final HistoryItem item = new HistoryItem("USD", "EUR", 100, 92.54, "Today, 10:30 AM");
+    private final MoneyFormatter formatter = new MoneyFormatter(Locale.getDefault());
+    private final StringBuilder text = new StringBuilder(64);
+    private final char[] chars = new char[64];
+
+    @Benchmark
+    public String bindText() {
+        String fromText = String.format("%.2f %s", item.fromAmount, item.fromCode);
+        String toText = String.format("%.2f %s", item.toAmount, item.toCode);
+        return fromText + " → " + toText;
+    }
+
+    @Benchmark
+    public int bindTextReused() {
+        text.setLength(0);
+        formatter.appendDecimal(text, MoneyFormatter.fromDouble(item.fromAmount, 2), 2, true);
+        text.append(' ').append(item.fromCode).append(" → ");
+        formatter.appendDecimal(text, MoneyFormatter.fromDouble(item.toAmount, 2), 2, true);
+        text.append(' ').append(item.toCode);
+        int length = text.length();
+        text.getChars(0, length, chars, 0);
+        return length;
+    }
+}
@@ -0,0 +1,50 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.megaproject.currencyconverter.HistoryItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/** The Gson round trip MainActivity.saveHistory() / loadHistory() do on the whole list. */
+@State(Scope.Benchmark)
+public class HistorySerializationBenchmark {
+
+    private static final String[] CODES = {"USD", "EUR", "GBP", "JPY", "INR", "CHF"};
+
+    @Param({"10", "1000", "100000"})
+    public int entries;
+
+    private final Gson gson = new Gson();
+    private final Type type = new TypeToken<ArrayList<HistoryItem>>() {}.getType();
+    private List<HistoryItem> history;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        history = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            history.add(new HistoryItem(CODES[i % CODES.length], CODES[(i + 1) % CODES.length],
+                    100 + i, (100 + i) * 0.92, "Today, 10:30 AM"));
+        }
+        json = gson.toJson(history);
+    }
+
+    @Benchmark
+    public String save() {
+        return gson.toJson(history);
+    }
+
+    @Benchmark
+    public List<HistoryItem> load() {
+        return gson.fromJson(json, type);
+    }
+}
@@ -0,0 +1,59 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.megaproject.currencyconverter.HistoryItem;
+import com.megaproject.currencyconverter.HistoryStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/** Same sizes as HistorySerializationBenchmark, for the append-only store that replaced it. */
+@State(Scope.Benchmark)
+public class HistoryStoreBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int entries;
+
+    private File dir;
+    private HistoryStore store;
+    private final HistoryItem item = new HistoryItem("USD", "EUR", 100, 92.54, 1_700_000_000_000L);
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("history-bench").toFile();
+        store = new HistoryStore(dir);
+        for (int i = 0; i < entries; i++) store.append(item);
+        store.flush();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    // One conversion written on its own, the worst case for the batched writer
+    @Benchmark
+    public long appendAndFlush() throws IOException {
+        long id = store.append(item);
+        store.flush();
+        return id;
+    }
+
+    @Benchmark
+    public List<HistoryItem> openAndReadFirstPage() throws IOException {
+        try (HistoryStore reopened = new HistoryStore(dir)) {
+            return reopened.readPage(0, 50);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.megaproject.currencyconverter.HistoryItem;
+import com.megaproject.currencyconverter.HistoryStore;
+import com.megaproject.currencyconverter.PagedHistory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Scrolling the history list: one row per operation from PagedHistory over the store, top to
+ * bottom and round again. The gc profiler's bytes per operation should be the same for a
+ * thousand entries as for a million.
+ */
+@State(Scope.Benchmark)
+public class PagedHistoryBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int entries;
+
+    private File dir;
+    private HistoryStore store;
+    private PagedHistory history;
+    private int position;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("paged-history-bench").toFile();
+        store = new HistoryStore(dir);
+        HistoryItem item = new HistoryItem("USD", "EUR", 100, 92.54, 1_700_000_000_000L);
+        for (int i = 0; i < entries; i++) store.append(item);
+        store.flush();
+        history = new PagedHistory(store);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    @Benchmark
+    public HistoryItem scroll() {
+        HistoryItem item = history.get(position);
+        if (++position == entries) position = 0;
+        return item;
+    }
+}
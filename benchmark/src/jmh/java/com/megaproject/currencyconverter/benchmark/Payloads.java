@@ -0,0 +1,28 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+final class Payloads {
+
+    private Payloads() {}
+
+    static String usd() throws IOException {
+        try (InputStream in = Payloads.class.getClassLoader().getResourceAsStream("rates_usd.json");
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder();
+            char[] chunk = new char[4096];
+            int n;
+            while ((n = reader.read(chunk)) > 0) sb.append(chunk, 0, n);
+            return sb.toString();
+        }
+    }
+
+    static Reader usdReader() throws IOException {
+        return new StringReader(usd());
+    }
+}
@@ -0,0 +1,41 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.megaproject.currencyconverter.PerfMetrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Cost of recording one event, which has to stay under 100 ns. {@code timedEvent} is what the
+ * instrumented code pays (two clock reads plus the sample); the rest isolate the pieces.
+ */
+@State(Scope.Benchmark)
+public class PerfMetricsBenchmark {
+
+    private final PerfMetrics metrics = PerfMetrics.get();
+    private long nanos = 1;
+
+    @Benchmark
+    public void timedEvent() {
+        metrics.record(PerfMetrics.Timer.CONVERSION, PerfMetrics.now());
+    }
+
+    @Benchmark
+    public void sample() {
+        metrics.recordNanos(PerfMetrics.Timer.CONVERSION, nanos = nanos * 3 & 0xFFFFFF); // Spread over the buckets
+    }
+
+    @Benchmark
+    public void counter() {
+        metrics.count(PerfMetrics.Counter.RATE_CACHE_HIT);
+    }
+
+    // Binds and fetches can record from several threads at once
+    @Benchmark
+    @Threads(4)
+    public void contendedSample() {
+        metrics.recordNanos(PerfMetrics.Timer.CURRENCY_BIND, 50_000);
+    }
+}
@@ -0,0 +1,72 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.megaproject.currencyconverter.CurrencyCodes;
+import com.megaproject.currencyconverter.RateTimeSeries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Five years of daily rates for every currency, as RateHistoryStore keeps them per base: the
+ * chart's read of one pair over a year, and writing and reading back the whole series.
+ */
+@State(Scope.Benchmark)
+public class RateHistoryBenchmark {
+
+    private static final int DAYS = 5 * 365;
+
+    private RateTimeSeries series;
+    private byte[] encoded;
+    private final double[] year = new double[365];
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024 * 1024);
+    private int eur, jpy;
+
+    @Setup
+    public void setUp() throws IOException {
+        int currencies = CurrencyCodes.count();
+        int usd = CurrencyCodes.ordinal("USD");
+        eur = CurrencyCodes.ordinal("EUR");
+        jpy = CurrencyCodes.ordinal("JPY");
+        Random random = new Random(42);
+        double[] level = new double[currencies];
+        for (int c = 0; c < currencies; c++) level[c] = Math.exp(random.nextGaussian() * 3);
+        series = new RateTimeSeries(usd);
+        double[] perBase = new double[currencies];
+        for (int d = 0; d < DAYS; d++) {
+            for (int c = 0; c < currencies; c++) {
+                level[c] *= Math.exp(random.nextGaussian() * 0.005); // ~0.5% daily moves
+                perBase[c] = c == usd ? 1.0 : level[c];
+            }
+            series.add(18_000 + d, perBase);
+        }
+        encoded = encode();
+    }
+
+    // A year of one pair is the chart's worst case
+    @Benchmark
+    public double[] yearOfOnePair() {
+        series.ratesBetween(DAYS - 365, DAYS, eur, jpy, year, 0);
+        return year;
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        bytes.reset();
+        series.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public RateTimeSeries decode() throws IOException {
+        return RateTimeSeries.read(new DataInputStream(new ByteArrayInputStream(encoded)));
+    }
+}
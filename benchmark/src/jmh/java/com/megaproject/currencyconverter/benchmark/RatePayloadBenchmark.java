@@ -0,0 +1,37 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.google.gson.Gson;
+import com.megaproject.currencyconverter.ExchangeRateResponse;
+import com.megaproject.currencyconverter.RatePayloadParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/** Gson reflection vs RatePayloadParser on the recorded USD payload (run with -prof gc for B/op). */
+@State(Scope.Thread)
+public class RatePayloadBenchmark {
+
+    private final Gson gson = new Gson();
+    private final RatePayloadParser parser = new RatePayloadParser();
+    private String json;
+
+    @Setup
+    public void setUp() throws IOException {
+        json = Payloads.usd();
+    }
+
+    @Benchmark
+    public ExchangeRateResponse gson() {
+        return gson.fromJson(new StringReader(json), ExchangeRateResponse.class);
+    }
+
+    @Benchmark
+    public ExchangeRateResponse streaming() throws IOException {
+        return parser.parse(new StringReader(json));
+    }
+}
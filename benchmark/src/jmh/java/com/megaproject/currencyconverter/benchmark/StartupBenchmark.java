@@ -0,0 +1,115 @@
+package com.megaproject.currencyconverter.benchmark;
+
+import com.google.gson.Gson;
+import com.megaproject.currencyconverter.CrossRateTable;
+import com.megaproject.currencyconverter.ExchangeRateResponse;
+import com.megaproject.currencyconverter.HistoryItem;
+import com.megaproject.currencyconverter.HistoryStore;
+import com.megaproject.currencyconverter.RatePayloadParser;
+import com.megaproject.currencyconverter.StartupGraph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to conversion-ready: what has to happen before MainActivity's first frame can show a
+ * result, done one step after another (as onCreate used to) and as AppWarmup's graph on a
+ * small pool. The HTTP client step builds the Gson adapter, the part of Retrofit's setup that
+ * works without Android; registry and flag assets need an AssetManager and are left out.
+ */
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"100", "100000"})
+    public int historyEntries;
+
+    private File dir;
+    private File ratesFile;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("startup-bench").toFile();
+        ratesFile = new File(dir, "rates_USD.json"); // What RateRepository keeps per base
+        Files.write(ratesFile.toPath(), Payloads.usd().getBytes(StandardCharsets.UTF_8));
+        File historyDir = new File(dir, "history");
+        try (HistoryStore store = new HistoryStore(historyDir)) {
+            HistoryItem item = new HistoryItem("USD", "EUR", 100, 92.54, 1_700_000_000_000L);
+            for (int i = 0; i < historyEntries; i++) store.append(item);
+            store.flush();
+        }
+        executor = Executors.newFixedThreadPool(3); // Same as AppWarmup, made once per process there too
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+        delete(dir);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) for (File child : children) delete(child);
+        file.delete();
+    }
+
+    // Results land here so the steps can't be optimised away
+    private static final class Warm {
+        volatile Object client;
+        volatile CrossRateTable rates;
+        volatile List<HistoryItem> firstPage;
+    }
+
+    private Object client() {
+        return new Gson().getAdapter(ExchangeRateResponse.class);
+    }
+
+    private CrossRateTable rates() throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(ratesFile), StandardCharsets.UTF_8)) {
+            return CrossRateTable.from(new RatePayloadParser().parse(reader));
+        }
+    }
+
+    private List<HistoryItem> firstPage() throws IOException {
+        try (HistoryStore store = new HistoryStore(new File(dir, "history"))) {
+            return store.readPage(0, 50);
+        }
+    }
+
+    @Benchmark
+    public Warm sequential() throws IOException {
+        Warm warm = new Warm();
+        warm.client = client();
+        warm.rates = rates();
+        warm.firstPage = firstPage();
+        return warm;
+    }
+
+    @Benchmark
+    public Warm parallel() throws InterruptedException {
+        Warm warm = new Warm();
+        StartupGraph graph = new StartupGraph()
+                .add("services", () -> warm.client = client())
+                .add("rates", () -> warm.rates = rates(), "services")
+                .add("history", () -> warm.firstPage = firstPage());
+        graph.start(executor);
+        if (!graph.await(10, TimeUnit.SECONDS)) throw new IllegalStateException(graph.report());
+        return warm;
+    }
+}
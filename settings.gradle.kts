@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "Currency Converter"
 include(":app")
+include(":benchmark")
+include(":baselineprofile")
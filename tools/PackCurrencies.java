@@ -0,0 +1,80 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs tools/currencies.tsv into the app's currencies.bin asset read by CurrencyRegistry.
+ * Run from the repo root after editing the table:
+ *
+ *   java tools/PackCurrencies.java tools/currencies.tsv app/src/main/assets/currencies.bin
+ *
+ * Layout (big-endian):
+ *   header   "CUR1", u16 count, u16 record size (12)
+ *   records  count × { code[3], u8 minor units, country[2] ("--" for none),
+ *                      u16 name, u16 symbol, u16 aliases }  (offsets into the pool)
+ *   pool     strings as u16 length + UTF-8 bytes, each distinct string stored once
+ */
+public class PackCurrencies {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java PackCurrencies.java <currencies.tsv> <currencies.bin>");
+            System.exit(2);
+        }
+        List<String[]> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] columns = line.split("\t", -1);
+            if (columns.length != 6 || !columns[0].matches("[A-Z]{3}")) throw new IOException("Bad row: " + line);
+            if (!rows.isEmpty() && rows.get(rows.size() - 1)[0].compareTo(columns[0]) >= 0) {
+                throw new IOException("Codes must be sorted and unique: " + columns[0]);
+            }
+            rows.add(columns);
+        }
+
+        ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        DataOutputStream pool = new DataOutputStream(poolBytes);
+        Map<String, Integer> offsets = new HashMap<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeBytes("CUR1");
+        data.writeShort(rows.size());
+        data.writeShort(12);
+        for (String[] row : rows) {
+            int minor = Integer.parseInt(row[1]);
+            String country = row[2].equals("-") ? "--" : row[2];
+            if (minor < 0 || minor > 4 || !country.matches("[a-z]{2}|--")) throw new IOException("Bad row: " + row[0]);
+            data.writeBytes(row[0]);
+            data.writeByte(minor);
+            data.writeBytes(country);
+            data.writeShort(intern(row[4], pool, offsets));
+            data.writeShort(intern(row[3], pool, offsets));
+            data.writeShort(intern(row[5], pool, offsets));
+        }
+        data.write(poolBytes.toByteArray());
+
+        Path target = Paths.get(args[1]);
+        if (target.getParent() != null) Files.createDirectories(target.getParent());
+        Files.write(target, out.toByteArray());
+        System.out.println(rows.size() + " currencies, " + out.size() + " bytes (" + poolBytes.size() + " of strings)");
+    }
+
+    private static int intern(String s, DataOutputStream pool, Map<String, Integer> offsets) throws IOException {
+        Integer offset = offsets.get(s);
+        if (offset != null) return offset;
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        if (pool.size() > 0xFFFF || utf8.length > 0xFFFF) throw new IOException("String pool too big for u16 offsets");
+        offsets.put(s, pool.size());
+        pool.writeShort(utf8.length);
+        pool.write(utf8);
+        return offsets.get(s);
+    }
+}
@@ -0,0 +1,133 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Packs one flag per country used in tools/currencies.tsv into the app's flag atlas, read by
+ * FlagAtlas. Each flag is center-cropped to a square, scaled down and cut to an anti-aliased
+ * circle here, so the app only copies pixels. The app build runs it as :app:packFlags into
+ * generated assets; by hand, from the repo root:
+ *
+ *   java tools/PackFlags.java <flag dir> tools/currencies.tsv <assets dir>
+ *
+ * The flag dir holds PNGs named by country and doubles as a download cache: flags it lacks are
+ * fetched from flagcdn's w160 set (https://flagcdn.com/w160/<cc>.png) once and kept there.
+ *
+ * Writes flags.png (cells of CELL px, left to right then top to bottom, each with a GUTTER px
+ * transparent border so filtering never bleeds into a neighbour) and flags.idx:
+ *
+ *   <cell size> <columns>
+ *   <country> <country> ...      (in cell order)
+ */
+public class PackFlags {
+
+    private static final int CELL = 80;      // 40dp picker rows at 2x, scaled down from there
+    private static final int GUTTER = 1;
+    private static final int COLUMNS = 16;
+    private static final int SAMPLES = 4;    // Per axis, for the circle's edge coverage
+    private static final String FLAG_URL = "https://flagcdn.com/w160/";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: java PackFlags.java <flag dir> <currencies.tsv> <assets dir>");
+            System.exit(2);
+        }
+        TreeSet<String> countries = new TreeSet<>();
+        for (String line : Files.readAllLines(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String country = line.split("\t", -1)[2];
+            if (!country.equals("-")) countries.add(country);
+        }
+
+        List<String> packed = new ArrayList<>();
+        List<BufferedImage> cells = new ArrayList<>();
+        for (String country : countries) {
+            File file = new File(args[0], country + ".png");
+            if (!file.isFile()) download(country, file);
+            BufferedImage flag = file.isFile() ? ImageIO.read(file) : null;
+            if (flag == null) {
+                System.err.println("No flag for " + country + ", the app will download it");
+                continue;
+            }
+            packed.add(country);
+            cells.add(circle(flag));
+        }
+
+        int stride = CELL + 2 * GUTTER;
+        int rows = (cells.size() + COLUMNS - 1) / COLUMNS;
+        BufferedImage atlas = new BufferedImage(COLUMNS * stride, Math.max(rows, 1) * stride, BufferedImage.TYPE_INT_ARGB);
+        for (int i = 0; i < cells.size(); i++) {
+            int x = (i % COLUMNS) * stride + GUTTER, y = (i / COLUMNS) * stride + GUTTER;
+            atlas.setRGB(x, y, CELL, CELL, cells.get(i).getRGB(0, 0, CELL, CELL, null, 0, CELL), 0, CELL);
+        }
+
+        Path dir = Paths.get(args[2]);
+        Files.createDirectories(dir);
+        ImageIO.write(atlas, "png", dir.resolve("flags.png").toFile());
+        Files.write(dir.resolve("flags.idx"), (CELL + " " + COLUMNS + "\n" + String.join(" ", packed) + "\n").getBytes(StandardCharsets.US_ASCII));
+        System.out.println(packed.size() + " flags, " + atlas.getWidth() + "x" + atlas.getHeight()
+                + ", " + Files.size(dir.resolve("flags.png")) + " bytes");
+    }
+
+    private static void download(String country, File file) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            HttpURLConnection connection = (HttpURLConnection) new URL(FLAG_URL + country + ".png").openConnection();
+            connection.setConnectTimeout(10_000);
+            connection.setReadTimeout(10_000);
+            if (connection.getResponseCode() != 200) throw new IOException("HTTP " + connection.getResponseCode());
+            try (InputStream in = connection.getInputStream()) {
+                Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            tmp.delete();
+            System.err.println("Couldn't download the flag for " + country + ": " + e.getMessage());
+        }
+    }
+
+    // Center square of the flag, scaled to CELL with the area outside the circle made transparent
+    private static BufferedImage circle(BufferedImage flag) {
+        int side = Math.min(flag.getWidth(), flag.getHeight());
+        BufferedImage square = flag.getSubimage((flag.getWidth() - side) / 2, (flag.getHeight() - side) / 2, side, side);
+        BufferedImage cell = new BufferedImage(CELL, CELL, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = cell.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(square, 0, 0, CELL, CELL, null);
+        g.dispose();
+
+        double radius = CELL / 2.0, center = CELL / 2.0;
+        for (int y = 0; y < CELL; y++) {
+            for (int x = 0; x < CELL; x++) {
+                int inside = 0;
+                for (int sy = 0; sy < SAMPLES; sy++) {
+                    for (int sx = 0; sx < SAMPLES; sx++) {
+                        double dx = x + (sx + 0.5) / SAMPLES - center, dy = y + (sy + 0.5) / SAMPLES - center;
+                        if (dx * dx + dy * dy <= radius * radius) inside++;
+                    }
+                }
+                int argb = cell.getRGB(x, y);
+                int alpha = (argb >>> 24) * inside / (SAMPLES * SAMPLES);
+                cell.setRGB(x, y, alpha << 24 | argb & 0xFFFFFF);
+            }
+        }
+        return cell;
+    }
+}